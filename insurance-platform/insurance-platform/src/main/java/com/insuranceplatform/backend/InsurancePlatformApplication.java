@@ -1,4 +1,4 @@
-﻿package com.insuranceplatform.backend;
+package com.insuranceplatform.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -46,11 +46,12 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
                             null, // No credentials needed for API key auth
                             AuthorityUtils.createAuthorityList("ROLE_API_USER") // Grant a specific role
                     );
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-
-                    // Update the last used timestamp for auditing purposes
+                    // Update the last used timestamp for auditing purposes. Done before authenticating
+                    // so this bookkeeping write does not pin the insurer's reads to the primary database.
                     apiKey.setLastUsed(LocalDateTime.now());
                     apiKeyRepository.save(apiKey);
+
+                    SecurityContextHolder.getContext().setAuthentication(auth);
                 }
             });
         }
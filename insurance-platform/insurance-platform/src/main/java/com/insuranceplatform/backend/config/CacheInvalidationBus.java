@@ -0,0 +1,291 @@
+package com.insuranceplatform.backend.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the second-level caches of all nodes consistent. Each node caches reference entities
+ * locally (see hibernate-cache.conf), and Hibernate only updates the cache of the node that made
+ * a change; the others would serve the old row until it expires.
+ *
+ * After a transaction that inserted, updated or deleted a cached entity commits, this bus
+ * publishes an invalidation message with PostgreSQL {@code NOTIFY}. Every node keeps one
+ * connection that {@code LISTEN}s on the channel and, for messages from other nodes, evicts the
+ * entity and the cached query results. The same thread sends this node's messages, so commits
+ * never wait on it. Messages missed while the connection was down are covered by evicting
+ * everything on reconnect.
+ *
+ * A quiet connection is checked with a query every {@code cache.invalidation.heartbeat-seconds},
+ * and any query left unanswered for that long drops it, so a connection that died silently (e.g. a
+ * firewall dropped it) is noticed and replaced instead of leaving this node's caches stale. While
+ * the connection is down, at most {@code cache.invalidation.max-pending} messages wait to be sent;
+ * past that they are dropped and a single "evict everything" message is sent in their place.
+ *
+ * Listens on {@code cache.invalidation.listen-url}, or the primary database URL. It must be a direct
+ * connection: LISTEN does not work through a transaction-pooling proxy such as PgBouncer.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener, InitializingBean, DisposableBean {
+
+    /**
+     * An invalidation message: the entity (JPA entity name) and ID that changed, and the node that
+     * changed it. Without an entity, receivers evict everything.
+     */
+    public record CacheInvalidation(String origin, String entity, Long id) {}
+
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    // Set when a message was dropped because the outbox was full
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private BlockingQueue<CacheInvalidation> outbox;
+    private Thread worker;
+    private volatile boolean running;
+
+    @Value("${cache.invalidation.channel:cache_invalidation}")
+    private String channel;
+
+    @Value("${cache.invalidation.listen-url:}")
+    private String listenUrl;
+
+    @Value("${cache.invalidation.poll-millis:500}")
+    private int pollMillis;
+
+    @Value("${cache.invalidation.heartbeat-seconds:30}")
+    private int heartbeatSeconds;
+
+    @Value("${cache.invalidation.max-pending:10000}")
+    private int maxPending;
+
+    @Override
+    public void afterPropertiesSet() {
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+
+        outbox = new LinkedBlockingQueue<>(maxPending);
+        running = true;
+        worker = new Thread(this::run, "cache-invalidation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        // The worker notices within one poll
+        worker.join(pollMillis + 1000L);
+    }
+
+    // --- Hibernate post-commit events (only for entities that have a cache region) ---
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Rolled back: nothing changed
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Rolled back: nothing changed
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Rolled back: nothing changed
+    }
+
+    // --- Private Helper Methods ---
+
+    private void publish(EntityPersister persister, Object id) {
+        if (id instanceof Long entityId && !outbox.offer(new CacheInvalidation(nodeId, persister.getEntityName(), entityId))) {
+            overflowed.set(true);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // Anything could have changed while this node was not listening
+                evictAll();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                long lastHeard = System.nanoTime();
+                while (running) {
+                    sendPending(connection);
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications != null && notifications.length > 0) {
+                        lastHeard = System.nanoTime();
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    } else if (System.nanoTime() - lastHeard > TimeUnit.SECONDS.toNanos(heartbeatSeconds)) {
+                        heartbeat(connection);
+                        lastHeard = System.nanoTime();
+                    }
+                }
+            } catch (SQLException | JsonProcessingException e) {
+                if (running) {
+                    log.warn("Cache invalidation connection lost, reconnecting in {} ms: {}", RECONNECT_DELAY_MILLIS, e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                // E.g. a cache eviction or driver failure. Ending the thread would leave this node's cache stale
+                // for good, so start over like after a lost connection, which evicts everything.
+                if (running) {
+                    log.error("Cache invalidation listener failed, restarting in {} ms.", RECONNECT_DELAY_MILLIS, e);
+                }
+            }
+            if (running && !sleepBeforeReconnect()) {
+                return;
+            }
+        }
+    }
+
+    private boolean sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        String url = listenUrl.isBlank() ? dataSourceProperties.determineUrl() : listenUrl;
+        Properties properties = new Properties();
+        properties.setProperty("user", dataSourceProperties.determineUsername());
+        if (dataSourceProperties.determinePassword() != null) {
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        // A heartbeat or message with no answer within a heartbeat interval fails instead of waiting for TCP to give up
+        properties.setProperty("socketTimeout", String.valueOf(heartbeatSeconds));
+        properties.setProperty("tcpKeepAlive", "true");
+        return DriverManager.getConnection(url, properties);
+    }
+
+    // A round trip on an otherwise quiet connection, so a dead one fails here rather than going unnoticed
+    private void heartbeat(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+        }
+    }
+
+    private void sendPending(Connection connection) throws SQLException, JsonProcessingException {
+        CacheInvalidation message;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            // Stands in for the messages dropped while the outbox was full
+            if (overflowed.getAndSet(false)) {
+                try {
+                    statement.setString(1, channel);
+                    statement.setString(2, objectMapper.writeValueAsString(new CacheInvalidation(nodeId, null, null)));
+                    statement.execute();
+                } catch (SQLException e) {
+                    overflowed.set(true);
+                    throw e;
+                }
+            }
+            // Removed only once sent, so a message survives a lost connection
+            while ((message = outbox.peek()) != null) {
+                statement.setString(1, channel);
+                statement.setString(2, objectMapper.writeValueAsString(message));
+                statement.execute();
+                outbox.remove();
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        CacheInvalidation message;
+        try {
+            message = objectMapper.readValue(payload, CacheInvalidation.class);
+        } catch (IOException e) {
+            log.warn("Ignoring malformed cache invalidation message: {}", payload);
+            return;
+        }
+        // Hibernate already updated this node's cache
+        if (nodeId.equals(message.origin())) {
+            return;
+        }
+        if (message.entity() == null) {
+            evictAll();
+            log.info("Evicted all cached entities: node {} dropped invalidation messages", message.origin());
+            return;
+        }
+        Cache cache = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+        cache.evictEntityData(message.entity(), message.id());
+        // Cached query results may include (or miss) the changed row
+        cache.evictQueryRegions();
+        log.debug("Evicted {}#{} changed on node {}", message.entity(), message.id(), message.origin());
+    }
+
+    private void evictAll() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache().evictAll();
+    }
+}
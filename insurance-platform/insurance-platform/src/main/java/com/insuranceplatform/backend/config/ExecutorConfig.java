@@ -0,0 +1,129 @@
+package com.insuranceplatform.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded worker pools for background work. Each pool has a fixed number of threads
+ * and a bounded queue, so a burst of work cannot exhaust memory or starve request threads.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${media.processing.threads:2}")
+    private int mediaProcessingThreads;
+
+    @Value("${media.processing.queue-capacity:200}")
+    private int mediaProcessingQueueCapacity;
+
+    /**
+     * Generates claim media derivatives. Jobs rejected by a full queue are saved and retried
+     * by MediaProcessingService, so they are delayed rather than dropped.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mediaProcessingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(mediaProcessingThreads);
+        executor.setMaxPoolSize(mediaProcessingThreads);
+        executor.setQueueCapacity(mediaProcessingQueueCapacity);
+        executor.setThreadNamePrefix("media-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Value("${reporting.rollup.backfill-threads:4}")
+    private int rollupBackfillThreads;
+
+    /**
+     * Runs rollup backfill chunks. When the queue is full the submitting thread runs the chunk
+     * itself, which throttles submission instead of rejecting work.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor rollupBackfillExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(rollupBackfillThreads);
+        executor.setMaxPoolSize(rollupBackfillThreads);
+        executor.setQueueCapacity(rollupBackfillThreads);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("rollup-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Value("${statements.threads:8}")
+    private int statementThreads;
+
+    /**
+     * Generates commission statements, one agent per task. A full queue makes the submitting
+     * run generate statements itself, which slows submission instead of dropping agents.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor statementExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(statementThreads);
+        executor.setMaxPoolSize(statementThreads);
+        executor.setQueueCapacity(statementThreads * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("statement-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    /**
+     * Runs a monthly statement run in the background. A single thread and no queue, so a second
+     * run is rejected while one is in progress.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor statementJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("statement-run-");
+        return executor;
+    }
+
+    @Value("${dashboard.metrics.query-threads:4}")
+    private int dashboardQueryThreads;
+
+    /**
+     * Runs the independent admin dashboard queries side by side. Each query holds a database
+     * connection, so the thread count also caps how many connections a refresh can take.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor dashboardQueryExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(dashboardQueryThreads);
+        executor.setMaxPoolSize(dashboardQueryThreads);
+        executor.setQueueCapacity(20);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("dashboard-");
+        return executor;
+    }
+
+    @Value("${webhooks.delivery.threads:8}")
+    private int webhookDeliveryThreads;
+
+    /**
+     * Sends webhook batches. The dispatcher stops handing out batches when the queue is full;
+     * the batches it could not submit are picked up on its next run.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor webhookExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(webhookDeliveryThreads);
+        executor.setMaxPoolSize(webhookDeliveryThreads);
+        executor.setQueueCapacity(webhookDeliveryThreads * 4);
+        executor.setThreadNamePrefix("webhook-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,60 @@
+package com.insuranceplatform.backend.config;
+
+import com.insuranceplatform.backend.repository.FileBlobRepository;
+import com.insuranceplatform.backend.service.DeduplicatingFileStorageService;
+import com.insuranceplatform.backend.service.EncryptingFileStorageService;
+import com.insuranceplatform.backend.service.FileStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Base64;
+
+/**
+ * Assembles the {@link FileStorageService} the rest of the application uses:
+ * <pre>
+ *   deduplication (plaintext hash) -> encryption -> backend selected by storage.type
+ * </pre>
+ * Deduplication sits outside encryption so identical documents still match even though each
+ * stored object gets its own data key.
+ */
+@Configuration
+@Slf4j
+public class FileStorageConfig {
+
+    @Value("${storage.dedup.enabled:true}")
+    private boolean dedupEnabled;
+
+    @Value("${storage.encryption.enabled:false}")
+    private boolean encryptionEnabled;
+
+    @Value("${storage.encryption.master-key:}")
+    private String encryptionMasterKey;
+
+    @Value("${storage.encryption.segment-size-bytes:65536}")
+    private int encryptionSegmentSize;
+
+    @Bean
+    @Primary
+    public FileStorageService fileStorageService(@Qualifier(FileStorageService.BACKEND) FileStorageService backend,
+                                                 FileBlobRepository fileBlobRepository,
+                                                 PlatformTransactionManager transactionManager) {
+        FileStorageService storage = backend;
+        if (encryptionEnabled) {
+            if (encryptionMasterKey.isBlank()) {
+                throw new IllegalStateException("storage.encryption.master-key must be set when storage encryption is enabled.");
+            }
+            storage = new EncryptingFileStorageService(storage, Base64.getDecoder().decode(encryptionMasterKey.trim()),
+                    encryptionSegmentSize);
+            log.info("Stored files are encrypted with AES-256-GCM ({}-byte segments)", encryptionSegmentSize);
+        }
+        if (dedupEnabled) {
+            storage = new DeduplicatingFileStorageService(storage, fileBlobRepository, transactionManager);
+        }
+        return storage;
+    }
+}
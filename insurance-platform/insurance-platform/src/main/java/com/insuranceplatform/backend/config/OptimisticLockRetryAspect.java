@@ -0,0 +1,31 @@
+package com.insuranceplatform.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs {@link RetryOnConflict} methods again when their transaction fails an optimistic lock check
+ * (see {@link OptimisticLockRetryTemplate} for the backoff, the 409 after the last attempt and the metrics).
+ *
+ * Ordered just outside the transaction interceptor, so every attempt is a new transaction with a
+ * fresh persistence context.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class OptimisticLockRetryAspect {
+
+    private final OptimisticLockRetryTemplate retryTemplate;
+
+    @Around("@annotation(com.insuranceplatform.backend.config.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        return retryTemplate.run(operation, joinPoint::proceed);
+    }
+}
@@ -0,0 +1,109 @@
+package com.insuranceplatform.backend.config;
+
+import com.insuranceplatform.backend.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work again when its transaction fails an optimistic lock check. Behind
+ * {@link RetryOnConflict} (see {@link OptimisticLockRetryAspect}), and used directly where the
+ * transaction is a {@code TransactionTemplate} block rather than a {@code @Transactional} method.
+ *
+ * The work must start its own transaction on every attempt and read current data in it. Attempts are
+ * spaced by an exponential backoff with full jitter (a random delay up to the backoff), so writers that
+ * collided once do not collide again in lockstep. After {@code concurrency.retry.max-attempts} the caller
+ * gets a {@link ConcurrentUpdateException} (409).
+ *
+ * Every conflict is counted in {@code optimistic.lock.conflicts}, tagged with the entity whose version
+ * check failed, the operation and the outcome ({@code retried} or {@code exhausted}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticLockRetryTemplate {
+
+    /**
+     * One attempt; may throw anything the retried method declares.
+     */
+    @FunctionalInterface
+    interface Attempt {
+        Object run() throws Throwable;
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${concurrency.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${concurrency.retry.initial-backoff-millis:20}")
+    private long initialBackoffMillis;
+
+    @Value("${concurrency.retry.max-backoff-millis:500}")
+    private long maxBackoffMillis;
+
+    /**
+     * @param operation Names the work in logs and metrics, e.g. "ClaimEvidenceUploadService.completeUpload".
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Supplier<T> work) {
+        try {
+            return (T) run(operation, work::get);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // A Supplier cannot throw checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    Object run(String operation, Attempt attempt) throws Throwable {
+        // Joined a caller's transaction: only the caller can start over, so the conflict goes to it
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return attempt.run();
+        }
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return attempt.run();
+            } catch (OptimisticLockingFailureException e) {
+                String entity = conflictingEntity(e);
+                if (attemptNumber >= maxAttempts) {
+                    recordConflict(entity, operation, "exhausted");
+                    log.warn("{} still conflicted on {} after {} attempts.", operation, entity, attemptNumber);
+                    throw new ConcurrentUpdateException("The record was changed by another request at the same time. Please try again.", e);
+                }
+                recordConflict(entity, operation, "retried");
+                long backoff = backoffMillis(attemptNumber);
+                log.debug("{} conflicted on {} (attempt {}), retrying in {} ms.", operation, entity, attemptNumber, backoff);
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void recordConflict(String entity, String operation, String outcome) {
+        meterRegistry.counter("optimistic.lock.conflicts", "entity", entity, "operation", operation, "outcome", outcome).increment();
+    }
+
+    private String conflictingEntity(OptimisticLockingFailureException e) {
+        if (e instanceof ObjectOptimisticLockingFailureException objectFailure && objectFailure.getPersistentClassName() != null) {
+            String className = objectFailure.getPersistentClassName();
+            return className.substring(className.lastIndexOf('.') + 1);
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,147 @@
+package com.insuranceplatform.backend.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fails startup if a hot repository query would have to scan a whole table.
+ *
+ * Each query below is the SQL Hibernate generates for a frequently called repository method. It is
+ * EXPLAINed with sequential scans disabled, so PostgreSQL picks an index whenever one can serve the
+ * query, regardless of how much data the tables hold. A Seq Scan (or a scan of a whole index) left
+ * in the plan means no index fits. Queries that name an index must also use it.
+ *
+ * QueryPlanVerifierTest runs it against the migrations on every build. Enable with
+ * {@code db.plan-check.enabled=true} to also check a database at startup, after its migrations.
+ */
+@Component
+@ConditionalOnProperty(name = "db.plan-check.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class QueryPlanVerifier implements ApplicationRunner {
+
+    // index: an index the plan must use, for queries where some index always fits but only one keeps the scan short
+    private record HotQuery(String name, String sql, String index) {
+        HotQuery(String name, String sql) {
+            this(name, sql, null);
+        }
+    }
+
+    private static final List<HotQuery> HOT_QUERIES = List.of(
+            new HotQuery("TransactionRepository.findByOriginatorConversationId",
+                    "SELECT * FROM transactions WHERE originator_conversation_id = 'AG_0000'"),
+            new HotQuery("TransactionRepository.findByWalletAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc",
+                    "SELECT * FROM transactions WHERE wallet_id = 1 AND timestamp >= now() - interval '365 days' AND timestamp < now() " +
+                    "ORDER BY timestamp DESC"),
+            new HotQuery("TransactionRepository.findPendingWithdrawalsForSuperagent",
+                    "SELECT t.* FROM transactions t JOIN wallets w ON w.id = t.wallet_id JOIN users u ON u.id = w.user_id " +
+                    "JOIN agents a ON a.user_id = u.id WHERE a.superagent_id = 1 AND t.status = 'PENDING'"),
+            new HotQuery("PolicyRepository.findByAgent",
+                    "SELECT * FROM policies WHERE agent_id = 1"),
+            new HotQuery("PolicyRepository.findByAgentAndExpiryDateBefore",
+                    "SELECT * FROM policies WHERE agent_id = 1 AND expiry_date < now()"),
+            new HotQuery("PolicyRepository.findByAgent_SuperagentAndExpiryDateBefore",
+                    "SELECT p.* FROM policies p JOIN agents a ON a.id = p.agent_id " +
+                    "WHERE a.superagent_id = 1 AND p.expiry_date < now()"),
+            new HotQuery("ClaimRepository.findByPolicy",
+                    "SELECT * FROM claims WHERE policy_id = 1"),
+            new HotQuery("ClaimRepository.countClaimsBySuperagentAndStatus",
+                    "SELECT count(*) FROM claims c JOIN policies p ON p.id = c.policy_id JOIN agents a ON a.id = p.agent_id " +
+                    "WHERE a.superagent_id = 1 AND c.status = 'RAISED'"),
+            new HotQuery("ClaimRepository.countByStatusIn",
+                    "SELECT count(*) FROM claims WHERE status IN ('RAISED', 'IN_REVIEW')"),
+            new HotQuery("NotificationRepository.findByReceiverAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtDesc",
+                    "SELECT * FROM notifications WHERE receiver_id = 1 AND created_at >= now() - interval '90 days' AND created_at < now() " +
+                    "ORDER BY created_at DESC"),
+            new HotQuery("LeadRepository.findBySuperagentOrderByCreatedAtDesc",
+                    "SELECT * FROM leads WHERE superagent_id = 1 ORDER BY created_at DESC"),
+            new HotQuery("CertificateStockRepository.findBySuperagentAndInsuranceCompanyAndProductClass",
+                    "SELECT * FROM certificate_stock WHERE superagent_id = 1 AND company_id = 1 AND product_class = 'A'"),
+            new HotQuery("PolicyRepository.findChangesAfter",
+                    "SELECT p.id, pr.name, p.total_amount, p.paid_at, au.full_name, su.full_name, p.updated_at, p.change_txid " +
+                    "FROM policies p JOIN products pr ON pr.id = p.product_id JOIN agents a ON a.id = p.agent_id " +
+                    "JOIN users au ON au.id = a.user_id JOIN superagents s ON s.id = a.superagent_id JOIN users su ON su.id = s.user_id " +
+                    "WHERE p.company_id = 1 AND p.status = 'PAID' AND p.change_txid >= 1000 AND p.change_txid < 2000 " +
+                    "AND (p.change_txid > 1000 OR p.id > 1) ORDER BY p.change_txid, p.id LIMIT 101",
+                    "idx_policies_company_status_change_txid")
+    );
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<String> failures = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL enable_seqscan = off");
+                for (HotQuery query : HOT_QUERIES) {
+                    JsonNode plan = explain(statement, query.sql());
+                    List<String> scanned = new ArrayList<>();
+                    collectFullScans(plan, scanned);
+                    if (!scanned.isEmpty()) {
+                        failures.add(query.name() + " scans " + String.join(", ", scanned));
+                    }
+                    List<String> indexes = new ArrayList<>();
+                    collectIndexes(plan, indexes);
+                    if (query.index() != null && !indexes.contains(query.index())) {
+                        failures.add(query.name() + " does not use " + query.index() + " (uses " + String.join(", ", indexes) + ")");
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Hot queries without a usable index: " + String.join("; ", failures));
+        }
+        log.info("Query plan check passed for {} hot queries.", HOT_QUERIES.size());
+    }
+
+    // --- Private Helper Methods ---
+
+    private JsonNode explain(Statement statement, String sql) throws SQLException, IOException {
+        try (ResultSet result = statement.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+            result.next();
+            return objectMapper.readTree(result.getString(1)).get(0).get("Plan");
+        }
+    }
+
+    // A Seq Scan, or an index scan with no index condition (a walk over a whole index, typically the
+    // primary key, which is what the planner falls back to when sequential scans are disabled).
+    private void collectFullScans(JsonNode plan, List<String> scanned) {
+        String nodeType = plan.path("Node Type").asText();
+        boolean indexScan = nodeType.equals("Index Scan") || nodeType.equals("Index Only Scan");
+        if (nodeType.equals("Seq Scan") || (indexScan && !plan.has("Index Cond"))) {
+            scanned.add(plan.path("Relation Name").asText());
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectFullScans(child, scanned);
+        }
+    }
+
+    private void collectIndexes(JsonNode plan, List<String> indexes) {
+        if (plan.has("Index Name")) {
+            indexes.add(plan.path("Index Name").asText());
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectIndexes(child, indexes);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.insuranceplatform.backend.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes {@code @Transactional(readOnly = true)} work to PostgreSQL read replicas when
+ * {@code spring.datasource.replica.urls} is set (see {@link ReplicaRoutingDataSource}).
+ * Without it, Spring Boot's single data source is used as before.
+ *
+ * Replica pools copy the primary's Hikari settings and credentials unless
+ * {@code spring.datasource.replica.username}/{@code password} are given.
+ */
+@Configuration
+@ConditionalOnProperty("spring.datasource.replica.urls")
+public class ReadReplicaConfig {
+
+    @Value("${spring.datasource.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${spring.datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${spring.datasource.replica.password:}")
+    private String replicaPassword;
+
+    @Value("${spring.datasource.replica.max-lag-seconds:5}")
+    private double maxLagSeconds;
+
+    @Value("${spring.datasource.replica.read-your-writes-seconds:10}")
+    private long readYourWritesSeconds;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(replicaUrls.get(i).trim());
+            config.setPoolName("replica-" + i);
+            config.setReadOnly(true);
+            // Fail fast, so an unreachable replica is taken out of rotation within seconds
+            config.setConnectionTimeout(Math.min(config.getConnectionTimeout(), 5000));
+            if (!replicaUsername.isBlank()) {
+                config.setUsername(replicaUsername);
+                config.setPassword(replicaPassword);
+            }
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagSeconds, readYourWritesSeconds);
+    }
+
+    /**
+     * The data source used by JPA and JDBC. Connections are fetched lazily, so the routing sees
+     * whether the transaction is read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
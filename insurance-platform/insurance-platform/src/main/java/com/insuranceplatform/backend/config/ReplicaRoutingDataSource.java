@@ -0,0 +1,146 @@
+package com.insuranceplatform.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a PostgreSQL replica and everything else to the primary.
+ *
+ * <ul>
+ *   <li>A replica is used only while its replay lag, checked every
+ *       {@code spring.datasource.replica.check-interval-millis}, is within
+ *       {@code max-lag-seconds} and it answers at all. With no usable replica, reads go to the primary.</li>
+ *   <li>After a user runs a read-write transaction, their reads go to the primary for
+ *       {@code read-your-writes-seconds}, so they never see a replica that has not caught up with
+ *       their own change. This is tracked per node.</li>
+ * </ul>
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the route is decided when the connection is first used, after the transaction's read-only flag is set.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+
+    // Replay lag in seconds. Zero when the replica has replayed everything it received, so an idle
+    // primary (no new commits to replay) does not look like a lagging replica.
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final List<HikariDataSource> replicas;
+    private volatile boolean[] usable; // Replaced as a whole by each lag check
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final double maxLagSeconds;
+    private final long readYourWritesMillis;
+    // Username -> end of the window in which their reads stay on the primary
+    private final Map<String, Long> recentWriters = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    double maxLagSeconds, long readYourWritesSeconds) {
+        this.replicas = replicas;
+        this.usable = new boolean[replicas.size()]; // Unused until the first lag check passes
+        this.maxLagSeconds = maxLagSeconds;
+        this.readYourWritesMillis = readYourWritesSeconds * 1000;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null) {
+                recentWriters.put(user, System.currentTimeMillis() + readYourWritesMillis);
+            }
+            return PRIMARY;
+        }
+        if (user != null) {
+            Long until = recentWriters.get(user);
+            if (until != null && until > System.currentTimeMillis()) {
+                return PRIMARY;
+            }
+        }
+        if (replicas.isEmpty()) {
+            return PRIMARY;
+        }
+        // Round-robin over the usable replicas
+        boolean[] usable = this.usable;
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int candidate = (start + i) % replicas.size();
+            if (usable[candidate]) {
+                return candidate;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Measures each replica's lag and takes it in or out of rotation.
+     * Also forgets users whose read-your-writes window has passed.
+     */
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.check-interval-millis:2000}")
+    public void checkReplicas() {
+        boolean[] checked = new boolean[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            HikariDataSource replica = replicas.get(i);
+            boolean nowUsable;
+            String reason;
+            try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                try (ResultSet result = statement.executeQuery(LAG_QUERY)) {
+                    result.next();
+                    double lag = result.getDouble(1);
+                    nowUsable = lag <= maxLagSeconds;
+                    reason = String.format("lag %.1fs", lag);
+                }
+            } catch (SQLException e) {
+                nowUsable = false;
+                reason = e.getMessage();
+            }
+            if (nowUsable != usable[i]) {
+                log.info("Read replica {} {} ({}).", replica.getPoolName(), nowUsable ? "in rotation" : "out of rotation", reason);
+            }
+            checked[i] = nowUsable;
+        }
+        usable = checked;
+        long now = System.currentTimeMillis();
+        recentWriters.values().removeIf(until -> until <= now);
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && !(authentication instanceof AnonymousAuthenticationToken)
+                ? authentication.getName() : null;
+    }
+}
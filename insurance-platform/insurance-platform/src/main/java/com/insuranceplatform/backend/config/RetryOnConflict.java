@@ -0,0 +1,22 @@
+package com.insuranceplatform.backend.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code @Transactional} service method whose transaction is re-run when it loses an
+ * optimistic-lock race, i.e. another transaction updated a versioned entity it read in the meantime.
+ * Wallet, CertificateStock, Lead, Claim, Transaction and Policy carry a {@code @Version} column for
+ * this: a write based on a stale read fails instead of overwriting the newer row. Each attempt starts a new transaction and reads current data (see {@link OptimisticLockRetryAspect}).
+ *
+ * The method must be safe to run again: its checks must be based on what it reads, so an attempt
+ * after a concurrent change either applies cleanly or finds there is nothing left to do.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+}
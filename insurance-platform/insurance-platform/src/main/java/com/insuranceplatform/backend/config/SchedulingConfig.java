@@ -0,0 +1,12 @@
+package com.insuranceplatform.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (e.g. expiring abandoned uploads).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -46,6 +46,7 @@ public class SecurityConfig {
 
                         // Role-based access control for platform users
                         .requestMatchers("/api/v1/admin/**").hasAuthority(ADMIN.name())
+                        .requestMatchers("/actuator/**").hasAuthority(ADMIN.name())
                         .requestMatchers("/api/v1/superagents/**").hasAnyAuthority(ADMIN.name(), SUPERAGENT.name())
                         .requestMatchers("/api/v1/agents/**").hasAnyAuthority(ADMIN.name(), SUPERAGENT.name(), AGENT.name())
                         .anyRequest().authenticated()
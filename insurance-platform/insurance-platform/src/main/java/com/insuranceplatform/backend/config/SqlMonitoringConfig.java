@@ -0,0 +1,39 @@
+package com.insuranceplatform.backend.config;
+
+import com.insuranceplatform.backend.service.SqlStatementMonitor;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's {@code dataSource} in a JDBC proxy that times every statement (see
+ * {@link SqlStatementMonitor}). This replaces {@code spring.jpa.show-sql}: statements are measured
+ * rather than printed, and only slow or sampled ones are logged.
+ *
+ * Whichever bean is the {@code dataSource} is wrapped (Spring Boot's pool, or the replica routing of
+ * {@link ReadReplicaConfig}), so JPA, JdbcTemplate, Flyway and raw JDBC work are all covered.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql-monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitoringConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlMonitoringDataSourcePostProcessor(ObjectProvider<SqlStatementMonitor> monitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(monitor.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
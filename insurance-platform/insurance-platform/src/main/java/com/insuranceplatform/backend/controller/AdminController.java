@@ -2,19 +2,31 @@ package com.insuranceplatform.backend.controller;
 
 import com.insuranceplatform.backend.dto.*; // Assuming new DTOs are in this package
 import com.insuranceplatform.backend.entity.*;
+import com.insuranceplatform.backend.enums.StatementStatus;
 import com.insuranceplatform.backend.service.AdminService;
+import com.insuranceplatform.backend.service.CommissionStatementService;
+import com.insuranceplatform.backend.service.ParquetExportService;
 import com.insuranceplatform.backend.service.ReportingService;
+import com.insuranceplatform.backend.service.SalesRollupService;
+import com.insuranceplatform.backend.service.SqlStatementMonitor;
 import com.insuranceplatform.backend.service.UserService; // Import the new service
+import com.insuranceplatform.backend.service.WebhookService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource; // Import for file streaming
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/admin")
@@ -23,6 +35,11 @@ public class AdminController {
 
     private final AdminService adminService;
     private final ReportingService reportingService;
+    private final ParquetExportService parquetExportService;
+    private final SalesRollupService salesRollupService;
+    private final CommissionStatementService commissionStatementService;
+    private final WebhookService webhookService;
+    private final SqlStatementMonitor sqlStatementMonitor;
     // ADDED: UserService to handle general user retrieval logic
     private final UserService userService;
 
@@ -34,6 +51,17 @@ public class AdminController {
         return ResponseEntity.ok(metrics);
     }
     
+    /**
+     * Rebuilds the daily sales rollups behind the dashboards from policies, transactions and claims.
+     * Run once after deployment, or after correcting historical data. Without dates, rebuilds everything.
+     */
+    @PostMapping("/dashboard/rollups/rebuild")
+    public ResponseEntity<RollupBackfillResult> rebuildSalesRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesRollupService.rebuild(from, to));
+    }
+
     @PostMapping("/certificate-stock")
     public ResponseEntity<CertificateStock> addCertificateStock(@Valid @RequestBody AddStockRequest request) {
         CertificateStock updatedStock = adminService.addCertificateStock(request);
@@ -138,19 +166,98 @@ public class AdminController {
         return new ResponseEntity<>(newKey, HttpStatus.CREATED);
     }
 
+    /**
+     * Webhook deliveries that failed every retry, newest first.
+     */
+    @GetMapping("/webhooks/dead-letters")
+    public ResponseEntity<Page<WebhookDeadLetterDto>> getWebhookDeadLetters(@RequestParam(defaultValue = "0") int page,
+                                                                            @RequestParam(defaultValue = "50") int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 200));
+        return ResponseEntity.ok(webhookService.getDeadLetters(pageRequest));
+    }
+
+    @PostMapping("/webhooks/dead-letters/{deliveryId}/retry")
+    public ResponseEntity<Void> retryWebhookDeadLetter(@PathVariable Long deliveryId) {
+        webhookService.requeueDeadLetter(deliveryId);
+        return ResponseEntity.accepted().build();
+    }
+
+    // --- Database ---
+
+    /**
+     * SQL statements run by this node, by total execution time since startup, with recent latency percentiles.
+     */
+    @GetMapping("/database/statements")
+    public ResponseEntity<List<SqlStatementStatsDto>> getSqlStatementStats(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(sqlStatementMonitor.getTopStatements(Math.min(Math.max(limit, 1), 500)));
+    }
+
+    // --- Commission Statements ---
+
+    /**
+     * Starts generating the month's commission statements in the background (period as yyyy-MM).
+     * Agents whose statement already exists are skipped, so a failed or interrupted run can simply be started again.
+     */
+    @PostMapping("/statements/{period}/generate")
+    public ResponseEntity<Void> generateStatements(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+        commissionStatementService.startMonthlyRun(period);
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/statements/{period}")
+    public ResponseEntity<Map<StatementStatus, Long>> getStatementRunStatus(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+        return ResponseEntity.ok(commissionStatementService.getRunStatus(period));
+    }
+
+    @PostMapping("/statements/{period}/agents/{agentId}/regenerate")
+    public ResponseEntity<CommissionStatement> regenerateStatement(
+            @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth period,
+            @PathVariable Long agentId) {
+        return ResponseEntity.ok(commissionStatementService.regenerate(agentId, period));
+    }
+
     // --- Data Reporting & Export ---
     
     /**
-     * UPGRADED ENDPOINT: Exports all agent transactions as a downloadable CSV file.
-     * This now uses a Resource for efficient streaming, preventing memory issues with large reports.
+     * Exports all agent transactions as a downloadable CSV file.
+     * Rows are streamed to the client as they are read from the database, so the download starts
+     * immediately and memory use does not grow with the report. Clients that send
+     * {@code Accept-Encoding: gzip} get a gzip-compressed stream.
+     * Optionally limited to transactions between {@code from} and {@code to} (inclusive dates).
      */
     @GetMapping(value = "/reports/transactions.csv", produces = "text/csv")
-    public ResponseEntity<Resource> exportTransactionsAsCsv() {
-        Resource resource = reportingService.generateTransactionsCsvAsResource();
+    public ResponseEntity<StreamingResponseBody> exportTransactionsAsCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> reportingService.writeTransactionsCsv(out, gzip, from, to);
 
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions-report.csv\"")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(resource);
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Exports transactions, policies or claims as a Parquet file with typed columns and one
+     * row group per month, streamed as it is written.
+     */
+    @GetMapping("/reports/{dataset}.parquet")
+    public ResponseEntity<StreamingResponseBody> exportParquet(
+            @PathVariable String dataset,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        parquetExportService.checkDataset(dataset); // Fail with 404 before the response is committed
+        StreamingResponseBody body = out -> parquetExportService.writeParquet(dataset, out, from, to);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + dataset + ".parquet\"")
+                .contentType(MediaType.parseMediaType("application/vnd.apache.parquet"))
+                .body(body);
     }
-}
\ No newline at end of file
+}
@@ -3,20 +3,26 @@ package com.insuranceplatform.backend.controller;
 import com.insuranceplatform.backend.dto.*;
 import com.insuranceplatform.backend.entity.Agent;
 import com.insuranceplatform.backend.entity.Claim;
+import com.insuranceplatform.backend.entity.CommissionStatement;
 import com.insuranceplatform.backend.entity.Policy;
 import com.insuranceplatform.backend.entity.Product;
 import com.insuranceplatform.backend.entity.Transaction;
 import com.insuranceplatform.backend.service.AgentService;
+import com.insuranceplatform.backend.service.ClaimEvidenceUploadService;
+import com.insuranceplatform.backend.service.StoredFile;
+import com.insuranceplatform.backend.util.FileDownloadUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -25,6 +31,8 @@ import java.util.List;
 public class AgentController {
 
     private final AgentService agentService;
+    private final ClaimEvidenceUploadService claimEvidenceUploadService;
+    private final FileDownloadUtil fileDownloadUtil;
 
     // --- Profile Management ---
 
@@ -41,8 +49,10 @@ public class AgentController {
     // --- Wallet & Transaction Management ---
 
     @GetMapping("/wallet")
-    public ResponseEntity<WalletDto> getMyWallet() {
-        return ResponseEntity.ok(agentService.getWalletDetailsForCurrentAgent());
+    public ResponseEntity<WalletDto> getMyWallet(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(agentService.getWalletDetailsForCurrentAgent(from, to));
     }
 
     @PostMapping("/wallet/withdraw")
@@ -51,9 +61,32 @@ public class AgentController {
         return new ResponseEntity<>(transaction, HttpStatus.CREATED);
     }
 
+    /**
+     * Wallet transactions over a date range of at most {@code wallet.history-days} days (default: the latest one).
+     */
     @GetMapping("/transactions")
-    public ResponseEntity<List<Transaction>> getMyTransactions() {
-        return ResponseEntity.ok(agentService.getTransactionsForCurrentAgent());
+    public ResponseEntity<List<Transaction>> getMyTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(agentService.getTransactionsForCurrentAgent(from, to));
+    }
+
+    @GetMapping("/statements")
+    public ResponseEntity<List<CommissionStatement>> getMyStatements() {
+        return ResponseEntity.ok(agentService.getStatementsForCurrentAgent());
+    }
+
+    /**
+     * Downloads a monthly commission statement as "pdf" or "csv".
+     */
+    @GetMapping("/statements/{statementId}/{format}")
+    public void downloadStatement(
+            @PathVariable Long statementId,
+            @PathVariable String format,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        StoredFile statement = agentService.getStatementFile(statementId, format);
+        fileDownloadUtil.serve(statement, "commission_statement_" + statementId + "." + format.toLowerCase(), request, response);
     }
     
     // --- Product, Policy & Renewal Management ---
@@ -95,15 +128,46 @@ public class AgentController {
         return ResponseEntity.ok(updatedPolicy);
     }
     
+    @GetMapping("/policies/{policyId}/documents/{documentType}")
+    public void downloadDocument(
+            @PathVariable Long policyId,
+            @PathVariable String documentType,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        StoredFile document = agentService.getPolicyDocument(policyId, documentType);
+        String extension = document.getKey().contains(".") ? document.getKey().substring(document.getKey().lastIndexOf(".")) : "";
+        fileDownloadUtil.serve(document, documentType.toLowerCase() + "_" + policyId + extension, request, response);
+    }
+
+    @PostMapping("/policies/{policyId}/documents/upload-url")
+    public ResponseEntity<PresignedUrlDto> createDocumentUploadUrl(
+            @PathVariable Long policyId,
+            @Valid @RequestBody PresignedUploadRequest request) {
+        return ResponseEntity.ok(agentService.createPolicyDocumentUploadUrl(policyId, request));
+    }
+
+    @PostMapping("/policies/{policyId}/documents/complete")
+    public ResponseEntity<Policy> completeDocumentUpload(
+            @PathVariable Long policyId,
+            @Valid @RequestBody CompleteUploadRequest request) {
+        return ResponseEntity.ok(agentService.completePolicyDocumentUpload(policyId, request));
+    }
+
+    @GetMapping("/policies/{policyId}/documents/{documentType}/download-url")
+    public ResponseEntity<PresignedUrlDto> createDocumentDownloadUrl(
+            @PathVariable Long policyId,
+            @PathVariable String documentType) {
+        return ResponseEntity.ok(agentService.createPolicyDocumentDownloadUrl(policyId, documentType));
+    }
+
     @GetMapping("/policies/{policyId}/certificate")
-    public ResponseEntity<Resource> downloadPolicyCertificate(@PathVariable Long policyId) {
-        Resource resource = agentService.generateAndGetCertificate(policyId);
+    public void downloadPolicyCertificate(
+            @PathVariable Long policyId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        StoredFile certificate = agentService.generateAndGetCertificate(policyId);
         String filename = "policy_certificate_" + policyId + ".pdf";
-        
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .body(resource);
+        fileDownloadUtil.serve(certificate, filename, request, response);
     }
 
     // --- Claim Management ---
@@ -123,4 +187,63 @@ public class AgentController {
     public ResponseEntity<Claim> getMyClaimDetails(@PathVariable Long claimId) {
         return ResponseEntity.ok(agentService.findClaimByIdForCurrentAgent(claimId));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/claims/{claimId}/documents/upload-url")
+    public ResponseEntity<PresignedUrlDto> createClaimDocumentUploadUrl(
+            @PathVariable Long claimId,
+            @Valid @RequestBody PresignedUploadRequest request) {
+        return ResponseEntity.ok(agentService.createClaimDocumentUploadUrl(claimId, request));
+    }
+
+    @PostMapping("/claims/{claimId}/documents/complete")
+    public ResponseEntity<Claim> completeClaimDocumentUpload(
+            @PathVariable Long claimId,
+            @Valid @RequestBody CompleteUploadRequest request) {
+        return ResponseEntity.ok(agentService.completeClaimDocumentUpload(claimId, request));
+    }
+
+    @GetMapping("/claims/{claimId}/documents/{documentType}/download-url")
+    public ResponseEntity<PresignedUrlDto> createClaimDocumentDownloadUrl(
+            @PathVariable Long claimId,
+            @PathVariable String documentType) {
+        return ResponseEntity.ok(agentService.createClaimDocumentDownloadUrl(claimId, documentType));
+    }
+
+    // --- Resumable Claim Evidence Uploads ---
+
+    @PostMapping("/claims/{claimId}/evidence-uploads")
+    public ResponseEntity<ChunkedUploadStatusDto> startEvidenceUpload(
+            @PathVariable Long claimId,
+            @Valid @RequestBody StartChunkedUploadRequest request) {
+        return new ResponseEntity<>(claimEvidenceUploadService.startUpload(claimId, request), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/claims/{claimId}/evidence-uploads/{uploadId}")
+    public ResponseEntity<ChunkedUploadStatusDto> getEvidenceUploadStatus(
+            @PathVariable Long claimId,
+            @PathVariable String uploadId) {
+        return ResponseEntity.ok(claimEvidenceUploadService.getUploadStatus(claimId, uploadId));
+    }
+
+    /**
+     * Appends a raw (application/octet-stream) chunk starting at {@code offset}.
+     * The X-Chunk-Checksum header carries the hex SHA-256 of the chunk.
+     */
+    @PutMapping("/claims/{claimId}/evidence-uploads/{uploadId}")
+    public ResponseEntity<ChunkedUploadStatusDto> uploadEvidenceChunk(
+            @PathVariable Long claimId,
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            @RequestHeader("X-Chunk-Checksum") String checksum,
+            HttpServletRequest request) throws IOException {
+        ChunkedUploadStatusDto status = claimEvidenceUploadService.appendChunk(
+                claimId, uploadId, offset, checksum, request.getContentLengthLong(), request.getInputStream());
+        return ResponseEntity.ok(status);
+    }
+
+    @DeleteMapping("/claims/{claimId}/evidence-uploads/{uploadId}")
+    public ResponseEntity<Void> abortEvidenceUpload(@PathVariable Long claimId, @PathVariable String uploadId) {
+        claimEvidenceUploadService.abortUpload(claimId, uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,13 +1,33 @@
 package com.insuranceplatform.backend.controller;
 
+import com.insuranceplatform.backend.dto.PolicyChangeFeedPage;
 import com.insuranceplatform.backend.dto.SharedTransactionDto;
+import com.insuranceplatform.backend.dto.WebhookEndpointDto;
+import com.insuranceplatform.backend.dto.WebhookEndpointRequest;
+import com.insuranceplatform.backend.entity.InsuranceCompany;
 import com.insuranceplatform.backend.service.DataSharingService;
+import com.insuranceplatform.backend.service.WebhookService;
+import com.insuranceplatform.backend.util.ZipStreamUtil;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -16,9 +36,87 @@ import java.util.List;
 public class DataSharingController {
 
     private final DataSharingService dataSharingService;
+    private final WebhookService webhookService;
+    private final ZipStreamUtil zipStreamUtil;
 
+    /**
+     * All of the insurer's paid policies as one JSON array, kept in this shape for existing clients.
+     * New integrations should backfill from {@code /policies/snapshot.ndjson} and then poll
+     * {@code /policies/changes}, which only return what changed.
+     */
+    @Deprecated
     @GetMapping("/transactions")
-    public ResponseEntity<List<SharedTransactionDto>> getTransactions() {
-        return ResponseEntity.ok(dataSharingService.getPaidPolicyTransactions());
+    public ResponseEntity<List<SharedTransactionDto>> getTransactions(Authentication authentication) {
+        return ResponseEntity.ok(dataSharingService.getPaidPolicyTransactions(authentication.getName()));
     }
-}
\ No newline at end of file
+
+    /**
+     * Change feed of the insurer's paid policies. Pass the returned nextToken as {@code since} to
+     * receive only policies sold or updated after the previous page.
+     */
+    @GetMapping("/policies/changes")
+    public ResponseEntity<PolicyChangeFeedPage> getPolicyChanges(@RequestParam(required = false) String since,
+                                                                 @RequestParam(required = false) Integer limit,
+                                                                 Authentication authentication) {
+        return ResponseEntity.ok(dataSharingService.getPolicyChanges(authentication.getName(), since, limit));
+    }
+
+    /**
+     * Streams all of the insurer's paid policies as newline-delimited JSON, in the same row format
+     * as the change feed, for the initial backfill. Clients that send {@code Accept-Encoding: gzip}
+     * get a gzip-compressed stream. The last line holds the {@code nextToken} to poll the change
+     * feed with afterwards.
+     */
+    @GetMapping(value = "/policies/snapshot.ndjson", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> getPolicySnapshot(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        InsuranceCompany company = dataSharingService.findCompany(authentication.getName());
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> dataSharingService.writePolicySnapshot(company, out, gzip);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"policies-snapshot.ndjson\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.parseMediaType("application/x-ndjson; charset=UTF-8"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // --- Webhooks ---
+
+    /**
+     * Registers a URL to receive policy paid, claim raised and claim status events as signed,
+     * batched POSTs. The response contains the signing secret; it is not shown again.
+     */
+    @PostMapping("/webhooks")
+    public ResponseEntity<WebhookEndpointDto> registerWebhook(@Valid @RequestBody WebhookEndpointRequest request,
+                                                              Authentication authentication) {
+        InsuranceCompany company = dataSharingService.findCompany(authentication.getName());
+        return new ResponseEntity<>(webhookService.registerEndpoint(company, request), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/webhooks")
+    public ResponseEntity<List<WebhookEndpointDto>> getWebhooks(Authentication authentication) {
+        return ResponseEntity.ok(webhookService.getEndpoints(dataSharingService.findCompany(authentication.getName())));
+    }
+
+    @DeleteMapping("/webhooks/{endpointId}")
+    public ResponseEntity<Void> deleteWebhook(@PathVariable Long endpointId, Authentication authentication) {
+        webhookService.disableEndpoint(dataSharingService.findCompany(authentication.getName()), endpointId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Streams every document of a policy and its claim as one ZIP archive.
+     * Only the insurer that underwrites the policy may download it.
+     */
+    @GetMapping("/policies/{policyId}/documents/bundle.zip")
+    public void downloadPolicyDocumentBundle(@PathVariable Long policyId, Authentication authentication,
+                                             HttpServletResponse response) throws IOException {
+        zipStreamUtil.streamZip(dataSharingService.openPolicyDocumentBundle(policyId, authentication.getName()),
+                "policy_" + policyId + "_documents.zip", response);
+    }
+}
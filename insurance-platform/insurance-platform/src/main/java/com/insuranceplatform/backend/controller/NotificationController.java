@@ -4,12 +4,15 @@ import com.insuranceplatform.backend.entity.Notification;
 import com.insuranceplatform.backend.entity.User;
 import com.insuranceplatform.backend.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -19,9 +22,15 @@ public class NotificationController {
 
     private final NotificationService notificationService;
 
+    /**
+     * Notifications over a date range of at most {@code notifications.list-days} days (default: the latest one).
+     */
     @GetMapping
-    public ResponseEntity<List<Notification>> getMyNotifications(@AuthenticationPrincipal User currentUser) {
-        List<Notification> notifications = notificationService.getNotificationsForUser(currentUser);
+    public ResponseEntity<List<Notification>> getMyNotifications(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<Notification> notifications = notificationService.getNotificationsForUser(currentUser, from, to);
         return ResponseEntity.ok(notifications);
     }
 }
\ No newline at end of file
@@ -3,12 +3,24 @@ package com.insuranceplatform.backend.controller;
 import com.insuranceplatform.backend.dto.*;
 import com.insuranceplatform.backend.entity.*;
 import com.insuranceplatform.backend.service.SuperagentService;
+import com.insuranceplatform.backend.util.ZipStreamUtil;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import com.insuranceplatform.backend.enums.LeaderboardMetric;
+import com.insuranceplatform.backend.enums.TimeBucket;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,6 +29,11 @@ import java.util.List;
 public class SuperagentController {
 
     private final SuperagentService superagentService;
+    private final ZipStreamUtil zipStreamUtil;
+
+    // How long browsers may reuse leaderboard and series responses.
+    @Value("${superagent.performance.cache-seconds:60}")
+    private long performanceCacheSeconds;
 
     // --- Profile Management ---
 
@@ -38,6 +55,36 @@ public class SuperagentController {
         return ResponseEntity.ok(superagentService.getDashboardMetrics());
     }
 
+    /**
+     * Agents ranked by premium, policies sold, conversion or claims ratio over a date range.
+     */
+    @GetMapping("/dashboard/leaderboard")
+    public ResponseEntity<Page<LeaderboardEntryDto>> getAgentLeaderboard(
+            @RequestParam(defaultValue = "PREMIUM") LeaderboardMetric metric,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(performanceCacheSeconds)).cachePrivate())
+                .body(superagentService.getAgentLeaderboard(metric, from, to, pageRequest));
+    }
+
+    /**
+     * Sales per day, week or month for the whole agency, or for one agent with {@code agentId}.
+     */
+    @GetMapping("/dashboard/sales-series")
+    public ResponseEntity<List<SalesSeriesPointDto>> getSalesSeries(
+            @RequestParam(required = false) Long agentId,
+            @RequestParam(defaultValue = "DAY") TimeBucket bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(performanceCacheSeconds)).cachePrivate())
+                .body(superagentService.getSalesSeries(agentId, bucket, from, to));
+    }
+
     // --- Product Management (Full CRUD) ---
 
     @PostMapping("/products")
@@ -156,4 +203,13 @@ public class SuperagentController {
         List<DocumentDto> documents = superagentService.viewPolicyDocuments(policyId);
         return ResponseEntity.ok(documents);
     }
-}
\ No newline at end of file
+
+    /**
+     * Streams every document of the policy and its claim as one ZIP archive.
+     */
+    @GetMapping("/policies/{policyId}/documents/bundle.zip")
+    public void downloadPolicyDocumentBundle(@PathVariable Long policyId, HttpServletResponse response) throws IOException {
+        zipStreamUtil.streamZip(superagentService.openPolicyDocumentBundle(policyId),
+                "policy_" + policyId + "_documents.zip", response);
+    }
+}
@@ -0,0 +1,15 @@
+package com.insuranceplatform.backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Rollup totals for one agent over a date range.
+ */
+public record AgentSalesTotals(
+        Long agentId,
+        BigDecimal premiumAmount,
+        long quoteCount,
+        long policyCount,
+        long claimCount
+) {
+}
@@ -0,0 +1,23 @@
+package com.insuranceplatform.backend.dto;
+
+import com.insuranceplatform.backend.enums.ClaimDocumentType;
+import com.insuranceplatform.backend.enums.UploadStatus;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * The state of a resumable upload. A client that lost its connection
+ * fetches this and resumes sending from {@code offset}.
+ */
+@Data
+@Builder
+public class ChunkedUploadStatusDto {
+    private String uploadId;
+    private Long claimId;
+    private ClaimDocumentType documentType;
+    private long totalSize;
+    private long offset;        // Bytes received so far; the next chunk must start here
+    private int maxChunkSize;   // Largest chunk the server will accept
+    private UploadStatus status;
+    private String fileUrl;     // Set once the upload has completed
+}
@@ -0,0 +1,19 @@
+package com.insuranceplatform.backend.dto;
+
+import com.insuranceplatform.backend.enums.ClaimStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * @param previousStatus Null for a newly raised claim.
+ */
+public record ClaimEventDto(
+        Long claimId,
+        Long policyId,
+        String productName,
+        ClaimStatus status,
+        ClaimStatus previousStatus,
+        String description,
+        LocalDateTime raisedAt,
+        LocalDateTime updatedAt
+) {}
@@ -0,0 +1,12 @@
+package com.insuranceplatform.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class CompleteUploadRequest {
+    @NotBlank(message = "Document type is required")
+    private String documentType;
+    @NotBlank(message = "Object key is required")
+    private String objectKey; // The key returned when the upload URL was issued
+}
@@ -11,4 +11,10 @@ public class DocumentDto {
     private String documentType;
     private String fileUrl;
     private String description;
+    private String thumbnailUrl; // Small derivative for list views, when available
+    private String previewUrl;   // Size-capped derivative for review screens, when available
+
+    public DocumentDto(String documentType, String fileUrl, String description) {
+        this(documentType, fileUrl, description, null, null);
+    }
 }
\ No newline at end of file
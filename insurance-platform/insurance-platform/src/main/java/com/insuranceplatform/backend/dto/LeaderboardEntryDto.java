@@ -0,0 +1,22 @@
+package com.insuranceplatform.backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One agent's position on the superagent leaderboard.
+ *
+ * @param conversionRate Policies paid / policies created in the window, or null if none were created.
+ * @param claimsRatio Claims raised / policies paid in the window, or null if none were paid.
+ */
+public record LeaderboardEntryDto(
+        int rank,
+        Long agentId,
+        String agentName,
+        BigDecimal premiumAmount,
+        long quoteCount,
+        long policyCount,
+        long claimCount,
+        BigDecimal conversionRate,
+        BigDecimal claimsRatio
+) {
+}
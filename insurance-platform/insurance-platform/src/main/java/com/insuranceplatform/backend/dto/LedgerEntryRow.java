@@ -0,0 +1,20 @@
+package com.insuranceplatform.backend.dto;
+
+import com.insuranceplatform.backend.enums.TransactionStatus;
+import com.insuranceplatform.backend.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One wallet transaction as it appears on a commission statement.
+ */
+public record LedgerEntryRow(
+        Long transactionId,
+        LocalDateTime timestamp,
+        TransactionType transactionType,
+        TransactionStatus status,
+        BigDecimal amount,
+        Long policyId
+) {
+}
@@ -0,0 +1,15 @@
+package com.insuranceplatform.backend.dto;
+
+import java.util.List;
+
+/**
+ * One page of the insurer change feed.
+ *
+ * @param nextToken Pass as {@code since} on the next call. Unchanged when there is nothing new.
+ * @param hasMore Whether more changes are available right away; otherwise poll again later.
+ */
+public record PolicyChangeFeedPage(
+        List<SharedTransactionDto> items,
+        String nextToken,
+        boolean hasMore
+) {}
@@ -0,0 +1,12 @@
+package com.insuranceplatform.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class PresignedUploadRequest {
+    @NotBlank(message = "Document type is required")
+    private String documentType; // e.g., LOGBOOK, ID_KRA, POLICE_ABSTRACT
+    private String fileName;     // Original file name, used to keep the extension
+    private String contentType;  // The client must send this exact Content-Type with the PUT
+}
@@ -0,0 +1,19 @@
+package com.insuranceplatform.backend.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * A short-lived URL that lets the client talk to storage directly,
+ * so file bytes never pass through the application servers.
+ */
+@Data
+@Builder
+public class PresignedUrlDto {
+    private String url;
+    private String method;      // PUT for uploads, GET for downloads
+    private String objectKey;   // Pass back to the completion endpoint after an upload
+    private String contentType; // Uploads only: the Content-Type header the PUT must carry
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,18 @@
+package com.insuranceplatform.backend.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of rebuilding the daily sales rollups for a date range.
+ *
+ * @param from First day rebuilt.
+ * @param to Last day rebuilt (inclusive).
+ */
+public record RollupBackfillResult(
+        LocalDate from,
+        LocalDate to,
+        int chunks,
+        long rowsWritten,
+        long elapsedMillis
+) {
+}
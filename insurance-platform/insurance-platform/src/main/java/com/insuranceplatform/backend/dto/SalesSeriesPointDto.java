@@ -0,0 +1,18 @@
+package com.insuranceplatform.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales totals for one time bucket.
+ *
+ * @param bucketStart First day of the bucket (the day itself, the Monday of the week or the 1st of the month).
+ */
+public record SalesSeriesPointDto(
+        LocalDate bucketStart,
+        BigDecimal premiumAmount,
+        long quoteCount,
+        long policyCount,
+        long claimCount
+) {
+}
@@ -0,0 +1,15 @@
+package com.insuranceplatform.backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales figures summed over a set of daily rollup rows.
+ */
+public record SalesTotals(
+        BigDecimal premiumAmount,
+        BigDecimal taxAmount,
+        BigDecimal commissionAmount,
+        long policyCount,
+        long claimCount
+) {
+}
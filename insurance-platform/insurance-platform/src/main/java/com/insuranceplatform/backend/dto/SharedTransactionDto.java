@@ -1,5 +1,6 @@
 package com.insuranceplatform.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import java.math.BigDecimal;
@@ -14,4 +15,7 @@ public class SharedTransactionDto {
     private LocalDateTime paidAt;
     private String agentName;
     private String superagentName;
+    private LocalDateTime updatedAt; // Last change
+    @JsonIgnore
+    private Long changeTxid; // Position in the change feed, encoded in its tokens
 }
\ No newline at end of file
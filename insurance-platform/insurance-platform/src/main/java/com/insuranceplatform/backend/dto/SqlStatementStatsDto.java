@@ -0,0 +1,24 @@
+package com.insuranceplatform.backend.dto;
+
+/**
+ * Execution time of one normalized SQL statement on this node.
+ *
+ * @param statementId The {@code statement} tag of the statement's {@code db.statement} metric.
+ * @param executions Executions since startup.
+ * @param slowExecutions Executions over the slow-query threshold since startup (each one was logged).
+ * @param totalMillis Time spent executing since startup.
+ * @param maxMillis Slowest execution in the last few minutes (as are the percentiles).
+ */
+public record SqlStatementStatsDto(
+        String statementId,
+        String sql,
+        long executions,
+        long slowExecutions,
+        double totalMillis,
+        double meanMillis,
+        double maxMillis,
+        double p50Millis,
+        double p95Millis,
+        double p99Millis
+) {
+}
@@ -0,0 +1,17 @@
+package com.insuranceplatform.backend.dto;
+
+import com.insuranceplatform.backend.enums.ClaimDocumentType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class StartChunkedUploadRequest {
+    @NotNull(message = "Document type is required")
+    private ClaimDocumentType documentType;
+    private String fileName;
+    private String contentType;
+    @NotNull(message = "Total size is required")
+    @Positive(message = "Total size must be greater than zero")
+    private Long totalSize; // In bytes, so the server knows when the last chunk has arrived
+}
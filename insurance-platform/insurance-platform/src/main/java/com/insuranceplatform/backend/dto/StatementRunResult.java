@@ -0,0 +1,18 @@
+package com.insuranceplatform.backend.dto;
+
+import java.time.YearMonth;
+
+/**
+ * Outcome of a monthly commission statement run.
+ *
+ * @param skipped Agents whose statement was already generated (or is being generated by another node).
+ */
+public record StatementRunResult(
+        YearMonth period,
+        int agents,
+        int generated,
+        int skipped,
+        int failed,
+        long elapsedMillis
+) {
+}
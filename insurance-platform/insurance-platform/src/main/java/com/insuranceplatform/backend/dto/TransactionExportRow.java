@@ -0,0 +1,21 @@
+package com.insuranceplatform.backend.dto;
+
+import com.insuranceplatform.backend.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, unmanaged row for transaction exports. Selected with a single joined query,
+ * so streaming it never triggers per-row entity loads or fills the persistence context.
+ */
+public record TransactionExportRow(
+        Long transactionId,
+        Long policyId,
+        Long agentId,
+        String agentName,
+        BigDecimal amount,
+        TransactionType transactionType,
+        LocalDateTime timestamp
+) {
+}
@@ -0,0 +1,24 @@
+package com.insuranceplatform.backend.dto;
+
+import com.insuranceplatform.backend.enums.WebhookEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A webhook delivery that failed every attempt.
+ *
+ * @param failedAt When the last attempt failed.
+ */
+public record WebhookDeadLetterDto(
+        Long deliveryId,
+        Long endpointId,
+        String endpointUrl,
+        String companyName,
+        String eventId,
+        WebhookEventType eventType,
+        int attempts,
+        Integer lastStatusCode,
+        String lastError,
+        LocalDateTime createdAt,
+        LocalDateTime failedAt
+) {}
@@ -0,0 +1,18 @@
+package com.insuranceplatform.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * @param secret The signing secret. Only returned when the endpoint is registered.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WebhookEndpointDto(
+        Long id,
+        String url,
+        int maxConcurrency,
+        boolean enabled,
+        LocalDateTime createdAt,
+        String secret
+) {}
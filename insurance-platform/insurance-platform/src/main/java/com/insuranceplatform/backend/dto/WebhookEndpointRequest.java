@@ -0,0 +1,15 @@
+package com.insuranceplatform.backend.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class WebhookEndpointRequest {
+    @NotBlank(message = "Webhook URL is required")
+    private String url;
+    @Min(value = 1, message = "Max concurrency must be at least 1")
+    @Max(value = 16, message = "Max concurrency must be at most 16")
+    private Integer maxConcurrency; // Optional, defaults to webhooks.delivery.default-max-concurrency
+}
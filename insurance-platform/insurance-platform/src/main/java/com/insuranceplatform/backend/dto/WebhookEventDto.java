@@ -0,0 +1,18 @@
+package com.insuranceplatform.backend.dto;
+
+import com.insuranceplatform.backend.enums.WebhookEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One event in a webhook batch.
+ *
+ * @param id Unique per event; the same event may be delivered more than once.
+ * @param data A {@link SharedTransactionDto} for policy events, a {@link ClaimEventDto} for claim events.
+ */
+public record WebhookEventDto(
+        String id,
+        WebhookEventType type,
+        LocalDateTime occurredAt,
+        Object data
+) {}
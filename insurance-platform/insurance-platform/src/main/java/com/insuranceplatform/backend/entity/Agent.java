@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 @Data
 @Builder
@@ -23,6 +25,7 @@ public class Agent {
     private User user;
 
     @ManyToOne
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "superagent_id", referencedColumnName = "id", nullable = false)
     private Superagent superagent;
 }
\ No newline at end of file
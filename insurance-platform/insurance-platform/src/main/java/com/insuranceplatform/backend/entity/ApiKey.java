@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.time.LocalDateTime;
 
 @Data
@@ -23,6 +25,7 @@ public class ApiKey {
     private String keyValue; // The actual secret key
 
     @ManyToOne
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "company_id", nullable = false)
     private InsuranceCompany insuranceCompany;
 
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 @Data
 @Builder
@@ -19,10 +21,12 @@ public class CertificateStock {
     private Long id;
 
     @ManyToOne
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "superagent_id", nullable = false)
     private Superagent superagent;
 
     @ManyToOne
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "company_id", nullable = false)
     private InsuranceCompany insuranceCompany;
 
@@ -32,4 +36,8 @@ public class CertificateStock {
 
     @Column(nullable = false)
     private int quantity;
-}
\ No newline at end of file
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+}
@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "claims")
+@Table(name = "claims", indexes = @Index(name = "idx_claims_created_at", columnList = "created_at"))
 public class Claim {
 
     @Id
@@ -45,7 +45,17 @@ public class Claim {
     private String photoUrl; // Optional
     private String videoUrl; // Optional
 
+    // --- Derivatives generated in the background for review screens ---
+    private String photoThumbnailUrl;
+    private String photoPreviewUrl;
+    private String videoThumbnailUrl;
+    private String videoPreviewUrl;
+
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt;
-}
\ No newline at end of file
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,59 @@
+package com.insuranceplatform.backend.entity;
+
+import com.insuranceplatform.backend.enums.ClaimDocumentType;
+import com.insuranceplatform.backend.enums.UploadStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tracks a resumable, chunked upload of a claim evidence file.
+ * Chunks are staged on disk until {@code receivedBytes} reaches {@code totalSize},
+ * at which point the file is moved into storage and the claim's document URL is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "claim_upload_sessions")
+public class ClaimUploadSession {
+
+    @Id
+    private String id; // Random UUID, also used as the staging file name
+
+    @ManyToOne
+    @JoinColumn(name = "claim_id", nullable = false)
+    private Claim claim;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ClaimDocumentType documentType;
+
+    private String fileName;
+    private String contentType;
+
+    @Column(nullable = false)
+    private long totalSize;
+
+    @Column(nullable = false)
+    private long receivedBytes; // The offset the next chunk must start at
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadStatus status;
+
+    private String fileUrl; // Set once the upload is complete
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime updatedAt; // Last chunk or status change; abandoned uploads expire by this
+}
@@ -0,0 +1,69 @@
+package com.insuranceplatform.backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.insuranceplatform.backend.enums.StatementStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An agent's monthly commission statement (PDF and CSV) and the progress of generating it.
+ * One row per agent and month; the row is what makes the monthly run restartable.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "commission_statements",
+        uniqueConstraints = @UniqueConstraint(name = "uk_commission_statements_agent_period", columnNames = {"agent_id", "period_start"}))
+public class CommissionStatement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "agent_id", nullable = false)
+    private Agent agent;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart; // First day of the month covered
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatementStatus status;
+
+    private int transactionCount;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal commissionTotal;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal withdrawalTotal;
+
+    @JsonIgnore
+    private String pdfUrl;
+
+    @JsonIgnore
+    private String csvUrl;
+
+    private int attempts;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    private LocalDateTime claimedAt;
+
+    @Column(length = 36)
+    private String claimedBy; // Random token of the worker holding the claim
+
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,67 @@
+package com.insuranceplatform.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated sales figures for one day, superagent, agent, product and insurer.
+ *
+ * Rows are kept up to date as payments and claims are processed, so dashboards sum a handful of
+ * rows instead of scanning policies, transactions and claims. The dimensions are plain IDs
+ * rather than relations: this is a reporting table and is never navigated.
+ * See {@link com.insuranceplatform.backend.service.SalesRollupService}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "daily_sales_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_sales_rollups_key",
+                columnNames = {"day", "superagent_id", "agent_id", "product_id", "insurance_company_id"}),
+        indexes = @Index(name = "idx_daily_sales_rollups_superagent_day", columnList = "superagent_id, day"))
+public class DailySalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate day; // Creation date for quotes, payment date for sales, raise date for claims
+
+    @Column(nullable = false)
+    private Long superagentId;
+
+    @Column(nullable = false)
+    private Long agentId;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long insuranceCompanyId;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal premiumAmount;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal taxAmount;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal commissionAmount;
+
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long quoteCount; // Policies created, paid or not
+
+    @Column(nullable = false)
+    private long policyCount; // Policies paid
+
+    @Column(nullable = false)
+    private long claimCount; // Claims raised
+}
@@ -0,0 +1,43 @@
+package com.insuranceplatform.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed index of stored files. Identical uploads (same SHA-256) share one stored
+ * object, and {@code referenceCount} tracks how many documents point at it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "file_blobs")
+public class FileBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false, length = 64)
+    private String contentHash; // Hex-encoded SHA-256 of the content
+
+    @Column(unique = true, nullable = false, length = 1024)
+    private String fileUrl; // What the storage backend returned for the single stored copy
+
+    private String contentType;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private int referenceCount;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.time.LocalDateTime;
 
@@ -22,6 +24,7 @@ public class Lead {
     private Long id;
 
     @ManyToOne
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "superagent_id", nullable = false)
     private Superagent superagent;
 
@@ -41,4 +44,8 @@ public class Lead {
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt;
-}
\ No newline at end of file
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+}
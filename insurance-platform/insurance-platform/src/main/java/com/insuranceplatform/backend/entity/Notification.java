@@ -34,6 +34,8 @@ public class Notification {
     @Builder.Default
     private boolean isRead = false;
 
+    // Partition key of the notifications table (monthly ranges), so it never changes after insert
     @Builder.Default
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 }
\ No newline at end of file
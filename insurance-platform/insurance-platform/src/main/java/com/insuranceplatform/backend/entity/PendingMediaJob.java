@@ -0,0 +1,40 @@
+package com.insuranceplatform.backend.entity;
+
+import com.insuranceplatform.backend.enums.ClaimDocumentType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A derivative generation job that the media processing queue had no room for. Kept until a
+ * later sweep gets it onto the queue. See {@link com.insuranceplatform.backend.service.MediaProcessingService}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "pending_media_jobs")
+public class PendingMediaJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long claimId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ClaimDocumentType documentType;
+
+    @Column(nullable = false)
+    private String sourceUrl;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
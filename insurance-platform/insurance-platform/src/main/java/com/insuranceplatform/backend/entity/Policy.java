@@ -6,6 +6,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -15,7 +18,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "policies")
+@Table(name = "policies", indexes = {
+        @Index(name = "idx_policies_paid_at", columnList = "paid_at"),
+        @Index(name = "idx_policies_created_at", columnList = "created_at"),
+        @Index(name = "idx_policies_company_status_change_txid", columnList = "company_id, status, change_txid, id")
+})
 public class Policy {
 
     @Id
@@ -26,7 +33,9 @@ public class Policy {
     @JoinColumn(name = "client_id", nullable = false)
     private Client client;
 
+    // Loaded by ID so it comes from the second-level cache rather than a join
     @ManyToOne
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
@@ -34,6 +43,11 @@ public class Policy {
     @JoinColumn(name = "agent_id", nullable = false)
     private Agent agent;
 
+    // The product's insurer, copied so the insurer change feed can be served by an index that leads with it
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id", nullable = false)
+    private InsuranceCompany insuranceCompany;
+
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal premiumAmount; // The base amount calculated from the rate
 
@@ -55,4 +69,17 @@ public class Policy {
     private LocalDateTime paidAt;
      private LocalDateTime startDate;
     private LocalDateTime expiryDate;
-}
\ No newline at end of file
+
+    @UpdateTimestamp
+    @Column(nullable = false, columnDefinition = "timestamp(6) default now()")
+    private LocalDateTime updatedAt;
+
+    // Position of the policy in the insurer change feed: the ID of the last transaction that wrote it,
+    // stamped by a database trigger (see DataSharingService)
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long changeTxid;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+}
@@ -5,6 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.math.BigDecimal;
 
@@ -16,17 +20,22 @@ import com.insuranceplatform.backend.enums.CalculationType;
 @AllArgsConstructor
 @Entity
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
 public class Product {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Both references are cached entities, read by ID from the second-level cache
     @ManyToOne
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "superagent_id", nullable = false)
     private Superagent superagent;
 
     @ManyToOne
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "company_id", nullable = false)
     private InsuranceCompany insuranceCompany;
 
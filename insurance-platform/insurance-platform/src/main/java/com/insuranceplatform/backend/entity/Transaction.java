@@ -16,7 +16,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_policy_id", columnList = "policy_id"),
+        @Index(name = "idx_transactions_wallet_timestamp", columnList = "wallet_id, timestamp"),
+        @Index(name = "idx_transactions_timestamp", columnList = "timestamp")
+})
 public class Transaction {
 
     @Id
@@ -46,6 +50,12 @@ public class Transaction {
     private TransactionStatus status;
     // --- END OF UPDATED FIELDS ---
 
+    // Partition key of the transactions table (monthly ranges), so it never changes after insert
     @Builder.Default
+    @Column(nullable = false, updatable = false)
     private LocalDateTime timestamp = LocalDateTime.now();
-}
\ No newline at end of file
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+}
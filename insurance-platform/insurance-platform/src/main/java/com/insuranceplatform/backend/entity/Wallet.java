@@ -27,4 +27,8 @@ public class Wallet {
     @Builder.Default
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal balance = BigDecimal.ZERO;
-}
\ No newline at end of file
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+}
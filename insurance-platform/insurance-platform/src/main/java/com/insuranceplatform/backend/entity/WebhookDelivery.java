@@ -0,0 +1,68 @@
+package com.insuranceplatform.backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.insuranceplatform.backend.enums.WebhookDeliveryStatus;
+import com.insuranceplatform.backend.enums.WebhookEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One event waiting to be delivered (or delivered, or dead-lettered) to one webhook endpoint.
+ *
+ * Rows are written in the same transaction as the change they describe, so an event is never
+ * sent for a change that rolled back and never lost for one that committed.
+ * See {@link com.insuranceplatform.backend.service.WebhookService}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "webhook_deliveries", indexes = {
+        @Index(name = "idx_webhook_deliveries_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_webhook_deliveries_endpoint_due", columnList = "endpoint_id, status, next_attempt_at")
+})
+public class WebhookDelivery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "endpoint_id", nullable = false)
+    private WebhookEndpoint endpoint;
+
+    @Column(nullable = false, length = 36)
+    private String eventId; // Same for every endpoint; receivers use it to drop duplicates
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WebhookEventType eventType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload; // The event as JSON, embedded as-is in the batch body
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WebhookDeliveryStatus status;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt; // Also pushed forward while a batch is in flight
+
+    @Column(length = 1024)
+    private String lastError;
+
+    private Integer lastStatusCode;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime deliveredAt;
+}
@@ -0,0 +1,47 @@
+package com.insuranceplatform.backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A URL registered by an insurer to receive policy and claim events for its products.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "webhook_endpoints", indexes = @Index(name = "idx_webhook_endpoints_company", columnList = "company_id"))
+public class WebhookEndpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id", nullable = false)
+    private InsuranceCompany insuranceCompany;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    @JsonIgnore
+    @Column(nullable = false)
+    private String secret; // HMAC-SHA256 signing key, shown to the insurer once on registration
+
+    @Column(nullable = false)
+    private int maxConcurrency; // Batches in flight to this URL at once, per node
+
+    @Builder.Default
+    private boolean enabled = true;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
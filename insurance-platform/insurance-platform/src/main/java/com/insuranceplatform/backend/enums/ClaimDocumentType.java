@@ -0,0 +1,9 @@
+package com.insuranceplatform.backend.enums;
+
+public enum ClaimDocumentType {
+    POLICE_ABSTRACT,
+    DRIVING_LICENSE,
+    LOGBOOK,
+    PHOTO,
+    VIDEO
+}
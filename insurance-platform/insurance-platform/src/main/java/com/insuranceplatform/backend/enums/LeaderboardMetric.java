@@ -0,0 +1,11 @@
+package com.insuranceplatform.backend.enums;
+
+/**
+ * What the superagent leaderboard ranks agents by (highest first).
+ */
+public enum LeaderboardMetric {
+    PREMIUM,
+    POLICIES,
+    CONVERSION,
+    CLAIMS_RATIO
+}
@@ -0,0 +1,8 @@
+package com.insuranceplatform.backend.enums;
+
+public enum StatementStatus {
+    PENDING,
+    GENERATING, // Claimed by a worker
+    GENERATED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.insuranceplatform.backend.enums;
+
+public enum TimeBucket {
+    DAY,
+    WEEK, // ISO weeks, starting on Monday
+    MONTH
+}
@@ -0,0 +1,7 @@
+package com.insuranceplatform.backend.enums;
+
+public enum UploadStatus {
+    IN_PROGRESS,
+    COMPLETED,
+    ABORTED
+}
@@ -0,0 +1,7 @@
+package com.insuranceplatform.backend.enums;
+
+public enum WebhookDeliveryStatus {
+    PENDING, // Waiting for its batch window, a retry, or in flight
+    DELIVERED,
+    DEAD // Gave up after the last retry; kept as a dead letter until retried by an admin
+}
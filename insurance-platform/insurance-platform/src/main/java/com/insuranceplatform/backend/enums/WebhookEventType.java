@@ -0,0 +1,7 @@
+package com.insuranceplatform.backend.enums;
+
+public enum WebhookEventType {
+    POLICY_PAID,
+    CLAIM_RAISED,
+    CLAIM_STATUS_CHANGED
+}
@@ -0,0 +1,11 @@
+package com.insuranceplatform.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST) // The chunk was corrupted in transit and must be re-sent
+public class ChecksumMismatchException extends RuntimeException {
+    public ChecksumMismatchException(String message) {
+        super(message);
+    }
+}
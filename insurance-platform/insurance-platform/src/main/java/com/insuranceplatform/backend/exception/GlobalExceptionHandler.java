@@ -1 +1,29 @@
-package com.insuranceplatform.backend.exception; public class GlobalExceptionHandler {}
\ No newline at end of file
+package com.insuranceplatform.backend.exception;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+
+/**
+ * Maps exceptions that cannot carry {@code @ResponseStatus} themselves. Responses go through
+ * {@code sendError}, so they have the same body as every other error.
+ */
+@RestControllerAdvice
+@Slf4j
+public class GlobalExceptionHandler {
+
+    /**
+     * A write based on a stale read, from code that is not retried (see RetryOnConflict): 409 like
+     * {@link ConcurrentUpdateException}, so the client reloads and tries again instead of seeing a 500.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public void handleOptimisticLockingFailure(OptimisticLockingFailureException e, HttpServletResponse response) throws IOException {
+        log.info("Concurrent update conflict: {}", e.getMessage());
+        response.sendError(HttpStatus.CONFLICT.value(), "The record was changed by another request at the same time. Please try again.");
+    }
+}
@@ -0,0 +1,15 @@
+package com.insuranceplatform.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a chunk does not start at the upload's current offset.
+ * The client should query the upload status and resume from the reported offset.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class UploadOffsetMismatchException extends RuntimeException {
+    public UploadOffsetMismatchException(String message) {
+        super(message);
+    }
+}
@@ -6,9 +6,11 @@ import com.insuranceplatform.backend.entity.Superagent;
 import com.insuranceplatform.backend.entity.Agent;
 import com.insuranceplatform.backend.enums.ClaimStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List; // Added missing import
 import java.util.Optional;
@@ -54,4 +56,27 @@ public interface ClaimRepository extends JpaRepository<Claim, Long> {
     @Query("SELECT count(c) FROM Claim c WHERE c.policy.agent.superagent = :superagent AND c.status = :status")
     long countClaimsBySuperagentAndStatus(@Param("superagent") Superagent superagent, @Param("status") ClaimStatus status);
     List<Claim> findByPolicy_Agent(Agent agent);
+
+    /**
+     * Records photo derivatives, but only if the claim still points at the photo they were made from.
+     * Updating just these columns avoids overwriting concurrent edits to the rest of the claim, and
+     * bumping the version makes an edit based on the claim as read before fail and retry rather than
+     * overwrite the derivatives.
+     *
+     * @return The number of claims updated (0 if the photo was replaced in the meantime).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Claim c SET c.version = c.version + 1, c.photoThumbnailUrl = :thumbnailUrl, c.photoPreviewUrl = :previewUrl WHERE c.id = :claimId AND c.photoUrl = :sourceUrl")
+    int updatePhotoDerivatives(@Param("claimId") Long claimId, @Param("sourceUrl") String sourceUrl,
+                               @Param("thumbnailUrl") String thumbnailUrl, @Param("previewUrl") String previewUrl);
+
+    /**
+     * Records video derivatives, but only if the claim still points at the video they were made from.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Claim c SET c.version = c.version + 1, c.videoThumbnailUrl = :thumbnailUrl, c.videoPreviewUrl = :previewUrl WHERE c.id = :claimId AND c.videoUrl = :sourceUrl")
+    int updateVideoDerivatives(@Param("claimId") Long claimId, @Param("sourceUrl") String sourceUrl,
+                               @Param("thumbnailUrl") String thumbnailUrl, @Param("previewUrl") String previewUrl);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.insuranceplatform.backend.repository;
+
+import com.insuranceplatform.backend.entity.ClaimUploadSession;
+import com.insuranceplatform.backend.enums.UploadStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ClaimUploadSessionRepository extends JpaRepository<ClaimUploadSession, String> {
+    // Used by the cleanup job to find uploads with no activity since the cutoff
+    List<ClaimUploadSession> findByStatusAndUpdatedAtBefore(UploadStatus status, LocalDateTime cutoff);
+}
@@ -0,0 +1,96 @@
+package com.insuranceplatform.backend.repository;
+
+import com.insuranceplatform.backend.entity.Agent;
+import com.insuranceplatform.backend.entity.CommissionStatement;
+import com.insuranceplatform.backend.enums.StatementStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CommissionStatementRepository extends JpaRepository<CommissionStatement, Long> {
+
+    List<CommissionStatement> findByAgentOrderByPeriodStartDesc(Agent agent);
+
+    Optional<CommissionStatement> findByAgent_IdAndPeriodStart(Long agentId, LocalDate periodStart);
+
+    /**
+     * Creates the PENDING statement row for an agent and month unless it already exists.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "commission_statements"))
+    @Query(value = "INSERT INTO commission_statements (agent_id, period_start, status, transaction_count, attempts) " +
+            "VALUES (:agentId, :periodStart, 'PENDING', 0, 0) ON CONFLICT (agent_id, period_start) DO NOTHING",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("agentId") Long agentId, @Param("periodStart") LocalDate periodStart);
+
+    /**
+     * Atomically claims a statement for generation: PENDING or FAILED statements, and GENERATING
+     * ones whose worker has not finished by {@code staleBefore} (e.g. the node was restarted).
+     *
+     * @return 1 if this caller now owns the statement, 0 if it is done or being generated elsewhere.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CommissionStatement s SET s.status = :generating, s.claimedAt = :now, s.claimedBy = :worker, " +
+            "s.attempts = s.attempts + 1 " +
+            "WHERE s.agent.id = :agentId AND s.periodStart = :periodStart " +
+            "AND (s.status IN :claimable OR (s.status = :generating AND s.claimedAt < :staleBefore))")
+    int claim(@Param("agentId") Long agentId, @Param("periodStart") LocalDate periodStart,
+              @Param("claimable") List<StatementStatus> claimable, @Param("generating") StatementStatus generating,
+              @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore,
+              @Param("worker") String worker);
+
+    /**
+     * Records a generated statement, if {@code worker} still holds its claim.
+     *
+     * @return 0 if the claim timed out and another worker took the statement over.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CommissionStatement s SET s.status = :generated, s.transactionCount = :transactionCount, " +
+            "s.commissionTotal = :commissionTotal, s.withdrawalTotal = :withdrawalTotal, s.pdfUrl = :pdfUrl, " +
+            "s.csvUrl = :csvUrl, s.lastError = null, s.generatedAt = :now " +
+            "WHERE s.id = :id AND s.status = :generating AND s.claimedBy = :worker")
+    int complete(@Param("id") Long id, @Param("worker") String worker, @Param("generating") StatementStatus generating,
+                 @Param("generated") StatementStatus generated, @Param("transactionCount") int transactionCount,
+                 @Param("commissionTotal") BigDecimal commissionTotal, @Param("withdrawalTotal") BigDecimal withdrawalTotal,
+                 @Param("pdfUrl") String pdfUrl, @Param("csvUrl") String csvUrl, @Param("now") LocalDateTime now);
+
+    /**
+     * Makes a statement claimable again so it is regenerated, unless a worker is generating it right now.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CommissionStatement s SET s.status = :pending " +
+            "WHERE s.agent.id = :agentId AND s.periodStart = :periodStart AND s.status <> :generating")
+    int resetToPending(@Param("agentId") Long agentId, @Param("periodStart") LocalDate periodStart,
+                       @Param("pending") StatementStatus pending, @Param("generating") StatementStatus generating);
+
+    /**
+     * Records a failed attempt, if {@code worker} still holds the statement's claim.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CommissionStatement s SET s.status = :failed, s.lastError = :error " +
+            "WHERE s.agent.id = :agentId AND s.periodStart = :periodStart AND s.status = :generating AND s.claimedBy = :worker")
+    int markFailed(@Param("agentId") Long agentId, @Param("periodStart") LocalDate periodStart, @Param("worker") String worker,
+                   @Param("generating") StatementStatus generating, @Param("failed") StatementStatus failed,
+                   @Param("error") String error);
+
+    @Query("SELECT s.status, COUNT(s) FROM CommissionStatement s WHERE s.periodStart = :periodStart GROUP BY s.status")
+    List<Object[]> countByStatus(@Param("periodStart") LocalDate periodStart);
+}
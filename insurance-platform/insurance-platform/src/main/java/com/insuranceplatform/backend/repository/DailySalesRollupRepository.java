@@ -0,0 +1,133 @@
+package com.insuranceplatform.backend.repository;
+
+import com.insuranceplatform.backend.dto.AgentSalesTotals;
+import com.insuranceplatform.backend.dto.SalesSeriesPointDto;
+import com.insuranceplatform.backend.dto.SalesTotals;
+import com.insuranceplatform.backend.entity.DailySalesRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+
+    /**
+     * Adds to the rollup row for this day and dimension key, creating it if needed.
+     * A single upsert statement, so concurrent payments for the same key never lose an update.
+     * Runs in the caller's transaction, so the rollup commits or rolls back with the payment.
+     */
+    @Transactional
+    @Modifying
+    // Names the table written; a native update without it clears the whole second-level cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_sales_rollups"))
+    @Query(value = "INSERT INTO daily_sales_rollups (day, superagent_id, agent_id, product_id, insurance_company_id, " +
+            "premium_amount, tax_amount, commission_amount, quote_count, policy_count, claim_count) " +
+            "VALUES (:day, :superagentId, :agentId, :productId, :insuranceCompanyId, :premium, :tax, :commission, :quotes, :policies, :claims) " +
+            "ON CONFLICT (day, superagent_id, agent_id, product_id, insurance_company_id) DO UPDATE SET " +
+            "premium_amount = daily_sales_rollups.premium_amount + EXCLUDED.premium_amount, " +
+            "tax_amount = daily_sales_rollups.tax_amount + EXCLUDED.tax_amount, " +
+            "commission_amount = daily_sales_rollups.commission_amount + EXCLUDED.commission_amount, " +
+            "quote_count = daily_sales_rollups.quote_count + EXCLUDED.quote_count, " +
+            "policy_count = daily_sales_rollups.policy_count + EXCLUDED.policy_count, " +
+            "claim_count = daily_sales_rollups.claim_count + EXCLUDED.claim_count",
+            nativeQuery = true)
+    void add(@Param("day") LocalDate day, @Param("superagentId") Long superagentId, @Param("agentId") Long agentId,
+             @Param("productId") Long productId, @Param("insuranceCompanyId") Long insuranceCompanyId,
+             @Param("premium") BigDecimal premium, @Param("tax") BigDecimal tax, @Param("commission") BigDecimal commission,
+             @Param("quotes") long quotes, @Param("policies") long policies, @Param("claims") long claims);
+
+    @Query("SELECT new com.insuranceplatform.backend.dto.SalesTotals(" +
+            "COALESCE(SUM(r.premiumAmount), 0), COALESCE(SUM(r.taxAmount), 0), COALESCE(SUM(r.commissionAmount), 0), " +
+            "COALESCE(SUM(r.policyCount), 0), COALESCE(SUM(r.claimCount), 0)) FROM DailySalesRollup r")
+    SalesTotals sumAll();
+
+    @Query("SELECT new com.insuranceplatform.backend.dto.SalesTotals(" +
+            "COALESCE(SUM(r.premiumAmount), 0), COALESCE(SUM(r.taxAmount), 0), COALESCE(SUM(r.commissionAmount), 0), " +
+            "COALESCE(SUM(r.policyCount), 0), COALESCE(SUM(r.claimCount), 0)) FROM DailySalesRollup r " +
+            "WHERE r.superagentId = :superagentId")
+    SalesTotals sumBySuperagent(@Param("superagentId") Long superagentId);
+
+    /**
+     * Totals per agent of one superagent over [from, to]. Served from the (superagent_id, day) index,
+     * so the cost depends on the superagent's own rows only.
+     */
+    @Query("SELECT new com.insuranceplatform.backend.dto.AgentSalesTotals(r.agentId, SUM(r.premiumAmount), " +
+            "SUM(r.quoteCount), SUM(r.policyCount), SUM(r.claimCount)) FROM DailySalesRollup r " +
+            "WHERE r.superagentId = :superagentId AND r.day >= :from AND r.day <= :to GROUP BY r.agentId")
+    List<AgentSalesTotals> sumByAgent(@Param("superagentId") Long superagentId,
+                                      @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Daily totals of one superagent over [from, to], optionally for a single agent (agentId null for all).
+     */
+    @Query("SELECT new com.insuranceplatform.backend.dto.SalesSeriesPointDto(r.day, SUM(r.premiumAmount), " +
+            "SUM(r.quoteCount), SUM(r.policyCount), SUM(r.claimCount)) FROM DailySalesRollup r " +
+            "WHERE r.superagentId = :superagentId AND r.day >= :from AND r.day <= :to " +
+            "AND (:agentId IS NULL OR r.agentId = :agentId) GROUP BY r.day ORDER BY r.day")
+    List<SalesSeriesPointDto> sumByDay(@Param("superagentId") Long superagentId, @Param("agentId") Long agentId,
+                                       @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // --- Backfill ---
+
+    @Query("SELECT MIN(p.createdAt) FROM Policy p")
+    LocalDateTime findFirstPolicyTime();
+
+    @Query("SELECT MIN(c.createdAt) FROM Claim c")
+    LocalDateTime findFirstClaimTime();
+
+    @Modifying
+    @Query("DELETE FROM DailySalesRollup r WHERE r.day >= :from AND r.day < :to")
+    int deleteDays(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Recomputes the rollup rows for [from, to) from policies, commission transactions and claims.
+     * Quotes are dated by policy creation. Sales are dated by payment time and include every policy that was ever paid, whatever its
+     * status is now, matching what {@link #add} records as payments come in.
+     *
+     * @return The number of rollup rows written.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_sales_rollups"))
+    @Query(value = "INSERT INTO daily_sales_rollups (day, superagent_id, agent_id, product_id, insurance_company_id, " +
+            "premium_amount, tax_amount, commission_amount, quote_count, policy_count, claim_count) " +
+            "SELECT f.day, f.superagent_id, f.agent_id, f.product_id, f.insurance_company_id, " +
+            "SUM(f.premium), SUM(f.tax), SUM(f.commission), SUM(f.quotes), SUM(f.policies), SUM(f.claims) FROM (" +
+            "  SELECT CAST(p.created_at AS date) AS day, a.superagent_id, p.agent_id, p.product_id, pr.company_id AS insurance_company_id, " +
+            "         0 AS premium, 0 AS tax, 0 AS commission, 1 AS quotes, 0 AS policies, 0 AS claims " +
+            "  FROM policies p JOIN agents a ON a.id = p.agent_id JOIN products pr ON pr.id = p.product_id " +
+            "  WHERE p.created_at >= :fromTime AND p.created_at < :toTime " +
+            "  UNION ALL " +
+            "  SELECT CAST(p.paid_at AS date), a.superagent_id, p.agent_id, p.product_id, pr.company_id, " +
+            "         p.premium_amount, p.tax_amount, " +
+            "         COALESCE((SELECT SUM(t.amount) FROM transactions t " +
+            "                   WHERE t.policy_id = p.id AND t.transaction_type = 'COMMISSION_EARNED'), 0), " +
+            "         0, 1, 0 " +
+            "  FROM policies p JOIN agents a ON a.id = p.agent_id JOIN products pr ON pr.id = p.product_id " +
+            "  WHERE p.paid_at >= :fromTime AND p.paid_at < :toTime " +
+            "  UNION ALL " +
+            "  SELECT CAST(c.created_at AS date), a.superagent_id, p.agent_id, p.product_id, pr.company_id, 0, 0, 0, 0, 0, 1 " +
+            "  FROM claims c JOIN policies p ON p.id = c.policy_id JOIN agents a ON a.id = p.agent_id " +
+            "  JOIN products pr ON pr.id = p.product_id " +
+            "  WHERE c.created_at >= :fromTime AND c.created_at < :toTime" +
+            ") f GROUP BY f.day, f.superagent_id, f.agent_id, f.product_id, f.insurance_company_id " +
+            // A payment that committed between deleteDays and this statement may have recreated its row;
+            // it is already included in the totals computed here.
+            "ON CONFLICT (day, superagent_id, agent_id, product_id, insurance_company_id) DO UPDATE SET " +
+            "premium_amount = EXCLUDED.premium_amount, tax_amount = EXCLUDED.tax_amount, " +
+            "commission_amount = EXCLUDED.commission_amount, quote_count = EXCLUDED.quote_count, " +
+            "policy_count = EXCLUDED.policy_count, " +
+            "claim_count = EXCLUDED.claim_count",
+            nativeQuery = true)
+    int insertFromHistory(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+}
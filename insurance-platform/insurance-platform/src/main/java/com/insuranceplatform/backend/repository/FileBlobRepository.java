@@ -0,0 +1,48 @@
+package com.insuranceplatform.backend.repository;
+
+import com.insuranceplatform.backend.entity.FileBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, Long> {
+
+    Optional<FileBlob> findByContentHash(String contentHash);
+
+    /**
+     * Atomically adds a reference to an existing blob.
+     *
+     * @return 1 if a blob with this hash exists, 0 otherwise.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.referenceCount = b.referenceCount + 1 WHERE b.contentHash = :contentHash")
+    int incrementReferenceCount(@Param("contentHash") String contentHash);
+
+    /**
+     * Atomically removes a reference from the blob stored at this URL.
+     *
+     * @return 1 if a tracked blob was updated, 0 if the URL is not tracked or already unreferenced.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.referenceCount = b.referenceCount - 1 WHERE b.fileUrl = :fileUrl AND b.referenceCount > 0")
+    int decrementReferenceCount(@Param("fileUrl") String fileUrl);
+
+    /**
+     * Deletes the index row only if nothing references the blob any more.
+     * A concurrent upload that re-referenced it in the meantime keeps the row alive.
+     *
+     * @return 1 if the row was deleted and the stored object can be removed.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FileBlob b WHERE b.fileUrl = :fileUrl AND b.referenceCount = 0")
+    int deleteIfUnreferenced(@Param("fileUrl") String fileUrl);
+}
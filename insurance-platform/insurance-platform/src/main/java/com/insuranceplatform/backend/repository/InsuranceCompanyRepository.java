@@ -1,10 +1,16 @@
 package com.insuranceplatform.backend.repository;
 
 import com.insuranceplatform.backend.entity.InsuranceCompany;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface InsuranceCompanyRepository extends JpaRepository<InsuranceCompany, Long> {
-    // We can add custom finders here if needed, e.g., findByName
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<InsuranceCompany> findByName(String name);
 }
\ No newline at end of file
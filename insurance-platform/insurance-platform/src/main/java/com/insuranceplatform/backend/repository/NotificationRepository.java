@@ -5,10 +5,12 @@ import com.insuranceplatform.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    // Find all notifications for a specific user, ordered by most recent
-    List<Notification> findByReceiverOrderByCreatedAtDesc(User receiver);
+    // Find a user's notifications in [from, to) (pruning the monthly partitions outside it), ordered by most recent
+    List<Notification> findByReceiverAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtDesc(
+            User receiver, LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
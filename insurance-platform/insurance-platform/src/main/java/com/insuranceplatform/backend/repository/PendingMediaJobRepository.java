@@ -0,0 +1,26 @@
+package com.insuranceplatform.backend.repository;
+
+import com.insuranceplatform.backend.entity.PendingMediaJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface PendingMediaJobRepository extends JpaRepository<PendingMediaJob, Long> {
+
+    List<PendingMediaJob> findAllByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Removes the job, returning 0 if another node's sweep already took it.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PendingMediaJob j WHERE j.id = :id")
+    int claim(@Param("id") Long id);
+}
@@ -1,17 +1,27 @@
 package com.insuranceplatform.backend.repository;
 
+import com.insuranceplatform.backend.dto.SharedTransactionDto;
 import com.insuranceplatform.backend.entity.Agent;
+import com.insuranceplatform.backend.entity.InsuranceCompany;
 import com.insuranceplatform.backend.entity.Policy;
+import com.insuranceplatform.backend.entity.Product;
 import com.insuranceplatform.backend.entity.Superagent;
 import com.insuranceplatform.backend.enums.PolicyStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PolicyRepository extends JpaRepository<Policy, Long> {
@@ -40,4 +50,53 @@ public interface PolicyRepository extends JpaRepository<Policy, Long> {
      */
     @Query("SELECT COALESCE(SUM(p.premiumAmount), 0) FROM Policy p WHERE p.agent.superagent = :superagent")
     BigDecimal sumPremiumByAgent_Superagent(@Param("superagent") Superagent superagent);
-}
\ No newline at end of file
+
+    // --- Insurer Data Sharing ---
+
+    /**
+     * One insurer's policies with the given status changed after the (afterTxid, afterId) position
+     * and by transactions below {@code horizon}, in feed order. Scans idx_policies_company_status_change_txid
+     * from the position, so the cost depends on the page size rather than on the number of policies ever sold
+     * or on other insurers' changes.
+     */
+    @Query("SELECT new com.insuranceplatform.backend.dto.SharedTransactionDto(" +
+            "p.id, pr.name, p.totalAmount, p.paidAt, au.fullName, su.fullName, p.updatedAt, p.changeTxid) " +
+            "FROM Policy p JOIN p.product pr JOIN p.agent a JOIN a.user au JOIN a.superagent s JOIN s.user su " +
+            "WHERE p.insuranceCompany = :company AND p.status = :status " +
+            "AND p.changeTxid >= :afterTxid AND p.changeTxid < :horizon " +
+            "AND (p.changeTxid > :afterTxid OR p.id > :afterId) " +
+            "ORDER BY p.changeTxid, p.id")
+    List<SharedTransactionDto> findChangesAfter(@Param("company") InsuranceCompany company,
+                                                @Param("status") PolicyStatus status,
+                                                @Param("afterTxid") long afterTxid,
+                                                @Param("afterId") long afterId,
+                                                @Param("horizon") long horizon,
+                                                Pageable pageable);
+
+    /**
+     * The ID of the oldest transaction still running (the next one to be assigned if none is).
+     * Every transaction below it has committed or rolled back, so its policy changes are final.
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long findChangeFeedHorizon();
+
+    /**
+     * Streams every policy of one insurer with the given status, in ID order, as the same rows the
+     * change feed returns. The caller must hold a transaction so PostgreSQL reads with a cursor.
+     */
+    @Query("SELECT new com.insuranceplatform.backend.dto.SharedTransactionDto(" +
+            "p.id, pr.name, p.totalAmount, p.paidAt, au.fullName, su.fullName, p.updatedAt, p.changeTxid) " +
+            "FROM Policy p JOIN p.product pr JOIN p.agent a JOIN a.user au JOIN a.superagent s JOIN s.user su " +
+            "WHERE p.insuranceCompany = :company AND p.status = :status ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<SharedTransactionDto> streamSnapshot(@Param("company") InsuranceCompany company,
+                                                @Param("status") PolicyStatus status);
+
+    /**
+     * Moves a product's policies to the insurer the product now belongs to.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Policy p SET p.version = p.version + 1, p.insuranceCompany = :company WHERE p.product = :product")
+    int updateInsuranceCompanyByProduct(@Param("product") Product product, @Param("company") InsuranceCompany company);
+}
@@ -2,12 +2,17 @@ package com.insuranceplatform.backend.repository;
 
 import com.insuranceplatform.backend.entity.Product;
 import com.insuranceplatform.backend.entity.Superagent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    // Served from the query cache until the products table changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Product> findBySuperagent(Superagent superagent);
 }
\ No newline at end of file
@@ -2,12 +2,16 @@ package com.insuranceplatform.backend.repository;
 
 import com.insuranceplatform.backend.entity.Superagent;
 import com.insuranceplatform.backend.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface SuperagentRepository extends JpaRepository<Superagent, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Superagent> findByUser(User user);
 }
\ No newline at end of file
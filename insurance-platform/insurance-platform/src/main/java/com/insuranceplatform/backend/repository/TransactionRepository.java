@@ -1,10 +1,15 @@
 package com.insuranceplatform.backend.repository;
 
+import com.insuranceplatform.backend.dto.LedgerEntryRow;
+import com.insuranceplatform.backend.dto.TransactionExportRow;
 import com.insuranceplatform.backend.entity.Transaction;
 import com.insuranceplatform.backend.entity.Wallet;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import com.insuranceplatform.backend.entity.Superagent;
 
@@ -13,6 +18,7 @@ import org.springframework.stereotype.Repository;
 import com.insuranceplatform.backend.enums.TransactionStatus;
 import com.insuranceplatform.backend.enums.TransactionType; 
 import java.math.BigDecimal; 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import java.util.List;
@@ -23,11 +29,41 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findAgentTransactionsByStatus(TransactionStatus status);
     @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.transactionType = :type")
     BigDecimal sumAmountByTransactionType(TransactionType type);
-    @Query("SELECT t FROM Transaction t")
-    Stream<Transaction> streamAll();
+    /**
+     * Streams transactions in [from, to) as flat export rows. The policy ID is read from the
+     * foreign key, so only the wallet owner is joined.
+     */
+    @Query("SELECT new com.insuranceplatform.backend.dto.TransactionExportRow(" +
+            "t.id, t.policy.id, u.id, u.fullName, t.amount, t.transactionType, t.timestamp) " +
+            "FROM Transaction t JOIN t.wallet w JOIN w.user u " +
+            "WHERE t.timestamp >= :from AND t.timestamp < :to ORDER BY t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<TransactionExportRow> streamExportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
      @Query("SELECT t FROM Transaction t WHERE t.wallet.user.agentProfile.superagent = :superagent AND t.status = com.insuranceplatform.backend.enums.TransactionStatus.PENDING")
     List<Transaction> findPendingWithdrawalsForSuperagent(@Param("superagent") Superagent superagent);
-    List<Transaction> findByWalletOrderByTimestampDesc(Wallet wallet);
+    /**
+     * A wallet's transactions in [from, to), newest first. The bounds limit the scan to the monthly
+     * partitions they cover.
+     */
+    List<Transaction> findByWalletAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+            Wallet wallet, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Streams one wallet's transactions in [from, to), oldest first, for a commission statement.
+     */
+    @Query("SELECT new com.insuranceplatform.backend.dto.LedgerEntryRow(" +
+            "t.id, t.timestamp, t.transactionType, t.status, t.amount, t.policy.id) " +
+            "FROM Transaction t WHERE t.wallet = :wallet AND t.timestamp >= :from AND t.timestamp < :to " +
+            "ORDER BY t.timestamp, t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<LedgerEntryRow> streamLedger(@Param("wallet") Wallet wallet, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * IDs of agents whose wallet had any transaction in [from, to).
+     */
+    @Query("SELECT DISTINCT a.id FROM Transaction t JOIN t.wallet w JOIN Agent a ON a.user = w.user " +
+            "WHERE t.timestamp >= :from AND t.timestamp < :to ORDER BY a.id")
+    List<Long> findAgentIdsWithActivity(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
     // In TransactionRepository.java
     Optional<Transaction> findByOriginatorConversationId(String originatorConversationId);
 }
\ No newline at end of file
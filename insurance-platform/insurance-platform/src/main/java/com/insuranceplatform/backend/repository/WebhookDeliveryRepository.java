@@ -0,0 +1,97 @@
+package com.insuranceplatform.backend.repository;
+
+import com.insuranceplatform.backend.dto.WebhookDeadLetterDto;
+import com.insuranceplatform.backend.entity.WebhookDelivery;
+import com.insuranceplatform.backend.entity.WebhookEndpoint;
+import com.insuranceplatform.backend.enums.WebhookDeliveryStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WebhookDeliveryRepository extends JpaRepository<WebhookDelivery, Long> {
+
+    /**
+     * Enabled endpoints with at least one delivery due by {@code now}.
+     */
+    @Query("SELECT DISTINCT d.endpoint.id FROM WebhookDelivery d " +
+            "WHERE d.status = :status AND d.nextAttemptAt <= :now AND d.endpoint.enabled = true")
+    List<Long> findDueEndpointIds(@Param("status") WebhookDeliveryStatus status, @Param("now") LocalDateTime now);
+
+    /**
+     * Locks the next batch of one endpoint's pending deliveries due by {@code dueBefore}, oldest
+     * first. Rows locked by another node's dispatcher are skipped rather than waited for.
+     * The caller must push their next_attempt_at forward in the same transaction (see {@link #lease}).
+     */
+    @Query(value = "SELECT * FROM webhook_deliveries WHERE endpoint_id = :endpointId AND status = 'PENDING' " +
+            "AND next_attempt_at <= :dueBefore ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<WebhookDelivery> lockDueBatch(@Param("endpointId") Long endpointId, @Param("dueBefore") LocalDateTime dueBefore,
+                                       @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE WebhookDelivery d SET d.nextAttemptAt = :until WHERE d.id IN :ids")
+    int lease(@Param("ids") List<Long> ids, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE WebhookDelivery d SET d.status = :delivered, d.deliveredAt = :now, d.attempts = d.attempts + 1, " +
+            "d.lastStatusCode = :statusCode, d.lastError = null WHERE d.id IN :ids")
+    int markDelivered(@Param("ids") List<Long> ids, @Param("delivered") WebhookDeliveryStatus delivered,
+                      @Param("now") LocalDateTime now, @Param("statusCode") int statusCode);
+
+    /**
+     * Records a failed attempt: rows that have used up their attempts become DEAD, the rest are
+     * retried at {@code retryAt}.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "webhook_deliveries"))
+    @Query(value = "UPDATE webhook_deliveries SET attempts = attempts + 1, last_error = :error, " +
+            "last_status_code = :statusCode, next_attempt_at = :retryAt, " +
+            "status = CASE WHEN attempts + 1 >= :maxAttempts THEN 'DEAD' ELSE 'PENDING' END " +
+            "WHERE id IN (:ids)", nativeQuery = true)
+    int recordFailure(@Param("ids") List<Long> ids, @Param("error") String error,
+                      @Param("statusCode") Integer statusCode, @Param("retryAt") LocalDateTime retryAt,
+                      @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Makes a dead letter pending again, unless its endpoint has been disabled.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE WebhookDelivery d SET d.status = :pending, d.attempts = 0, d.nextAttemptAt = :now " +
+            "WHERE d.id = :id AND d.status = :dead " +
+            "AND d.endpoint IN (SELECT e FROM WebhookEndpoint e WHERE e.enabled = true)")
+    int requeue(@Param("id") Long id, @Param("pending") WebhookDeliveryStatus pending,
+                @Param("dead") WebhookDeliveryStatus dead, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM WebhookDelivery d WHERE d.endpoint = :endpoint AND d.status = :status")
+    int deleteByEndpointAndStatus(@Param("endpoint") WebhookEndpoint endpoint, @Param("status") WebhookDeliveryStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM WebhookDelivery d WHERE d.status = :delivered AND d.deliveredAt < :before")
+    int purgeDelivered(@Param("delivered") WebhookDeliveryStatus delivered, @Param("before") LocalDateTime before);
+
+    @Query(value = "SELECT new com.insuranceplatform.backend.dto.WebhookDeadLetterDto(" +
+            "d.id, e.id, e.url, c.name, d.eventId, d.eventType, d.attempts, d.lastStatusCode, d.lastError, " +
+            "d.createdAt, d.nextAttemptAt) " +
+            "FROM WebhookDelivery d JOIN d.endpoint e JOIN e.insuranceCompany c WHERE d.status = :dead ORDER BY d.id DESC",
+            countQuery = "SELECT COUNT(d) FROM WebhookDelivery d WHERE d.status = :dead")
+    Page<WebhookDeadLetterDto> findDeadLetters(@Param("dead") WebhookDeliveryStatus dead, Pageable pageable);
+}
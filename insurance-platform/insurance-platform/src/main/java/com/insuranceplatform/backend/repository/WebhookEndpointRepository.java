@@ -0,0 +1,17 @@
+package com.insuranceplatform.backend.repository;
+
+import com.insuranceplatform.backend.entity.InsuranceCompany;
+import com.insuranceplatform.backend.entity.WebhookEndpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WebhookEndpointRepository extends JpaRepository<WebhookEndpoint, Long> {
+
+    List<WebhookEndpoint> findByInsuranceCompanyAndEnabledTrue(InsuranceCompany insuranceCompany);
+
+    Optional<WebhookEndpoint> findByIdAndInsuranceCompany(Long id, InsuranceCompany insuranceCompany);
+}
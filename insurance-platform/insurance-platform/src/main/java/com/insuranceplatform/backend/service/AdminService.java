@@ -1,7 +1,9 @@
 package com.insuranceplatform.backend.service;
 
+import com.insuranceplatform.backend.config.RetryOnConflict;
 import com.insuranceplatform.backend.dto.CompanyRequest;
 import com.insuranceplatform.backend.dto.DashboardMetricsDto;
+import com.insuranceplatform.backend.dto.SalesTotals;
 import com.insuranceplatform.backend.dto.TaxRateRequest;
 import com.insuranceplatform.backend.dto.UserStatusRequest;
 import com.insuranceplatform.backend.dto.AddStockRequest;
@@ -10,15 +12,22 @@ import com.insuranceplatform.backend.enums.*; // Assuming all enums are here
 import com.insuranceplatform.backend.exception.ResourceNotFoundException;
 import com.insuranceplatform.backend.repository.*;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AdminService {
 
     private final InsuranceCompanyRepository companyRepository;
@@ -27,13 +36,23 @@ public class AdminService {
     private final SuperagentRepository superagentRepository;
     private final AgentRepository agentRepository;
     private final ApiKeyRepository apiKeyRepository;
-    private final PolicyRepository policyRepository;
     private final ClaimRepository claimRepository;
-    private final TransactionRepository transactionRepository;
     private final CertificateStockRepository certificateStockRepository;
+    private final SalesRollupService salesRollupService;
+    private final ThreadPoolTaskExecutor dashboardQueryExecutor;
 
     private static final Long GLOBAL_CONFIG_ID = 1L;
 
+    // Dashboard metrics cache: the last result, and the refresh currently running (if any).
+    private volatile CachedDashboardMetrics cachedDashboardMetrics;
+    private final AtomicReference<CompletableFuture<DashboardMetricsDto>> dashboardRefresh = new AtomicReference<>();
+
+    @Value("${dashboard.metrics.ttl-seconds:30}")
+    private long dashboardTtlSeconds;
+
+    @Value("${dashboard.metrics.max-stale-seconds:300}")
+    private long dashboardMaxStaleSeconds;
+
     // --- Insurance Company Management ---
 
     public InsuranceCompany createCompany(CompanyRequest request) {
@@ -152,6 +171,7 @@ public class AdminService {
     }
 
     @Transactional
+    @RetryOnConflict
     public CertificateStock addCertificateStock(AddStockRequest request) {
         Superagent superagent = superagentRepository.findById(request.getSuperagentId())
                 .orElseThrow(() -> new ResourceNotFoundException("Superagent not found with ID: " + request.getSuperagentId()));
@@ -173,27 +193,91 @@ public class AdminService {
 
     // --- Dashboard Metrics ---
     
+    /**
+     * Returns the admin dashboard metrics from a short-lived cache.
+     *
+     * Results younger than {@code dashboard.metrics.ttl-seconds} are returned as-is. Older results
+     * are still returned immediately (up to {@code dashboard.metrics.max-stale-seconds}) while a
+     * refresh runs in the background, so admins never wait on the queries after the first load.
+     * Concurrent callers share a single refresh rather than each running the queries.
+     */
     public DashboardMetricsDto getDashboardMetrics() {
-        long totalUsers = userRepository.count();
-        long totalSuperagents = superagentRepository.count();
-        long totalAgents = agentRepository.count();
-        long totalPoliciesSold = policyRepository.count();
-        
-        BigDecimal totalPremium = policyRepository.sumPremiumByStatus(PolicyStatus.PAID);
-        BigDecimal commissionsPaid = transactionRepository.sumAmountByTransactionType(TransactionType.COMMISSION_EARNED);
-        
+        CachedDashboardMetrics cached = cachedDashboardMetrics;
+        Duration age = cached != null ? Duration.ofNanos(System.nanoTime() - cached.computedAt()) : null;
+        if (age != null && age.getSeconds() < dashboardTtlSeconds) {
+            return cached.metrics();
+        }
+        CompletableFuture<DashboardMetricsDto> refresh = refreshDashboardMetrics();
+        if (age != null && age.getSeconds() < dashboardMaxStaleSeconds) {
+            return cached.metrics(); // Stale while revalidating
+        }
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Starts a refresh of the dashboard metrics, or joins the one already running.
+     */
+    private CompletableFuture<DashboardMetricsDto> refreshDashboardMetrics() {
+        while (true) {
+            CompletableFuture<DashboardMetricsDto> running = dashboardRefresh.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<DashboardMetricsDto> refresh = new CompletableFuture<>();
+            if (dashboardRefresh.compareAndSet(null, refresh)) {
+                computeDashboardMetrics().whenComplete((metrics, error) -> {
+                    if (error == null) {
+                        cachedDashboardMetrics = new CachedDashboardMetrics(metrics, System.nanoTime());
+                    } else {
+                        log.warn("Failed to refresh dashboard metrics", error);
+                    }
+                    // Publish the new cache entry before letting the next refresh start.
+                    dashboardRefresh.set(null);
+                    if (error == null) {
+                        refresh.complete(metrics);
+                    } else {
+                        refresh.completeExceptionally(error);
+                    }
+                });
+                return refresh;
+            }
+        }
+    }
+
+    /**
+     * Runs the independent dashboard queries in parallel on the bounded {@code dashboardQueryExecutor}.
+     * Sales figures come from the daily rollups (see {@link SalesRollupService}) instead of scanning
+     * policies and transactions. Pending claims are a current status, so they are still counted live.
+     */
+    private CompletableFuture<DashboardMetricsDto> computeDashboardMetrics() {
+        CompletableFuture<Long> totalUsers = CompletableFuture.supplyAsync(userRepository::count, dashboardQueryExecutor);
+        CompletableFuture<Long> totalSuperagents = CompletableFuture.supplyAsync(superagentRepository::count, dashboardQueryExecutor);
+        CompletableFuture<Long> totalAgents = CompletableFuture.supplyAsync(agentRepository::count, dashboardQueryExecutor);
+        CompletableFuture<SalesTotals> sales = CompletableFuture.supplyAsync(salesRollupService::getTotals, dashboardQueryExecutor);
         List<ClaimStatus> pendingStatuses = List.of(ClaimStatus.RAISED, ClaimStatus.IN_REVIEW);
-        long pendingClaims = claimRepository.countByStatusIn(pendingStatuses);
-
-        return DashboardMetricsDto.builder()
-                .totalUsers(totalUsers)
-                .totalSuperagents(totalSuperagents)
-                .totalAgents(totalAgents)
-                .totalPoliciesSold(totalPoliciesSold)
-                .totalPremiumCollected(totalPremium != null ? totalPremium : BigDecimal.ZERO) // Handle null case
-                .totalCommissionsPaidOut(commissionsPaid != null ? commissionsPaid : BigDecimal.ZERO) // Handle null case
-                .pendingClaims(pendingClaims)
-                .build();
+        CompletableFuture<Long> pendingClaims = CompletableFuture.supplyAsync(
+                () -> claimRepository.countByStatusIn(pendingStatuses), dashboardQueryExecutor);
+
+        return CompletableFuture.allOf(totalUsers, totalSuperagents, totalAgents, sales, pendingClaims)
+                .thenApply(done -> DashboardMetricsDto.builder()
+                        .totalUsers(totalUsers.join())
+                        .totalSuperagents(totalSuperagents.join())
+                        .totalAgents(totalAgents.join())
+                        .totalPoliciesSold(sales.join().policyCount())
+                        .totalPremiumCollected(sales.join().premiumAmount())
+                        .totalCommissionsPaidOut(sales.join().commissionAmount())
+                        .pendingClaims(pendingClaims.join())
+                        .build());
+    }
+
+    /**
+     * @param computedAt {@link System#nanoTime()} when the metrics were read.
+     */
+    private record CachedDashboardMetrics(DashboardMetricsDto metrics, long computedAt) {
     }
 
     // --- API Key Management ---
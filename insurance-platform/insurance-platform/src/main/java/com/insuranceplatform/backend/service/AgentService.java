@@ -1,22 +1,24 @@
 package com.insuranceplatform.backend.service;
 
+import com.insuranceplatform.backend.config.RetryOnConflict;
 import com.insuranceplatform.backend.dto.*;
 import com.insuranceplatform.backend.entity.*;
 import com.insuranceplatform.backend.enums.*;
 import com.insuranceplatform.backend.exception.ResourceNotFoundException;
 import com.insuranceplatform.backend.repository.*;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
-import java.net.MalformedURLException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
@@ -36,6 +38,20 @@ public class AgentService {
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository; // Added
     private final AuthService authService;       // Added
+    private final MediaProcessingService mediaProcessingService;
+    private final SalesRollupService salesRollupService;
+    private final WebhookService webhookService;
+    private final CommissionStatementService commissionStatementService;
+
+    // Placeholder stored in required claim document columns until the agent uploads the file.
+    private static final String PENDING_UPLOAD = "PENDING_UPLOAD";
+
+    @Value("${storage.presigned-url.expiry-minutes:15}")
+    private long presignedUrlExpiryMinutes;
+
+    // The default window of wallet history, and the longest one a single request may ask for
+    @Value("${wallet.history-days:365}")
+    private long walletHistoryDays;
 
     // --- Profile Management ---
 
@@ -60,24 +76,31 @@ public class AgentService {
 
     // --- Wallet & Transaction Management ---
     
+    /**
+     * The wallet balance and its transactions in [from, to] (default: the last {@code wallet.history-days} days).
+     */
     @Transactional(readOnly = true)
-    public WalletDto getWalletDetailsForCurrentAgent() {
+    public WalletDto getWalletDetailsForCurrentAgent(LocalDate from, LocalDate to) {
         User currentUser = authService.getCurrentUser();
         Wallet wallet = walletRepository.findByUser(currentUser)
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found for current user."));
-        List<Transaction> transactions = transactionRepository.findByWalletOrderByTimestampDesc(wallet);
-        return new WalletDto(wallet.getBalance(), transactions);
+        return new WalletDto(wallet.getBalance(), findWalletHistory(wallet, from, to));
     }
 
+    /**
+     * The wallet's transactions in [from, to] (default: the last {@code wallet.history-days} days), newest
+     * first. Older history is read by moving the window back.
+     */
     @Transactional(readOnly = true)
-    public List<Transaction> getTransactionsForCurrentAgent() {
+    public List<Transaction> getTransactionsForCurrentAgent(LocalDate from, LocalDate to) {
         User currentUser = authService.getCurrentUser();
         Wallet wallet = walletRepository.findByUser(currentUser)
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found for current user."));
-        return transactionRepository.findByWalletOrderByTimestampDesc(wallet);
+        return findWalletHistory(wallet, from, to);
     }
 
     @Transactional
+    @RetryOnConflict
     public Transaction requestWithdrawal(WithdrawalRequestDto request) {
         Agent agent = getCurrentAgentProfile();
         Wallet agentWallet = walletRepository.findByUser(agent.getUser())
@@ -99,6 +122,16 @@ public class AgentService {
         return transactionRepository.save(transaction);
     }
     
+    @Transactional(readOnly = true)
+    public List<CommissionStatement> getStatementsForCurrentAgent() {
+        return commissionStatementService.getStatements(getCurrentAgentProfile());
+    }
+
+    @Transactional(readOnly = true)
+    public StoredFile getStatementFile(Long statementId, String format) {
+        return commissionStatementService.getStatementFile(getCurrentAgentProfile(), statementId, format);
+    }
+
     // --- Product & Policy Management ---
 
     @Transactional(readOnly = true)
@@ -144,10 +177,12 @@ public class AgentService {
 
         Client client = clientRepository.save(Client.builder().agent(agent).fullName(request.getClientFullName()).build());
         Policy policy = Policy.builder()
-                .agent(agent).client(client).product(product)
+                .agent(agent).client(client).product(product).insuranceCompany(product.getInsuranceCompany())
                 .premiumAmount(premium).taxAmount(tax).totalAmount(total)
                 .status(PolicyStatus.PENDING_PAYMENT).build();
-        return policyRepository.save(policy);
+        Policy savedPolicy = policyRepository.save(policy);
+        salesRollupService.recordQuote(savedPolicy);
+        return savedPolicy;
     }
 
     @Transactional(readOnly = true)
@@ -160,46 +195,133 @@ public class AgentService {
     // --- Document & Certificate Management ---
 
     @Transactional
+    @RetryOnConflict
     public Policy uploadDocument(Long policyId, MultipartFile file, String documentType) {
         // We call getPolicyDetailsForCurrentAgent, which handles getting the current
         // agent and ensuring they own the policy. No need to get the agent again here.
         Policy policy = getPolicyDetailsForCurrentAgent(policyId);
 
         String fileUrl;
+        String replacedUrl;
         if ("LOGBOOK".equalsIgnoreCase(documentType)) {
             fileUrl = fileStorageService.storeFile(file, "documents");
+            replacedUrl = policy.getLogbookFileUrl();
             policy.setLogbookFileUrl(fileUrl);
         } else if ("ID_KRA".equalsIgnoreCase(documentType)) {
             fileUrl = fileStorageService.storeFile(file, "documents");
+            replacedUrl = policy.getClient().getIdFileUrl();
             policy.getClient().setIdFileUrl(fileUrl);
             clientRepository.save(policy.getClient()); // Save the updated client
         } else {
             throw new IllegalArgumentException("Invalid document type specified: " + documentType);
         }
+        releaseOnRollback(fileUrl);
+        releaseReplacedFile(replacedUrl);
 
         return policyRepository.save(policy);
     }
 
-    public Resource generateAndGetCertificate(Long policyId) {
+    @Transactional(readOnly = true)
+    public StoredFile generateAndGetCertificate(Long policyId) {
         Policy policy = getPolicyDetailsForCurrentAgent(policyId);
         String certificatePathString = policy.getCertificateUrl();
 
         if (certificatePathString == null || certificatePathString.isBlank()) {
             throw new ResourceNotFoundException("Certificate not generated or found for this policy.");
         }
-        
-        try {
-            // This path needs to be configured properly in your application.
-            Path filePath = Paths.get("uploads/certificates/").resolve(certificatePathString).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists() && resource.isReadable()) {
-                return resource;
-            } else {
-                throw new ResourceNotFoundException("Certificate file not found or is not readable: " + certificatePathString);
-            }
-        } catch (MalformedURLException e) {
-            throw new ResourceNotFoundException("Error reading certificate file path: " + certificatePathString, e);
+        return fileStorageService.loadFile(certificatePathString);
+    }
+
+    @Transactional(readOnly = true)
+    public StoredFile getPolicyDocument(Long policyId, String documentType) {
+        Policy policy = getPolicyDetailsForCurrentAgent(policyId);
+        return fileStorageService.loadFile(policyDocumentUrl(policy, documentType));
+    }
+
+    // --- Direct-to-Storage Uploads & Downloads ---
+
+    @Transactional(readOnly = true)
+    public PresignedUrlDto createPolicyDocumentUploadUrl(Long policyId, PresignedUploadRequest request) {
+        Policy policy = getPolicyDetailsForCurrentAgent(policyId);
+        validatePolicyDocumentType(request.getDocumentType());
+        return fileStorageService.presignUpload(policyUploadScope(policy), request.getFileName(),
+                request.getContentType(), presignedUrlExpiry());
+    }
+
+    @Transactional
+    @RetryOnConflict
+    public Policy completePolicyDocumentUpload(Long policyId, CompleteUploadRequest request) {
+        Policy policy = getPolicyDetailsForCurrentAgent(policyId);
+        validatePolicyDocumentType(request.getDocumentType());
+        String fileUrl = confirmScopedUpload(policyUploadScope(policy), request.getObjectKey());
+
+        String replacedUrl;
+        if ("LOGBOOK".equalsIgnoreCase(request.getDocumentType())) {
+            replacedUrl = policy.getLogbookFileUrl();
+            policy.setLogbookFileUrl(fileUrl);
+        } else {
+            replacedUrl = policy.getClient().getIdFileUrl();
+            policy.getClient().setIdFileUrl(fileUrl);
+            clientRepository.save(policy.getClient());
+        }
+        // Confirming the same object again adds no reference, so there is nothing to release
+        if (!fileUrl.equals(replacedUrl)) {
+            releaseReplacedFile(replacedUrl);
+        }
+        return policyRepository.save(policy);
+    }
+
+    @Transactional(readOnly = true)
+    public PresignedUrlDto createPolicyDocumentDownloadUrl(Long policyId, String documentType) {
+        Policy policy = getPolicyDetailsForCurrentAgent(policyId);
+        return fileStorageService.presignDownload(policyDocumentUrl(policy, documentType), presignedUrlExpiry());
+    }
+
+    @Transactional(readOnly = true)
+    public PresignedUrlDto createClaimDocumentUploadUrl(Long claimId, PresignedUploadRequest request) {
+        Claim claim = findClaimByIdForCurrentAgent(claimId);
+        parseClaimDocumentType(request.getDocumentType());
+        return fileStorageService.presignUpload(claimUploadScope(claim), request.getFileName(),
+                request.getContentType(), presignedUrlExpiry());
+    }
+
+    @Transactional
+    @RetryOnConflict
+    public Claim completeClaimDocumentUpload(Long claimId, CompleteUploadRequest request) {
+        Claim claim = findClaimByIdForCurrentAgent(claimId);
+        ClaimDocumentType documentType = parseClaimDocumentType(request.getDocumentType());
+        String fileUrl = confirmScopedUpload(claimUploadScope(claim), request.getObjectKey());
+
+        return attachClaimDocument(claim, documentType, fileUrl);
+    }
+
+    /**
+     * Records a stored file on the claim, replacing any PENDING_UPLOAD placeholder,
+     * and queues thumbnail/preview generation for photos and videos.
+     * Callers are responsible for checking that the current agent owns the claim.
+     */
+    @Transactional
+    public Claim attachClaimDocument(Claim claim, ClaimDocumentType documentType, String fileUrl) {
+        String replacedUrl = getClaimDocumentUrl(claim, documentType);
+        setClaimDocumentUrl(claim, documentType, fileUrl);
+        claim.setUpdatedAt(LocalDateTime.now());
+        Claim savedClaim = claimRepository.save(claim);
+        // Photos and videos get review-sized derivatives once this transaction commits.
+        mediaProcessingService.submit(savedClaim.getId(), documentType, fileUrl);
+        if (!PENDING_UPLOAD.equals(replacedUrl)) {
+            releaseReplacedFile(replacedUrl);
         }
+        return savedClaim;
+    }
+
+    @Transactional(readOnly = true)
+    public PresignedUrlDto createClaimDocumentDownloadUrl(Long claimId, String documentType) {
+        Claim claim = findClaimByIdForCurrentAgent(claimId);
+        String fileUrl = getClaimDocumentUrl(claim, parseClaimDocumentType(documentType));
+        if (fileUrl == null || fileUrl.isBlank() || PENDING_UPLOAD.equals(fileUrl)) {
+            throw new ResourceNotFoundException("No " + documentType + " document has been uploaded for this claim.");
+        }
+        return fileStorageService.presignDownload(fileUrl, presignedUrlExpiry());
     }
 
     // --- Claim Management ---
@@ -230,10 +352,12 @@ public class AgentService {
                 .policy(policy)
                 .description(request.getDescription())
                 .status(ClaimStatus.RAISED)
-                .policeAbstractUrl("PENDING_UPLOAD")
-                .drivingLicenseUrl("PENDING_UPLOAD")
-                .logbookUrl("PENDING_UPLOAD").build();
+                .policeAbstractUrl(PENDING_UPLOAD)
+                .drivingLicenseUrl(PENDING_UPLOAD)
+                .logbookUrl(PENDING_UPLOAD).build();
         Claim savedClaim = claimRepository.save(newClaim);
+        salesRollupService.recordClaim(savedClaim);
+        webhookService.publishClaimRaised(savedClaim);
 
         String message = String.format("Agent %s has raised a new claim (ID: %d) for policy %d.",
                 agent.getUser().getFullName(), savedClaim.getId(), policy.getId());
@@ -244,6 +368,106 @@ public class AgentService {
 
     // --- Private Helper Methods ---
 
+    private Duration presignedUrlExpiry() {
+        return Duration.ofMinutes(presignedUrlExpiryMinutes);
+    }
+
+    private List<Transaction> findWalletHistory(Wallet wallet, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(walletHistoryDays);
+        if (start.isAfter(end)) { throw new IllegalArgumentException("'from' must not be after 'to'."); }
+        if (ChronoUnit.DAYS.between(start, end) > walletHistoryDays) {
+            throw new IllegalArgumentException("Wallet history can be listed for at most " + walletHistoryDays + " days at a time.");
+        }
+        return transactionRepository.findByWalletAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDesc(
+                wallet, start.atStartOfDay(), end.plusDays(1).atStartOfDay());
+    }
+
+    // Object keys are issued under a per-policy/per-claim prefix, so a completion call
+    // can only attach files that were uploaded for that same policy or claim.
+    private String policyUploadScope(Policy policy) {
+        return "documents/policy-" + policy.getId();
+    }
+
+    private String claimUploadScope(Claim claim) {
+        return "claims/claim-" + claim.getId();
+    }
+
+    private String confirmScopedUpload(String scope, String objectKey) {
+        if (objectKey.contains("..") || !objectKey.startsWith(scope + "/")) {
+            throw new SecurityException("The uploaded file does not belong to this policy or claim.");
+        }
+        return fileStorageService.confirmUpload(objectKey);
+    }
+
+    private void validatePolicyDocumentType(String documentType) {
+        if (!"LOGBOOK".equalsIgnoreCase(documentType) && !"ID_KRA".equalsIgnoreCase(documentType)) {
+            throw new IllegalArgumentException("Invalid document type specified: " + documentType);
+        }
+    }
+
+    private String policyDocumentUrl(Policy policy, String documentType) {
+        validatePolicyDocumentType(documentType);
+        String fileUrl = "LOGBOOK".equalsIgnoreCase(documentType)
+                ? policy.getLogbookFileUrl()
+                : policy.getClient().getIdFileUrl();
+        if (fileUrl == null || fileUrl.isBlank()) {
+            throw new ResourceNotFoundException("No " + documentType + " document has been uploaded for this policy.");
+        }
+        return fileUrl;
+    }
+
+    private ClaimDocumentType parseClaimDocumentType(String documentType) {
+        try {
+            return ClaimDocumentType.valueOf(documentType.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid document type specified: " + documentType);
+        }
+    }
+
+    // An attempt that rolls back (e.g. one retried after a conflict) must not keep a reference to the file it stored
+    private void releaseOnRollback(String fileUrl) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    fileStorageService.deleteFile(fileUrl);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops this document's reference to the file it replaced. Stored files are shared between
+     * identical uploads, so the file itself is only deleted once nothing else uses it.
+     * Re-uploading the same content returns the same URL with an extra reference, which this also balances.
+     */
+    private void releaseReplacedFile(String replacedUrl) {
+        if (replacedUrl != null && !replacedUrl.isBlank()) {
+            fileStorageService.deleteFile(replacedUrl);
+        }
+    }
+
+    private String getClaimDocumentUrl(Claim claim, ClaimDocumentType documentType) {
+        return switch (documentType) {
+            case POLICE_ABSTRACT -> claim.getPoliceAbstractUrl();
+            case DRIVING_LICENSE -> claim.getDrivingLicenseUrl();
+            case LOGBOOK -> claim.getLogbookUrl();
+            case PHOTO -> claim.getPhotoUrl();
+            case VIDEO -> claim.getVideoUrl();
+        };
+    }
+
+    private void setClaimDocumentUrl(Claim claim, ClaimDocumentType documentType, String fileUrl) {
+        switch (documentType) {
+            case POLICE_ABSTRACT -> claim.setPoliceAbstractUrl(fileUrl);
+            case DRIVING_LICENSE -> claim.setDrivingLicenseUrl(fileUrl);
+            case LOGBOOK -> claim.setLogbookUrl(fileUrl);
+            case PHOTO -> claim.setPhotoUrl(fileUrl);
+            case VIDEO -> claim.setVideoUrl(fileUrl);
+        }
+    }
+
     private BigDecimal calculatePremium(Product product, BigDecimal insuredValue) {
         switch (product.getCalculationType()) {
             case PERCENTAGE_OF_VALUE:
@@ -0,0 +1,365 @@
+package com.insuranceplatform.backend.service;
+
+import com.insuranceplatform.backend.config.OptimisticLockRetryTemplate;
+import com.insuranceplatform.backend.dto.ChunkedUploadStatusDto;
+import com.insuranceplatform.backend.dto.StartChunkedUploadRequest;
+import com.insuranceplatform.backend.entity.Claim;
+import com.insuranceplatform.backend.entity.ClaimUploadSession;
+import com.insuranceplatform.backend.enums.UploadStatus;
+import com.insuranceplatform.backend.exception.ChecksumMismatchException;
+import com.insuranceplatform.backend.exception.ResourceNotFoundException;
+import com.insuranceplatform.backend.exception.UploadOffsetMismatchException;
+import com.insuranceplatform.backend.repository.ClaimRepository;
+import com.insuranceplatform.backend.repository.ClaimUploadSessionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Resumable, chunked uploads of claim evidence for agents on unreliable mobile connections.
+ *
+ * The protocol is:
+ * 1. Start an upload with the file's total size; the server returns an upload ID.
+ * 2. Send chunks in order, each with its starting offset and a SHA-256 of the chunk.
+ *    A chunk with a bad checksum is discarded and must be re-sent.
+ * 3. After a dropped connection, query the upload to get the current offset and continue from there.
+ * When the final chunk arrives, the staged file is streamed into {@link FileStorageService}
+ * and the claim's document URL is set in the same transaction that marks the upload complete.
+ *
+ * Chunks are staged on this node's local disk, so all chunks of one upload must reach the same node
+ * (sticky routing or a shared staging volume when running several nodes).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClaimEvidenceUploadService {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final ClaimUploadSessionRepository uploadSessionRepository;
+    private final ClaimRepository claimRepository;
+    private final AgentService agentService;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticLockRetryTemplate retryTemplate;
+
+    @Value("${storage.chunked-upload.directory:upload-staging}")
+    private String stagingDirectoryPath;
+
+    @Value("${storage.chunked-upload.max-chunk-bytes:8388608}")
+    private int maxChunkSize;
+
+    @Value("${storage.chunked-upload.max-file-bytes:524288000}")
+    private long maxFileSize;
+
+    @Value("${storage.chunked-upload.expiry-hours:24}")
+    private long expiryHours;
+
+    private Path stagingDirectory;
+
+    @PostConstruct
+    void initialize() throws IOException {
+        stagingDirectory = Paths.get(stagingDirectoryPath).toAbsolutePath().normalize();
+        Files.createDirectories(stagingDirectory);
+    }
+
+    @Transactional
+    public ChunkedUploadStatusDto startUpload(Long claimId, StartChunkedUploadRequest request) {
+        Claim claim = agentService.findClaimByIdForCurrentAgent(claimId);
+        if (request.getTotalSize() > maxFileSize) {
+            throw new IllegalArgumentException("File exceeds the maximum upload size of " + maxFileSize + " bytes.");
+        }
+
+        ClaimUploadSession session = uploadSessionRepository.save(ClaimUploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .claim(claim)
+                .documentType(request.getDocumentType())
+                .fileName(request.getFileName())
+                .contentType(request.getContentType() != null ? request.getContentType() : "application/octet-stream")
+                .totalSize(request.getTotalSize())
+                .receivedBytes(0)
+                .status(UploadStatus.IN_PROGRESS)
+                .updatedAt(LocalDateTime.now())
+                .build());
+        try {
+            Files.createFile(stagingFile(session.getId()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create staging file for upload " + session.getId(), e);
+        }
+        return toDto(session);
+    }
+
+    @Transactional(readOnly = true)
+    public ChunkedUploadStatusDto getUploadStatus(Long claimId, String uploadId) {
+        return toDto(getOwnedSession(claimId, uploadId));
+    }
+
+    /**
+     * Appends one chunk to the upload. The offset check, write and offset update all happen
+     * while holding a lock on the staging file, so concurrent or duplicated chunk requests
+     * for the same upload cannot interleave.
+     *
+     * @param offset        The byte offset the chunk starts at; must equal the upload's current offset.
+     * @param checksum      Hex-encoded SHA-256 of the chunk.
+     * @param contentLength The chunk's length in bytes.
+     * @param body          The chunk content.
+     */
+    public ChunkedUploadStatusDto appendChunk(Long claimId, String uploadId, long offset, String checksum,
+                                              long contentLength, InputStream body) {
+        if (getOwnedSession(claimId, uploadId).getStatus() != UploadStatus.IN_PROGRESS) {
+            throw new IllegalStateException("Upload " + uploadId + " is no longer accepting chunks.");
+        }
+        if (checksum == null || checksum.isBlank()) {
+            throw new IllegalArgumentException("A SHA-256 checksum of the chunk is required.");
+        }
+        if (contentLength <= 0 || contentLength > maxChunkSize) {
+            throw new IllegalArgumentException("Chunk length must be between 1 and " + maxChunkSize + " bytes.");
+        }
+
+        Path staging = stagingFile(uploadId);
+        try (FileChannel channel = FileChannel.open(staging, StandardOpenOption.WRITE);
+             FileLock lock = tryLock(channel)) {
+            // Re-read under the lock so we see the offset recorded by any chunk that just finished.
+            ClaimUploadSession session = uploadSessionRepository.findById(uploadId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Upload not found with ID: " + uploadId));
+            if (session.getStatus() != UploadStatus.IN_PROGRESS) {
+                throw new IllegalStateException("Upload " + uploadId + " is " + session.getStatus() + ".");
+            }
+            if (offset != session.getReceivedBytes()) {
+                throw new UploadOffsetMismatchException(
+                        "Chunk offset " + offset + " does not match the upload offset " + session.getReceivedBytes() + ".");
+            }
+            if (offset + contentLength > session.getTotalSize()) {
+                throw new IllegalArgumentException("Chunk extends past the declared file size.");
+            }
+            if (channel.size() < offset) {
+                throw new IllegalStateException("Staged data for upload " + uploadId + " was lost. Please restart the upload.");
+            }
+            // Discard bytes from an earlier chunk whose offset was never recorded (e.g. a crash mid-write).
+            channel.truncate(offset);
+
+            writeVerifiedChunk(channel, offset, contentLength, checksum, body);
+
+            session.setReceivedBytes(offset + contentLength);
+            session.setUpdatedAt(LocalDateTime.now());
+            if (session.getReceivedBytes() == session.getTotalSize()) {
+                return toDto(completeUpload(session, staging));
+            }
+            return toDto(uploadSessionRepository.save(session));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write chunk for upload " + uploadId, e);
+        }
+    }
+
+    @Transactional
+    public void abortUpload(Long claimId, String uploadId) {
+        ClaimUploadSession session = getOwnedSession(claimId, uploadId);
+        if (session.getStatus() == UploadStatus.IN_PROGRESS) {
+            session.setStatus(UploadStatus.ABORTED);
+            session.setUpdatedAt(LocalDateTime.now());
+            uploadSessionRepository.save(session);
+        }
+        deleteStagingFile(uploadId);
+    }
+
+    /**
+     * Aborts uploads with no chunk received within the expiry window and frees their staged data.
+     *
+     * Each upload is expired while holding the same staging file lock as {@link #appendChunk}, so a chunk
+     * is never cut off mid-write; an upload whose lock is held is busy and left alone. The session's
+     * version check makes a chunk that recorded its offset first win over the expiry, and vice versa.
+     */
+    @Scheduled(fixedDelayString = "${storage.chunked-upload.cleanup-interval-ms:3600000}")
+    public void expireAbandonedUploads() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(expiryHours);
+        int expired = 0;
+        for (ClaimUploadSession candidate : uploadSessionRepository.findByStatusAndUpdatedAtBefore(UploadStatus.IN_PROGRESS, cutoff)) {
+            try {
+                if (expireUpload(candidate.getId(), cutoff)) {
+                    expired++;
+                }
+            } catch (UploadOffsetMismatchException | OptimisticLockingFailureException e) {
+                log.debug("Upload {} is in use; leaving it for the next run", candidate.getId());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not expire upload {}", candidate.getId(), e);
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} abandoned claim evidence uploads", expired);
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private ClaimUploadSession completeUpload(ClaimUploadSession session, Path staging) throws IOException {
+        String fileUrl;
+        try (InputStream in = Files.newInputStream(staging)) {
+            fileUrl = fileStorageService.storeFile(in, session.getTotalSize(), session.getContentType(),
+                    session.getFileName(), "claims");
+        }
+
+        // The claim URL and the session status change together, or not at all. Retried when the claim
+        // was changed concurrently (e.g. its status), re-reading both each time.
+        ClaimUploadSession completed;
+        try {
+            completed = retryTemplate.execute("ClaimEvidenceUploadService.completeUpload", () -> transactionTemplate.execute(status -> {
+                ClaimUploadSession current = uploadSessionRepository.findById(session.getId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Upload not found with ID: " + session.getId()));
+                if (current.getStatus() != UploadStatus.IN_PROGRESS) {
+                    throw new IllegalStateException("Upload " + session.getId() + " is " + current.getStatus() + ".");
+                }
+                Claim claim = claimRepository.findById(current.getClaim().getId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Claim not found with ID: " + current.getClaim().getId()));
+                agentService.attachClaimDocument(claim, current.getDocumentType(), fileUrl);
+                current.setReceivedBytes(session.getReceivedBytes());
+                current.setUpdatedAt(session.getUpdatedAt());
+                current.setStatus(UploadStatus.COMPLETED);
+                current.setFileUrl(fileUrl);
+                return uploadSessionRepository.save(current);
+            }));
+        } catch (RuntimeException e) {
+            // Nothing refers to the stored file
+            fileStorageService.deleteFile(fileUrl);
+            throw e;
+        }
+
+        deleteStagingFile(session.getId());
+        log.info("Completed chunked upload {} for claim {} ({})", session.getId(), session.getClaim().getId(), session.getDocumentType());
+        return completed;
+    }
+
+    private boolean expireUpload(String uploadId, LocalDateTime cutoff) throws IOException {
+        Path staging = stagingFile(uploadId);
+        if (!Files.exists(staging)) {
+            return abortIfIdle(uploadId, cutoff);
+        }
+        try (FileChannel channel = FileChannel.open(staging, StandardOpenOption.WRITE);
+             FileLock lock = tryLock(channel)) {
+            if (!abortIfIdle(uploadId, cutoff)) {
+                return false;
+            }
+            // Still under the lock, so no chunk can be writing to the file.
+            deleteStagingFile(uploadId);
+            return true;
+        }
+    }
+
+    // Re-reads the session so a chunk recorded since the candidate query keeps the upload alive.
+    private boolean abortIfIdle(String uploadId, LocalDateTime cutoff) {
+        ClaimUploadSession session = uploadSessionRepository.findById(uploadId).orElse(null);
+        if (session == null || session.getStatus() != UploadStatus.IN_PROGRESS || !session.getUpdatedAt().isBefore(cutoff)) {
+            return false;
+        }
+        session.setStatus(UploadStatus.ABORTED);
+        session.setUpdatedAt(LocalDateTime.now());
+        uploadSessionRepository.save(session);
+        return true;
+    }
+
+    private void writeVerifiedChunk(FileChannel channel, long offset, long contentLength, String checksum, InputStream body) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long written = 0;
+        int read;
+        while (written < contentLength
+                && (read = body.read(buffer, 0, (int) Math.min(buffer.length, contentLength - written))) != -1) {
+            digest.update(buffer, 0, read);
+            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+            while (chunk.hasRemaining()) {
+                written += channel.write(chunk, offset + written);
+            }
+        }
+
+        if (written != contentLength) {
+            channel.truncate(offset);
+            throw new IllegalArgumentException("Chunk ended after " + written + " of " + contentLength + " bytes.");
+        }
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (!actual.equalsIgnoreCase(checksum.trim())) {
+            channel.truncate(offset);
+            throw new ChecksumMismatchException("Chunk checksum mismatch at offset " + offset + ". Please re-send the chunk.");
+        }
+        channel.force(false);
+    }
+
+    private FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return lock;
+            }
+        } catch (OverlappingFileLockException e) {
+            // Another thread in this JVM holds the lock.
+        }
+        throw new UploadOffsetMismatchException("Another chunk is currently being written for this upload.");
+    }
+
+    private ClaimUploadSession getOwnedSession(Long claimId, String uploadId) {
+        // Throws if the current agent does not own the claim.
+        agentService.findClaimByIdForCurrentAgent(claimId);
+        ClaimUploadSession session = uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found with ID: " + uploadId));
+        if (!session.getClaim().getId().equals(claimId)) {
+            throw new ResourceNotFoundException("Upload not found with ID: " + uploadId);
+        }
+        return session;
+    }
+
+    private Path stagingFile(String uploadId) {
+        // Upload IDs are server-generated UUIDs; reject anything else before touching the filesystem.
+        UUID.fromString(uploadId);
+        return stagingDirectory.resolve(uploadId + ".part");
+    }
+
+    private void deleteStagingFile(String uploadId) {
+        try {
+            Files.deleteIfExists(stagingFile(uploadId));
+        } catch (IOException e) {
+            log.warn("Could not delete staging file for upload {}", uploadId, e);
+        }
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private ChunkedUploadStatusDto toDto(ClaimUploadSession session) {
+        return ChunkedUploadStatusDto.builder()
+                .uploadId(session.getId())
+                .claimId(session.getClaim().getId())
+                .documentType(session.getDocumentType())
+                .totalSize(session.getTotalSize())
+                .offset(session.getReceivedBytes())
+                .maxChunkSize(maxChunkSize)
+                .status(session.getStatus())
+                .fileUrl(session.getFileUrl())
+                .build();
+    }
+}
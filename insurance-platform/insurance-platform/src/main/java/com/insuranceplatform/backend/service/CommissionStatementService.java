@@ -0,0 +1,358 @@
+package com.insuranceplatform.backend.service;
+
+import com.insuranceplatform.backend.dto.LedgerEntryRow;
+import com.insuranceplatform.backend.dto.StatementRunResult;
+import com.insuranceplatform.backend.entity.Agent;
+import com.insuranceplatform.backend.entity.CommissionStatement;
+import com.insuranceplatform.backend.entity.User;
+import com.insuranceplatform.backend.entity.Wallet;
+import com.insuranceplatform.backend.enums.StatementStatus;
+import com.insuranceplatform.backend.enums.TransactionType;
+import com.insuranceplatform.backend.exception.ResourceNotFoundException;
+import com.insuranceplatform.backend.repository.AgentRepository;
+import com.insuranceplatform.backend.repository.CommissionStatementRepository;
+import com.insuranceplatform.backend.repository.TransactionRepository;
+import com.insuranceplatform.backend.repository.WalletRepository;
+import com.insuranceplatform.backend.util.StatementPdfWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Generates monthly commission statements: a PDF and a CSV of each agent's wallet ledger for the
+ * month, stored through {@link FileStorageService}, with a notification to the agent.
+ *
+ * A run covers every agent whose wallet moved during the month. Agents are processed in parallel on
+ * the bounded {@code statementExecutor}; each agent's ledger is streamed from the database into
+ * temporary files, so memory does not depend on ledger size.
+ *
+ * Progress is tracked per agent in {@link CommissionStatement}. A worker atomically claims a
+ * statement before generating it, so a run can be restarted (or started on several nodes) and
+ * only agents whose statement is missing or failed are processed again. A claim not completed
+ * within {@code statements.claim-timeout-minutes} is treated as abandoned. Each claim carries a random
+ * worker token, and a statement is only completed or failed by the worker still holding it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CommissionStatementService {
+
+    private static final String STATEMENTS_FOLDER = "statements";
+    private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+    private static final Set<TransactionType> WITHDRAWAL_TYPES = Set.of(
+            TransactionType.WITHDRAWAL_REQUEST, TransactionType.WITHDRAWAL_PROCESSING, TransactionType.WITHDRAWAL_COMPLETED);
+
+    private final CommissionStatementRepository statementRepository;
+    private final TransactionRepository transactionRepository;
+    private final AgentRepository agentRepository;
+    private final WalletRepository walletRepository;
+    private final FileStorageService fileStorageService;
+    private final NotificationService notificationService;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadPoolTaskExecutor statementExecutor;
+    private final ThreadPoolTaskExecutor statementJobExecutor;
+
+    @Value("${statements.claim-timeout-minutes:30}")
+    private long claimTimeoutMinutes;
+
+    /**
+     * Generates last month's statements shortly after each month ends.
+     */
+    @Scheduled(cron = "${statements.monthly.cron:0 0 2 1 * *}")
+    public void generateLastMonth() {
+        try {
+            startMonthlyRun(YearMonth.now().minusMonths(1));
+        } catch (IllegalStateException e) {
+            log.warn("Skipping scheduled statement run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a statement run for the month in the background.
+     *
+     * @throws IllegalStateException if a run is already in progress on this node.
+     */
+    public void startMonthlyRun(YearMonth period) {
+        try {
+            statementJobExecutor.execute(() -> generateMonthlyStatements(period));
+        } catch (TaskRejectedException e) {
+            throw new IllegalStateException("A commission statement run is already in progress.");
+        }
+    }
+
+    /**
+     * Generates the month's statements for every agent with wallet activity, and waits for them.
+     */
+    public StatementRunResult generateMonthlyStatements(YearMonth period) {
+        long started = System.currentTimeMillis();
+        List<Long> agentIds = transactionRepository.findAgentIdsWithActivity(
+                period.atDay(1).atStartOfDay(), period.plusMonths(1).atDay(1).atStartOfDay());
+        log.info("Generating {} commission statements for {}", agentIds.size(), period);
+
+        Map<Outcome, AtomicInteger> outcomes = new EnumMap<>(Outcome.class);
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new AtomicInteger());
+        }
+        List<CompletableFuture<Void>> work = new ArrayList<>(agentIds.size());
+        for (Long agentId : agentIds) {
+            // When the queue is full the submitting thread generates the statement itself (back pressure).
+            work.add(CompletableFuture.runAsync(() -> outcomes.get(generateSafely(agentId, period)).incrementAndGet(), statementExecutor));
+        }
+        CompletableFuture.allOf(work.toArray(CompletableFuture[]::new)).join();
+
+        StatementRunResult result = new StatementRunResult(period, agentIds.size(),
+                outcomes.get(Outcome.GENERATED).get(), outcomes.get(Outcome.SKIPPED).get(), outcomes.get(Outcome.FAILED).get(),
+                System.currentTimeMillis() - started);
+        log.info("Commission statement run finished: {}", result);
+        return result;
+    }
+
+    /**
+     * Generates (or replaces) one agent's statement for the month, e.g. after correcting their ledger.
+     */
+    public CommissionStatement regenerate(Long agentId, YearMonth period) {
+        if (!agentRepository.existsById(agentId)) {
+            throw new ResourceNotFoundException("Agent not found with ID: " + agentId);
+        }
+        LocalDate periodStart = period.atDay(1);
+        statementRepository.insertIfAbsent(agentId, periodStart);
+        statementRepository.resetToPending(agentId, periodStart, StatementStatus.PENDING, StatementStatus.GENERATING);
+        if (generate(agentId, period) == Outcome.SKIPPED) {
+            throw new IllegalStateException("This statement is being generated right now; try again shortly.");
+        }
+        return statementRepository.findByAgent_IdAndPeriodStart(agentId, periodStart).orElseThrow();
+    }
+
+    /**
+     * @return How many of the month's statements are in each status.
+     */
+    @Transactional(readOnly = true)
+    public Map<StatementStatus, Long> getRunStatus(YearMonth period) {
+        Map<StatementStatus, Long> counts = new EnumMap<>(StatementStatus.class);
+        for (Object[] row : statementRepository.countByStatus(period.atDay(1))) {
+            counts.put((StatementStatus) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CommissionStatement> getStatements(Agent agent) {
+        return statementRepository.findByAgentOrderByPeriodStartDesc(agent);
+    }
+
+    /**
+     * Opens the PDF or CSV of one of the agent's generated statements.
+     */
+    @Transactional(readOnly = true)
+    public StoredFile getStatementFile(Agent agent, Long statementId, String format) {
+        CommissionStatement statement = statementRepository.findById(statementId)
+                .orElseThrow(() -> new ResourceNotFoundException("Statement not found with ID: " + statementId));
+        if (!statement.getAgent().getId().equals(agent.getId())) {
+            throw new SecurityException("You are not authorized to view this statement.");
+        }
+        if (statement.getStatus() != StatementStatus.GENERATED) {
+            throw new ResourceNotFoundException("Statement " + statementId + " has not been generated yet.");
+        }
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "pdf" -> fileStorageService.loadFile(statement.getPdfUrl());
+            case "csv" -> fileStorageService.loadFile(statement.getCsvUrl());
+            default -> throw new IllegalArgumentException("Unknown statement format: " + format + ". Use 'pdf' or 'csv'.");
+        };
+    }
+
+    // --- Private Helper Methods ---
+
+    private enum Outcome { GENERATED, SKIPPED, FAILED }
+
+    private record StatementTotals(int transactionCount, BigDecimal commissionTotal, BigDecimal withdrawalTotal) {
+    }
+
+    // One agent's failure (even to reach the database) must not fail the whole run and lose its summary.
+    private Outcome generateSafely(Long agentId, YearMonth period) {
+        try {
+            return generate(agentId, period);
+        } catch (RuntimeException e) {
+            log.error("Failed to generate {} commission statement for agent {}", period, agentId, e);
+            return Outcome.FAILED;
+        }
+    }
+
+    private Outcome generate(Long agentId, YearMonth period) {
+        LocalDate periodStart = period.atDay(1);
+        statementRepository.insertIfAbsent(agentId, periodStart);
+        LocalDateTime now = LocalDateTime.now();
+        String worker = UUID.randomUUID().toString();
+        if (statementRepository.claim(agentId, periodStart, List.of(StatementStatus.PENDING, StatementStatus.FAILED),
+                StatementStatus.GENERATING, now, now.minusMinutes(claimTimeoutMinutes), worker) == 0) {
+            return Outcome.SKIPPED;
+        }
+
+        Path pdf = null;
+        Path csv = null;
+        List<String> storedUrls = new ArrayList<>();
+        try {
+            pdf = Files.createTempFile("statement-", ".pdf");
+            csv = Files.createTempFile("statement-", ".csv");
+            Path pdfFile = pdf;
+            Path csvFile = csv;
+            TransactionTemplate readTransaction = new TransactionTemplate(transactionManager);
+            readTransaction.setReadOnly(true); // PostgreSQL only streams with a cursor inside a transaction
+            StatementTotals totals = readTransaction.execute(status -> writeStatement(agentId, period, pdfFile, csvFile));
+
+            String baseName = String.format("statement-%d-%s", agentId, period);
+            String pdfUrl = store(pdf, "application/pdf", baseName + ".pdf");
+            storedUrls.add(pdfUrl);
+            String csvUrl = store(csv, "text/csv", baseName + ".csv");
+            storedUrls.add(csvUrl);
+
+            List<String> replacedUrls = new TransactionTemplate(transactionManager).execute(status ->
+                    complete(agentId, periodStart, worker, totals, pdfUrl, csvUrl));
+            if (replacedUrls == null) {
+                log.warn("Claim on the {} statement for agent {} timed out and was taken over; discarding this attempt",
+                        period, agentId);
+                storedUrls.forEach(this::deleteQuietly);
+                return Outcome.SKIPPED;
+            }
+            replacedUrls.forEach(this::deleteQuietly);
+            return Outcome.GENERATED;
+        } catch (Exception e) {
+            log.error("Failed to generate {} commission statement for agent {}", period, agentId, e);
+            storedUrls.forEach(this::deleteQuietly);
+            String error = String.valueOf(e.getMessage());
+            statementRepository.markFailed(agentId, periodStart, worker, StatementStatus.GENERATING, StatementStatus.FAILED,
+                    error.length() > 1024 ? error.substring(0, 1024) : error);
+            return Outcome.FAILED;
+        } finally {
+            deleteTempFile(pdf);
+            deleteTempFile(csv);
+        }
+    }
+
+    /**
+     * Streams the agent's ledger for the month into the PDF and CSV files.
+     */
+    private StatementTotals writeStatement(Long agentId, YearMonth period, Path pdf, Path csv) {
+        Agent agent = agentRepository.findById(agentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Agent not found with ID: " + agentId));
+        User user = agent.getUser();
+        Wallet wallet = walletRepository.findByUser(user)
+                .orElseThrow(() -> new IllegalStateException("Wallet not found for agent: " + user.getFullName()));
+
+        int count = 0;
+        BigDecimal commissionTotal = BigDecimal.ZERO;
+        BigDecimal withdrawalTotal = BigDecimal.ZERO;
+        try (Stream<LedgerEntryRow> ledger = transactionRepository.streamLedger(wallet,
+                     period.atDay(1).atStartOfDay(), period.plusMonths(1).atDay(1).atStartOfDay());
+             BufferedWriter csvWriter = Files.newBufferedWriter(csv, StandardCharsets.UTF_8);
+             StatementPdfWriter pdfWriter = new StatementPdfWriter("Commission statement - " + period.format(MONTH_NAME),
+                     List.of("Agent: " + user.getFullName(), "Phone: " + user.getPhone(), "Period: " + period))) {
+            csvWriter.write("transaction_id,timestamp,type,status,amount,policy_id\n");
+            for (LedgerEntryRow row : (Iterable<LedgerEntryRow>) ledger::iterator) {
+                csvWriter.write(String.join(",", String.valueOf(row.transactionId()),
+                        row.timestamp() != null ? row.timestamp().toString() : "",
+                        row.transactionType().name(), row.status().name(), row.amount().toPlainString(),
+                        row.policyId() != null ? String.valueOf(row.policyId()) : ""));
+                csvWriter.write('\n');
+                pdfWriter.addRow(row);
+
+                count++;
+                if (row.transactionType() == TransactionType.COMMISSION_EARNED) {
+                    commissionTotal = commissionTotal.add(row.amount());
+                } else if (WITHDRAWAL_TYPES.contains(row.transactionType())) {
+                    withdrawalTotal = withdrawalTotal.add(row.amount());
+                }
+            }
+
+            try (OutputStream out = Files.newOutputStream(pdf)) {
+                pdfWriter.finish(List.of(
+                        "Transactions: " + count,
+                        "Commission earned: KES " + commissionTotal.toPlainString(),
+                        "Withdrawals: KES " + withdrawalTotal.toPlainString()), out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write statement files", e);
+        }
+        return new StatementTotals(count, commissionTotal, withdrawalTotal);
+    }
+
+    /**
+     * Records the generated statement and notifies the agent, if {@code worker} still holds the claim.
+     *
+     * @return URLs of the files this statement replaces (when regenerating), to delete after commit;
+     *         null if the claim was taken over by another worker and nothing was recorded.
+     */
+    private List<String> complete(Long agentId, LocalDate periodStart, String worker, StatementTotals totals,
+                                  String pdfUrl, String csvUrl) {
+        CommissionStatement statement = statementRepository.findByAgent_IdAndPeriodStart(agentId, periodStart).orElseThrow();
+        List<String> replacedUrls = Stream.of(statement.getPdfUrl(), statement.getCsvUrl())
+                .filter(url -> url != null && !url.isBlank())
+                .toList();
+
+        if (statementRepository.complete(statement.getId(), worker, StatementStatus.GENERATING, StatementStatus.GENERATED,
+                totals.transactionCount(), totals.commissionTotal(), totals.withdrawalTotal(), pdfUrl, csvUrl,
+                LocalDateTime.now()) == 0) {
+            return null;
+        }
+
+        String message = String.format("Your commission statement for %s is ready. Commission earned: KES %.2f.",
+                YearMonth.from(periodStart).format(MONTH_NAME), totals.commissionTotal());
+        notificationService.createNotification(null, statement.getAgent().getUser(), message);
+        return replacedUrls;
+    }
+
+    private String store(Path file, String contentType, String fileName) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return fileStorageService.storeFile(in, Files.size(file), contentType, fileName, STATEMENTS_FOLDER);
+        }
+    }
+
+    private void deleteQuietly(String fileUrl) {
+        try {
+            fileStorageService.deleteFile(fileUrl);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete statement file {}", fileUrl, e);
+        }
+    }
+
+    private void deleteTempFile(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary file {}", file, e);
+        }
+    }
+}
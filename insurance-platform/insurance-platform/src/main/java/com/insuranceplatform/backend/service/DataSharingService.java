@@ -1,33 +1,182 @@
 package com.insuranceplatform.backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.insuranceplatform.backend.dto.PolicyChangeFeedPage;
 import com.insuranceplatform.backend.dto.SharedTransactionDto;
+import com.insuranceplatform.backend.entity.InsuranceCompany;
 import com.insuranceplatform.backend.entity.Policy;
 import com.insuranceplatform.backend.enums.PolicyStatus;
+import com.insuranceplatform.backend.exception.ResourceNotFoundException;
+import com.insuranceplatform.backend.repository.InsuranceCompanyRepository;
 import com.insuranceplatform.backend.repository.PolicyRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 @RequiredArgsConstructor
 public class DataSharingService {
 
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
     private final PolicyRepository policyRepository;
+    private final InsuranceCompanyRepository insuranceCompanyRepository;
+    private final PolicyDocumentService policyDocumentService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${data-sharing.feed.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${data-sharing.feed.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${data-sharing.snapshot.flush-every-rows:1000}")
+    private int flushEveryRows;
+
+    /**
+     * Returns all of the calling insurer's paid policies in ID order, for the original list endpoint.
+     *
+     * @param companyName The insurer authenticated by API key.
+     */
+    @Transactional(readOnly = true)
+    public List<SharedTransactionDto> getPaidPolicyTransactions(String companyName) {
+        try (Stream<SharedTransactionDto> policies = policyRepository.streamSnapshot(findCompany(companyName), PolicyStatus.PAID)) {
+            return policies.toList();
+        }
+    }
+
+    /**
+     * Returns the calling insurer's paid policies changed since the position encoded in {@code since}, oldest change
+     * first. Insurers poll with the returned token and so only ever read new or updated policies;
+     * a policy updated again reappears later in the feed and should be upserted by its ID.
+     *
+     * The feed is ordered by the ID of the transaction that last wrote each policy, and only changes
+     * from transactions below the oldest one still running are returned. Those transactions have all
+     * finished, so a change can never become visible behind a token already handed out, however long
+     * its transaction ran. A long-running transaction holds the feed back until it ends. On a read
+     * replica the same holds for the transactions the replica has replayed.
+     *
+     * @param companyName The insurer authenticated by API key.
+     * @param since Token from a previous page or snapshot, or null to start from the first policy.
+     * @param limit Page size, capped at data-sharing.feed.max-page-size.
+     */
+    @Transactional(readOnly = true)
+    public PolicyChangeFeedPage getPolicyChanges(String companyName, String since, Integer limit) {
+        InsuranceCompany company = findCompany(companyName);
+        int pageSize = Math.min(limit != null && limit > 0 ? limit : defaultPageSize, maxPageSize);
+        FeedPosition after = since != null && !since.isBlank() ? decodeToken(since) : new FeedPosition(0, 0);
+
+        // One extra row tells whether another page is ready
+        List<SharedTransactionDto> rows = policyRepository.findChangesAfter(company, PolicyStatus.PAID, after.txid(),
+                after.policyId(), policyRepository.findChangeFeedHorizon(), PageRequest.of(0, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<SharedTransactionDto> items = hasMore ? rows.subList(0, pageSize) : rows;
+        if (items.isEmpty()) {
+            return new PolicyChangeFeedPage(items, since, false);
+        }
+        SharedTransactionDto last = items.get(items.size() - 1);
+        return new PolicyChangeFeedPage(items, encodeToken(new FeedPosition(last.getChangeTxid(), last.getPolicyId())), hasMore);
+    }
+
+    /**
+     * Writes all of the insurer's paid policies as newline-delimited JSON, one change feed row per
+     * line, for the initial backfill of an integration. The filter on the insurer is part of the
+     * query and rows are written as they come off a server-side cursor, so memory use stays flat
+     * however large the book is.
+     *
+     * The last line is {@code {"nextToken":"..."}}, the {@code since} token to poll the change feed
+     * with afterwards: the position of the oldest transaction still running when the snapshot began.
+     * It is read in the same transaction, and so on the same node, as the rows. A token from another
+     * node could be ahead of a lagging replica's rows, and the changes in between would never be sent.
+     * Changes that are in both the snapshot and the feed are delivered again, which upserting by ID absorbs.
+     *
+     * Resolve the insurer (see {@link #findCompany}) before the response is committed.
+     *
+     * @param out The response stream. The caller owns and closes it.
+     * @param gzip Whether to gzip the output.
+     */
+    @Transactional(readOnly = true) // Required for database streaming (PostgreSQL only uses a cursor inside a transaction)
+    public void writePolicySnapshot(InsuranceCompany company, OutputStream out, boolean gzip) throws IOException {
+        // syncFlush makes flush() push compressed data out too, so gzip downloads still arrive progressively.
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, WRITE_BUFFER_SIZE, true) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzipOut != null ? gzipOut : out,
+                StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        ObjectWriter rowWriter = objectMapper.writerFor(SharedTransactionDto.class);
+
+        // Before the snapshot query, so every change below it is visible to that query
+        String nextToken = encodeToken(new FeedPosition(policyRepository.findChangeFeedHorizon(), 0));
+        long rows = 0;
+        try (Stream<SharedTransactionDto> snapshot = policyRepository.streamSnapshot(company, PolicyStatus.PAID)) {
+            Iterator<SharedTransactionDto> iterator = snapshot.iterator();
+            while (iterator.hasNext()) {
+                writer.write(rowWriter.writeValueAsString(iterator.next()));
+                writer.write("\n");
+                if (++rows % flushEveryRows == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.write(objectMapper.writeValueAsString(Map.of("nextToken", nextToken)));
+        writer.write("\n");
+        writer.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+    }
+
+    public InsuranceCompany findCompany(String companyName) {
+        return insuranceCompanyRepository.findByName(companyName)
+                .orElseThrow(() -> new ResourceNotFoundException("Insurance company not found: " + companyName));
+    }
+
+    /**
+     * Resolves every document of a policy and its claim for a streamed ZIP download by the
+     * insurer that underwrites the policy's product.
+     *
+     * @param companyName The insurer authenticated by API key.
+     */
+    @Transactional(readOnly = true)
+    public List<DocumentBundleEntry> openPolicyDocumentBundle(Long policyId, String companyName) {
+        Policy policy = policyRepository.findById(policyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Policy not found with ID: " + policyId));
+        if (policy.getProduct().getInsuranceCompany() == null
+                || !policy.getProduct().getInsuranceCompany().getName().equals(companyName)) {
+            throw new SecurityException("You are not authorized to view documents for this policy.");
+        }
+        return policyDocumentService.openBundle(policy);
+    }
+
+    // --- Private Helper Methods ---
+
+    private record FeedPosition(long txid, long policyId) {}
+
+    private String encodeToken(FeedPosition position) {
+        String value = position.txid() + "," + position.policyId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
 
-    public List<SharedTransactionDto> getPaidPolicyTransactions() {
-        List<Policy> paidPolicies = policyRepository.findAll(); // In a real app, you'd filter this further
-        return paidPolicies.stream()
-                .filter(policy -> policy.getStatus() == PolicyStatus.PAID)
-                .map(policy -> new SharedTransactionDto(
-                        policy.getId(),
-                        policy.getProduct().getName(),
-                        policy.getTotalAmount(),
-                        policy.getPaidAt(),
-                        policy.getAgent().getUser().getFullName(),
-                        policy.getAgent().getSuperagent().getUser().getFullName()
-                ))
-                .collect(Collectors.toList());
+    private FeedPosition decodeToken(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(",");
+            return new FeedPosition(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid change feed token.");
+        }
     }
-}
\ No newline at end of file
+}
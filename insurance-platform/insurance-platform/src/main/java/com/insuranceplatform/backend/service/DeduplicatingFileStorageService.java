@@ -0,0 +1,203 @@
+package com.insuranceplatform.backend.service;
+
+import com.insuranceplatform.backend.dto.PresignedUrlDto;
+import com.insuranceplatform.backend.entity.FileBlob;
+import com.insuranceplatform.backend.repository.FileBlobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed storage on top of the configured backend.
+ *
+ * Every upload is hashed with SHA-256 as it streams. Identical content is stored once and shared:
+ * a repeat upload just adds a reference to the existing {@link FileBlob} and returns its URL.
+ * {@link #deleteFile} drops a reference, and the stored object is only removed once nothing
+ * points at it any more.
+ *
+ * Multipart uploads are already spooled by the servlet container, so they are hashed first and a
+ * duplicate never reaches the backend. Plain streams can only be read once; they are hashed while
+ * uploading and a duplicate copy is deleted straight afterwards.
+ *
+ * Index updates run in their own short transactions so they never roll back the caller's
+ * transaction. If the caller then rolls back, a reference is leaked, which only means the object
+ * is kept longer than necessary, never deleted while in use.
+ *
+ * Assembled by {@link com.insuranceplatform.backend.config.FileStorageConfig}.
+ */
+@Slf4j
+public class DeduplicatingFileStorageService implements FileStorageService {
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final FileStorageService backend;
+    private final FileBlobRepository fileBlobRepository;
+    private final TransactionTemplate indexTransaction;
+
+    public DeduplicatingFileStorageService(FileStorageService backend,
+                                           FileBlobRepository fileBlobRepository,
+                                           PlatformTransactionManager transactionManager) {
+        this.backend = backend;
+        this.fileBlobRepository = fileBlobRepository;
+        this.indexTransaction = new TransactionTemplate(transactionManager);
+        this.indexTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public String storeFile(MultipartFile file, String bucketName) {
+        if (file.isEmpty()) {
+            return backend.storeFile(file, bucketName);
+        }
+        String contentHash;
+        try (InputStream in = file.getInputStream()) {
+            contentHash = hash(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read uploaded file", e);
+        }
+
+        String existingUrl = addReference(contentHash);
+        if (existingUrl != null) {
+            log.info("Upload '{}' matches stored content {}; reusing {}", file.getOriginalFilename(), contentHash, existingUrl);
+            return existingUrl;
+        }
+        String fileUrl = backend.storeFile(file, bucketName);
+        return register(contentHash, fileUrl, file.getContentType(), file.getSize());
+    }
+
+    @Override
+    public String storeFile(InputStream content, long size, String contentType, String originalFilename, String bucketName) {
+        MessageDigest digest = newDigest();
+        String fileUrl = backend.storeFile(new DigestInputStream(content, digest), size, contentType, originalFilename, bucketName);
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+
+        String existingUrl = addReference(contentHash);
+        if (existingUrl != null) {
+            log.info("Upload '{}' matches stored content {}; dropping new copy {}", originalFilename, contentHash, fileUrl);
+            backend.deleteFile(fileUrl);
+            return existingUrl;
+        }
+        return register(contentHash, fileUrl, contentType, size);
+    }
+
+    @Override
+    public StoredFile loadFile(String fileUrl) {
+        return backend.loadFile(fileUrl);
+    }
+
+    /**
+     * Releases one reference to the file. Inside a transaction this waits until commit, so a
+     * rollback never leaves an entity pointing at a deleted object. Files stored before
+     * deduplication was introduced are not tracked and are left in place.
+     */
+    @Override
+    public void deleteFile(String fileUrl) {
+        if (fileUrl == null || fileUrl.isBlank()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(fileUrl);
+                }
+            });
+        } else {
+            release(fileUrl);
+        }
+    }
+
+    @Override
+    public PresignedUrlDto presignUpload(String bucketName, String originalFilename, String contentType, Duration expiry) {
+        return backend.presignUpload(bucketName, originalFilename, contentType, expiry);
+    }
+
+    @Override
+    public PresignedUrlDto presignDownload(String fileUrl, Duration expiry) {
+        return backend.presignDownload(fileUrl, expiry);
+    }
+
+    @Override
+    public String confirmUpload(String objectKey) {
+        // Direct uploads bypass this server, so there is nothing to hash; they are stored as-is.
+        return backend.confirmUpload(objectKey);
+    }
+
+    // --- Private Helper Methods ---
+
+    /**
+     * @return the URL of existing content with this hash (now referenced once more), or null if there is none.
+     */
+    private String addReference(String contentHash) {
+        return indexTransaction.execute(status -> fileBlobRepository.incrementReferenceCount(contentHash) == 1
+                ? fileBlobRepository.findByContentHash(contentHash).map(FileBlob::getFileUrl).orElse(null)
+                : null);
+    }
+
+    private String register(String contentHash, String fileUrl, String contentType, long size) {
+        try {
+            indexTransaction.executeWithoutResult(status -> fileBlobRepository.save(FileBlob.builder()
+                    .contentHash(contentHash)
+                    .fileUrl(fileUrl)
+                    .contentType(contentType)
+                    .size(size)
+                    .referenceCount(1)
+                    .build()));
+            return fileUrl;
+        } catch (DataIntegrityViolationException e) {
+            // The same content was stored concurrently and registered first; share that copy instead.
+            String existingUrl = addReference(contentHash);
+            if (existingUrl == null) {
+                throw new IllegalStateException("Could not register stored file " + fileUrl, e);
+            }
+            backend.deleteFile(fileUrl);
+            return existingUrl;
+        }
+    }
+
+    private void release(String fileUrl) {
+        try {
+            boolean unreferenced = Boolean.TRUE.equals(indexTransaction.execute(status ->
+                    fileBlobRepository.decrementReferenceCount(fileUrl) == 1
+                            && fileBlobRepository.deleteIfUnreferenced(fileUrl) == 1));
+            if (unreferenced) {
+                backend.deleteFile(fileUrl);
+                log.info("Deleted unreferenced file {}", fileUrl);
+            }
+        } catch (RuntimeException e) {
+            // The caller has already moved on to the new file; an orphaned object only costs space.
+            log.warn("Failed to release stored file {}", fileUrl, e);
+        }
+    }
+
+    private String hash(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.insuranceplatform.backend.service;
+
+/**
+ * One file in a streamed document bundle.
+ *
+ * @param name The file name inside the archive.
+ * @param file The stored file, already resolved so a missing file fails before anything is streamed.
+ */
+public record DocumentBundleEntry(String name, StoredFile file) {
+}
@@ -0,0 +1,469 @@
+package com.insuranceplatform.backend.service;
+
+import com.insuranceplatform.backend.dto.PresignedUrlDto;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Encrypts files with AES-256-GCM on their way into the wrapped storage backend and decrypts them
+ * on the way out, streaming one segment at a time so memory use does not depend on file size.
+ *
+ * Stored layout:
+ * <pre>
+ *   header:   "IPE1" | segment size (int) | nonce prefix (7) | key IV (12) | wrapped data key (48)
+ *   segments: AES-GCM(segment plaintext) + 16-byte tag, one per segment of plaintext
+ * </pre>
+ * Every object gets a fresh random data key, which is itself encrypted ("wrapped") with the master
+ * key, so rotating the master key only means re-wrapping headers. Each segment's nonce is the
+ * object's nonce prefix, the segment index and a last-segment flag, so segments cannot be
+ * reordered, dropped or truncated without failing authentication.
+ *
+ * Because segments are fixed-size, a byte range can be served by fetching and decrypting only the
+ * segments that cover it. Objects stored before encryption was enabled have no header and are
+ * passed through unchanged.
+ */
+public class EncryptingFileStorageService implements FileStorageService {
+
+    private static final byte[] MAGIC = "IPE1".getBytes(StandardCharsets.US_ASCII);
+    private static final String KEY_ALGORITHM = "AES";
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int DATA_KEY_LENGTH = 32;
+    private static final int NONCE_PREFIX_LENGTH = 7;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 16;
+    private static final int WRAPPED_KEY_LENGTH = DATA_KEY_LENGTH + TAG_LENGTH;
+    // Magic, segment size and nonce prefix are authenticated along with the wrapped key.
+    private static final int AUTHENTICATED_HEADER_LENGTH = MAGIC.length + Integer.BYTES + NONCE_PREFIX_LENGTH;
+    static final int HEADER_LENGTH = AUTHENTICATED_HEADER_LENGTH + IV_LENGTH + WRAPPED_KEY_LENGTH;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final FileStorageService backend;
+    private final SecretKey masterKey;
+    private final int segmentSize;
+
+    public EncryptingFileStorageService(FileStorageService backend, byte[] masterKey, int segmentSize) {
+        if (masterKey.length != DATA_KEY_LENGTH) {
+            throw new IllegalArgumentException("The storage master key must be 32 bytes (AES-256).");
+        }
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("The encryption segment size must be at least 4096 bytes.");
+        }
+        this.backend = backend;
+        this.masterKey = new SecretKeySpec(masterKey, KEY_ALGORITHM);
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public String storeFile(MultipartFile file, String bucketName) {
+        if (file.isEmpty()) {
+            throw new IllegalStateException("Cannot upload empty file.");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return storeFile(in, file.getSize(), file.getContentType(), file.getOriginalFilename(), bucketName);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read uploaded file", e);
+        }
+    }
+
+    @Override
+    public String storeFile(InputStream content, long size, String contentType, String originalFilename, String bucketName) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Encrypted uploads need the exact content length.");
+        }
+        EncryptingInputStream encrypted = new EncryptingInputStream(content, size);
+        // The original content type and file extension are kept so downloads are still served correctly.
+        return backend.storeFile(encrypted, encryptedLength(size, segmentSize), contentType, originalFilename, bucketName);
+    }
+
+    @Override
+    public StoredFile loadFile(String fileUrl) {
+        StoredFile stored = backend.loadFile(fileUrl);
+        if (stored.getContentLength() < HEADER_LENGTH + TAG_LENGTH) {
+            return stored;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        try {
+            stored.transferTo(0, HEADER_LENGTH, new ByteBufferChannel(header));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read header of " + fileUrl, e);
+        }
+        byte[] headerBytes = header.array();
+        if (header.position() < HEADER_LENGTH || !Arrays.equals(headerBytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            // Stored before encryption was turned on.
+            return stored;
+        }
+        int objectSegmentSize = ByteBuffer.wrap(headerBytes, MAGIC.length, Integer.BYTES).getInt();
+        byte[] noncePrefix = Arrays.copyOfRange(headerBytes, MAGIC.length + Integer.BYTES, AUTHENTICATED_HEADER_LENGTH);
+        SecretKey dataKey = unwrapDataKey(headerBytes, fileUrl);
+        return new EncryptedStoredFile(stored, dataKey, noncePrefix, objectSegmentSize);
+    }
+
+    @Override
+    public void deleteFile(String fileUrl) {
+        backend.deleteFile(fileUrl);
+    }
+
+    // Direct transfers would put plaintext into storage or hand clients ciphertext, so they are refused.
+
+    @Override
+    public PresignedUrlDto presignUpload(String bucketName, String originalFilename, String contentType, Duration expiry) {
+        throw new UnsupportedOperationException("Direct uploads are disabled while storage encryption is enabled.");
+    }
+
+    @Override
+    public PresignedUrlDto presignDownload(String fileUrl, Duration expiry) {
+        throw new UnsupportedOperationException("Direct downloads are disabled while storage encryption is enabled.");
+    }
+
+    @Override
+    public String confirmUpload(String objectKey) {
+        throw new UnsupportedOperationException("Direct uploads are disabled while storage encryption is enabled.");
+    }
+
+    // --- Format Helpers ---
+
+    static long segmentCount(long plaintextLength, int segmentSize) {
+        // An empty file still has one (empty) final segment, so truncation to zero is detected.
+        return plaintextLength == 0 ? 1 : (plaintextLength + segmentSize - 1) / segmentSize;
+    }
+
+    static long encryptedLength(long plaintextLength, int segmentSize) {
+        return HEADER_LENGTH + plaintextLength + segmentCount(plaintextLength, segmentSize) * TAG_LENGTH;
+    }
+
+    static long plaintextLength(long encryptedLength, int segmentSize) {
+        long body = encryptedLength - HEADER_LENGTH;
+        long segments = (body + segmentSize + TAG_LENGTH - 1) / (segmentSize + TAG_LENGTH);
+        return body - segments * TAG_LENGTH;
+    }
+
+    private static byte[] segmentNonce(byte[] noncePrefix, long segmentIndex, boolean lastSegment) {
+        if (segmentIndex > Integer.MAX_VALUE) {
+            throw new IllegalStateException("File has too many encryption segments.");
+        }
+        return ByteBuffer.allocate(IV_LENGTH)
+                .put(noncePrefix)
+                .putInt((int) segmentIndex)
+                .put((byte) (lastSegment ? 1 : 0))
+                .array();
+    }
+
+    private byte[] newHeader(SecretKey dataKey, byte[] noncePrefix) {
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH)
+                    .put(MAGIC)
+                    .putInt(segmentSize)
+                    .put(noncePrefix);
+            byte[] iv = randomBytes(IV_LENGTH);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_LENGTH * 8, iv));
+            cipher.updateAAD(header.array(), 0, AUTHENTICATED_HEADER_LENGTH);
+            header.put(iv).put(cipher.doFinal(dataKey.getEncoded()));
+            return header.array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to wrap data key", e);
+        }
+    }
+
+    private SecretKey unwrapDataKey(byte[] header, String fileUrl) {
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, masterKey,
+                    new GCMParameterSpec(TAG_LENGTH * 8, header, AUTHENTICATED_HEADER_LENGTH, IV_LENGTH));
+            cipher.updateAAD(header, 0, AUTHENTICATED_HEADER_LENGTH);
+            byte[] key = cipher.doFinal(header, AUTHENTICATED_HEADER_LENGTH + IV_LENGTH, WRAPPED_KEY_LENGTH);
+            return new SecretKeySpec(key, KEY_ALGORITHM);
+        } catch (AEADBadTagException e) {
+            throw new SecurityException("Stored file was encrypted with a different master key or is corrupt: " + fileUrl);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to unwrap data key for " + fileUrl, e);
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static SecretKey newDataKey() {
+        return new SecretKeySpec(randomBytes(DATA_KEY_LENGTH), KEY_ALGORITHM);
+    }
+
+    /**
+     * Produces the header followed by the encrypted segments, reading one segment of plaintext at a time.
+     */
+    private final class EncryptingInputStream extends InputStream {
+
+        private final InputStream plaintext;
+        private final long totalSegments;
+        private final SecretKey dataKey = newDataKey();
+        private final byte[] noncePrefix = randomBytes(NONCE_PREFIX_LENGTH);
+        private final Cipher cipher;
+        private final byte[] plainBuffer = new byte[segmentSize];
+        private byte[] buffer;
+        private int position;
+        private int limit;
+        private long remaining;
+        private long segmentIndex;
+
+        private EncryptingInputStream(InputStream plaintext, long size) {
+            this.plaintext = plaintext;
+            this.remaining = size;
+            this.totalSegments = segmentCount(size, segmentSize);
+            try {
+                this.cipher = Cipher.getInstance(CIPHER);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES-GCM is not available", e);
+            }
+            this.buffer = newHeader(dataKey, noncePrefix);
+            this.limit = buffer.length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (position == limit && !encryptNextSegment()) {
+                return -1;
+            }
+            int count = Math.min(length, limit - position);
+            System.arraycopy(buffer, position, target, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return limit - position;
+        }
+
+        private boolean encryptNextSegment() throws IOException {
+            if (segmentIndex == totalSegments) {
+                return false;
+            }
+            int length = (int) Math.min(segmentSize, remaining);
+            int read = plaintext.readNBytes(plainBuffer, 0, length);
+            if (read < length) {
+                throw new IOException("Content ended after " + read + " of " + length + " expected bytes");
+            }
+            remaining -= length;
+            boolean last = segmentIndex == totalSegments - 1;
+            if (buffer.length < segmentSize + TAG_LENGTH) {
+                buffer = new byte[segmentSize + TAG_LENGTH];
+            }
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, dataKey,
+                        new GCMParameterSpec(TAG_LENGTH * 8, segmentNonce(noncePrefix, segmentIndex, last)));
+                limit = cipher.doFinal(plainBuffer, 0, length, buffer, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Failed to encrypt segment " + segmentIndex, e);
+            }
+            position = 0;
+            segmentIndex++;
+            return true;
+        }
+    }
+
+    /**
+     * Plaintext view of an encrypted object. Reads fetch only the segments covering the requested
+     * range and decrypt them through a single segment-sized buffer.
+     */
+    private static final class EncryptedStoredFile implements StoredFile {
+
+        private final StoredFile stored;
+        private final SecretKey dataKey;
+        private final byte[] noncePrefix;
+        private final int segmentSize;
+        private final long contentLength;
+        private final long totalSegments;
+
+        private EncryptedStoredFile(StoredFile stored, SecretKey dataKey, byte[] noncePrefix, int segmentSize) {
+            this.stored = stored;
+            this.dataKey = dataKey;
+            this.noncePrefix = noncePrefix;
+            this.segmentSize = segmentSize;
+            this.contentLength = plaintextLength(stored.getContentLength(), segmentSize);
+            this.totalSegments = segmentCount(contentLength, segmentSize);
+        }
+
+        @Override
+        public String getKey() {
+            return stored.getKey();
+        }
+
+        @Override
+        public long getContentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public String getContentType() {
+            return stored.getContentType();
+        }
+
+        @Override
+        public String getETag() {
+            return stored.getETag();
+        }
+
+        @Override
+        public Instant getLastModified() {
+            return stored.getLastModified();
+        }
+
+        // getLocalPath() stays null: the file on disk is ciphertext and must not be handed to sendfile.
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            long end = Math.min(position + count, contentLength);
+            if (count <= 0 || position >= end) {
+                return 0;
+            }
+            long firstSegment = position / segmentSize;
+            long lastSegment = (end - 1) / segmentSize;
+            long encryptedSegmentSize = (long) segmentSize + TAG_LENGTH;
+            long from = HEADER_LENGTH + firstSegment * encryptedSegmentSize;
+            long to = Math.min(HEADER_LENGTH + (lastSegment + 1) * encryptedSegmentSize, stored.getContentLength());
+
+            DecryptingChannel decrypting = new DecryptingChannel(firstSegment, position, end, target);
+            stored.transferTo(from, to - from, decrypting);
+            decrypting.finish();
+            return decrypting.written;
+        }
+
+        private final class DecryptingChannel implements WritableByteChannel {
+
+            private final ByteBuffer segment = ByteBuffer.allocate(segmentSize + TAG_LENGTH);
+            private final byte[] plain = new byte[segmentSize];
+            private final Cipher cipher;
+            private final long rangeStart;
+            private final long rangeEnd;
+            private final WritableByteChannel target;
+            private long segmentIndex;
+            private long written;
+
+            private DecryptingChannel(long firstSegment, long rangeStart, long rangeEnd, WritableByteChannel target) {
+                this.segmentIndex = firstSegment;
+                this.rangeStart = rangeStart;
+                this.rangeEnd = rangeEnd;
+                this.target = target;
+                try {
+                    this.cipher = Cipher.getInstance(CIPHER);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("AES-GCM is not available", e);
+                }
+            }
+
+            @Override
+            public int write(ByteBuffer source) throws IOException {
+                int accepted = source.remaining();
+                while (source.hasRemaining()) {
+                    int count = Math.min(source.remaining(), segment.remaining());
+                    ByteBuffer slice = source.slice();
+                    slice.limit(count);
+                    segment.put(slice);
+                    source.position(source.position() + count);
+                    if (!segment.hasRemaining()) {
+                        decryptSegment();
+                    }
+                }
+                return accepted;
+            }
+
+            /** Decrypts the final, possibly short, segment. */
+            private void finish() throws IOException {
+                if (segment.position() > 0) {
+                    decryptSegment();
+                }
+            }
+
+            private void decryptSegment() throws IOException {
+                boolean last = segmentIndex == totalSegments - 1;
+                int length;
+                try {
+                    cipher.init(Cipher.DECRYPT_MODE, dataKey,
+                            new GCMParameterSpec(TAG_LENGTH * 8, segmentNonce(noncePrefix, segmentIndex, last)));
+                    length = cipher.doFinal(segment.array(), 0, segment.position(), plain, 0);
+                } catch (AEADBadTagException e) {
+                    throw new IOException("Segment " + segmentIndex + " of " + getKey() + " failed authentication");
+                } catch (GeneralSecurityException e) {
+                    throw new IOException("Failed to decrypt segment " + segmentIndex + " of " + getKey(), e);
+                }
+
+                long segmentStart = segmentIndex * segmentSize;
+                int from = (int) Math.max(0, rangeStart - segmentStart);
+                int to = (int) Math.min(length, rangeEnd - segmentStart);
+                ByteBuffer output = ByteBuffer.wrap(plain, from, Math.max(0, to - from));
+                while (output.hasRemaining()) {
+                    written += target.write(output);
+                }
+                segment.clear();
+                segmentIndex++;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return target.isOpen();
+            }
+
+            @Override
+            public void close() {
+                // The caller owns the target channel.
+            }
+        }
+    }
+
+    /** Collects a small, fixed amount of data (the header) into a buffer. */
+    private static final class ByteBufferChannel implements WritableByteChannel {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            int count = Math.min(source.remaining(), buffer.remaining());
+            ByteBuffer slice = source.slice();
+            slice.limit(count);
+            buffer.put(slice);
+            source.position(source.position() + count);
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
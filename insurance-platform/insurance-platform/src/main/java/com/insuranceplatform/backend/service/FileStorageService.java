@@ -1,8 +1,21 @@
 package com.insuranceplatform.backend.service;
 
+import com.insuranceplatform.backend.dto.PresignedUrlDto;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.time.Duration;
+
 public interface FileStorageService {
+
+    /**
+     * Qualifier of the concrete backend (S3, local disk or mock) selected by {@code storage.type}.
+     * Everything else should inject the unqualified, primary {@link FileStorageService},
+     * which layers encryption and deduplication on top of the backend
+     * (see {@link com.insuranceplatform.backend.config.FileStorageConfig}).
+     */
+    String BACKEND = "storageBackend";
+
     /**
      * Stores a file in a specified bucket/folder.
      *
@@ -11,4 +24,63 @@ public interface FileStorageService {
      * @return The public URL or path to the stored file.
      */
     String storeFile(MultipartFile file, String bucketName);
-}
\ No newline at end of file
+
+    /**
+     * Stores content read from a stream, without buffering it in memory.
+     *
+     * @param content The content to store. The caller owns and closes the stream.
+     * @param size The exact number of bytes in the stream.
+     * @param contentType The MIME type of the content.
+     * @param originalFilename The client's file name, used to keep the extension.
+     * @param bucketName The logical bucket or folder name (e.g., "documents", "claims").
+     * @return The public URL or path to the stored file.
+     */
+    String storeFile(InputStream content, long size, String contentType, String originalFilename, String bucketName);
+
+    /**
+     * Resolves a previously stored file for download.
+     *
+     * @param fileUrl The URL or path returned by {@link #storeFile}.
+     * @return A handle that can stream the file's content.
+     * @throws com.insuranceplatform.backend.exception.ResourceNotFoundException if the file does not exist.
+     */
+    StoredFile loadFile(String fileUrl);
+
+    /**
+     * Removes a stored file. Missing files are ignored.
+     *
+     * @param fileUrl The URL or path returned by {@link #storeFile}.
+     */
+    default void deleteFile(String fileUrl) {
+        throw new UnsupportedOperationException("Deleting files is not supported by this storage backend.");
+    }
+
+    /**
+     * Issues a short-lived URL the client can PUT a file to directly.
+     *
+     * @param bucketName The logical bucket or folder the object key is created under.
+     * @param originalFilename The client's file name, used to keep the extension.
+     * @param contentType The Content-Type the client must send with the upload.
+     * @param expiry How long the URL stays valid.
+     */
+    default PresignedUrlDto presignUpload(String bucketName, String originalFilename, String contentType, Duration expiry) {
+        throw new UnsupportedOperationException("Direct uploads are not supported by this storage backend.");
+    }
+
+    /**
+     * Issues a short-lived URL the client can GET a stored file from directly.
+     */
+    default PresignedUrlDto presignDownload(String fileUrl, Duration expiry) {
+        throw new UnsupportedOperationException("Direct downloads are not supported by this storage backend.");
+    }
+
+    /**
+     * Checks that a direct upload actually landed in storage.
+     *
+     * @param objectKey The key issued by {@link #presignUpload}.
+     * @return The URL or path to record on the owning entity, in the same form {@link #storeFile} returns.
+     */
+    default String confirmUpload(String objectKey) {
+        throw new UnsupportedOperationException("Direct uploads are not supported by this storage backend.");
+    }
+}
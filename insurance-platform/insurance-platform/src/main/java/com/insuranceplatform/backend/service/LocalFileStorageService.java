@@ -0,0 +1,244 @@
+package com.insuranceplatform.backend.service;
+
+import com.insuranceplatform.backend.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Stores files on the local filesystem for on-prem deployments without S3.
+ * Enabled with {@code storage.type=local}.
+ *
+ * Files are spread over two levels of hash-sharded directories
+ * (e.g. {@code documents/3f/a2/<uuid>.pdf}) so no single directory grows unbounded.
+ * Uploads are written to a temp file under the same root and atomically renamed into place,
+ * so a reader never sees a partially written file.
+ */
+@Service
+@Qualifier(FileStorageService.BACKEND)
+@ConditionalOnProperty(name = "storage.type", havingValue = "local")
+@Slf4j
+public class LocalFileStorageService implements FileStorageService {
+
+    private static final String TEMP_DIRECTORY = ".tmp";
+
+    @Value("${storage.local.root:uploads}")
+    private String rootDirectory;
+
+    private Path root;
+    private Path tempDirectory;
+
+    @PostConstruct
+    void initialize() throws IOException {
+        root = Paths.get(rootDirectory).toAbsolutePath().normalize();
+        tempDirectory = root.resolve(TEMP_DIRECTORY);
+        Files.createDirectories(tempDirectory);
+        log.info("Local file storage initialized at {}", root);
+    }
+
+    @Override
+    public String storeFile(MultipartFile file, String bucketName) {
+        if (file.isEmpty()) {
+            throw new IllegalStateException("Cannot upload empty file.");
+        }
+        // For disk-backed multipart parts the servlet container can simply rename its own temp file.
+        return writeAtomically(bucketName, file.getOriginalFilename(), tempFile -> file.transferTo(tempFile.toFile()));
+    }
+
+    @Override
+    public String storeFile(InputStream content, long size, String contentType, String originalFilename, String bucketName) {
+        return writeAtomically(bucketName, originalFilename,
+                tempFile -> Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING));
+    }
+
+    @Override
+    public StoredFile loadFile(String fileUrl) {
+        if (fileUrl == null || fileUrl.isBlank()) {
+            throw new ResourceNotFoundException("No file path was provided.");
+        }
+        Path path = resolveKey(fileUrl);
+        if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+            throw new ResourceNotFoundException("File not found or is not readable: " + fileUrl);
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            String contentType = Files.probeContentType(path);
+            return new LocalStoredFile(root.relativize(path).toString().replace('\\', '/'), path, attributes,
+                    contentType != null ? contentType : "application/octet-stream");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read file attributes for " + fileUrl, e);
+        }
+    }
+
+    @Override
+    public void deleteFile(String fileUrl) {
+        try {
+            if (Files.deleteIfExists(resolveKey(fileUrl))) {
+                log.info("Deleted file {}", fileUrl);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete file " + fileUrl, e);
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private String writeAtomically(String bucketName, String originalFilename, TempFileWriter writer) {
+        String objectName = UUID.randomUUID() + extensionOf(originalFilename);
+        String key = bucketName + "/" + shardFor(objectName) + "/" + objectName;
+        Path target = resolveKey(key);
+
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(tempDirectory, "upload-", ".part");
+            writer.write(tempFile);
+            Files.createDirectories(target.getParent());
+            moveIntoPlace(tempFile, target);
+            log.info("Stored file '{}' as {}", originalFilename, key);
+            return key;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store file to local storage", e);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Resolves a storage key against the root, rejecting anything that would escape it.
+     * Leading slashes are ignored so legacy paths such as "/certificates/cert_1.pdf" still resolve.
+     */
+    private Path resolveKey(String key) {
+        String relative = key.replace('\\', '/').replaceFirst("^/+", "");
+        Path path = root.resolve(relative).normalize();
+        if (!path.startsWith(root) || path.startsWith(tempDirectory)) {
+            throw new SecurityException("Invalid file path: " + key);
+        }
+        return path;
+    }
+
+    private String shardFor(String objectName) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectName.getBytes(StandardCharsets.UTF_8));
+            HexFormat hex = HexFormat.of();
+            return hex.toHexDigits(hash[0]) + "/" + hex.toHexDigits(hash[1]);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String extensionOf(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        // Keep the extension for content-type detection, but never let it carry path characters.
+        return extension.matches("\\.[A-Za-z0-9]{1,10}") ? extension.toLowerCase() : "";
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}", path, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TempFileWriter {
+        void write(Path tempFile) throws IOException;
+    }
+
+    private static final class LocalStoredFile implements StoredFile {
+
+        private final String key;
+        private final Path path;
+        private final BasicFileAttributes attributes;
+        private final String contentType;
+
+        private LocalStoredFile(String key, Path path, BasicFileAttributes attributes, String contentType) {
+            this.key = key;
+            this.path = path;
+            this.attributes = attributes;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public long getContentLength() {
+            return attributes.size();
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public String getETag() {
+            return String.format("\"%x-%x\"", attributes.lastModifiedTime().toMillis(), attributes.size());
+        }
+
+        @Override
+        public Instant getLastModified() {
+            return attributes.lastModifiedTime().toInstant();
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long written = 0;
+                while (written < count) {
+                    long transferred = channel.transferTo(position + written, count - written, target);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    written += transferred;
+                }
+                return written;
+            }
+        }
+
+        @Override
+        public Path getLocalPath() {
+            return path;
+        }
+    }
+}
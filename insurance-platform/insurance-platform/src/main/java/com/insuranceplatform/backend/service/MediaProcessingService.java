@@ -0,0 +1,311 @@
+package com.insuranceplatform.backend.service;
+
+import com.insuranceplatform.backend.entity.PendingMediaJob;
+import com.insuranceplatform.backend.enums.ClaimDocumentType;
+import com.insuranceplatform.backend.repository.ClaimRepository;
+import com.insuranceplatform.backend.repository.PendingMediaJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates small derivatives of claim photos and videos in the background, so review screens
+ * can load a thumbnail or a size-capped preview instead of the full-resolution original.
+ *
+ * Photos are decoded with subsampling (memory stays proportional to the output, not the camera
+ * resolution) and re-encoded as JPEG, which drops EXIF and other embedded metadata.
+ * Videos need an ffmpeg binary ({@code media.ffmpeg.path}); without one they are left as-is.
+ *
+ * Work runs on the bounded {@code mediaProcessingExecutor}. If its queue is full the job is saved as a
+ * {@link PendingMediaJob} and a periodic sweep puts it back on the queue once there is room.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaProcessingService {
+
+    private static final String DERIVATIVES_FOLDER = "claims/derivatives";
+
+    private final FileStorageService fileStorageService;
+    private final ClaimRepository claimRepository;
+    private final ThreadPoolTaskExecutor mediaProcessingExecutor;
+    private final PendingMediaJobRepository pendingMediaJobRepository;
+
+    @Value("${media.thumbnail.max-dimension:320}")
+    private int thumbnailMaxDimension;
+
+    @Value("${media.preview.max-dimension:1280}")
+    private int previewMaxDimension;
+
+    @Value("${media.jpeg.quality:0.8}")
+    private float jpegQuality;
+
+    @Value("${media.ffmpeg.path:}")
+    private String ffmpegPath;
+
+    @Value("${media.ffmpeg.timeout-seconds:300}")
+    private long ffmpegTimeoutSeconds;
+
+    @Value("${media.processing.retry-batch-size:50}")
+    private int retryBatchSize;
+
+    /**
+     * Queues derivative generation for a newly attached claim photo or video.
+     * When called inside a transaction, the job is only queued after the transaction commits,
+     * so workers never see a claim URL that was rolled back.
+     */
+    public void submit(Long claimId, ClaimDocumentType documentType, String sourceUrl) {
+        if (documentType != ClaimDocumentType.PHOTO && documentType != ClaimDocumentType.VIDEO) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueueOrSave(claimId, documentType, sourceUrl);
+                }
+            });
+        } else {
+            enqueueOrSave(claimId, documentType, sourceUrl);
+        }
+    }
+
+    /**
+     * Puts jobs the queue rejected back on it, oldest first, stopping as soon as the queue is full again.
+     * Each job is deleted before it is queued, so a job is queued by one node only.
+     */
+    @Scheduled(fixedDelayString = "${media.processing.retry-interval-ms:60000}")
+    public void retryRejectedJobs() {
+        int requeued = 0;
+        for (PendingMediaJob pending : pendingMediaJobRepository.findAllByOrderByIdAsc(PageRequest.of(0, retryBatchSize))) {
+            if (mediaProcessingExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0) {
+                break;
+            }
+            if (pendingMediaJobRepository.claim(pending.getId()) == 0) {
+                continue;
+            }
+            if (!enqueue(pending.getClaimId(), pending.getDocumentType(), pending.getSourceUrl())) {
+                // The queue filled up since the check above
+                pendingMediaJobRepository.save(PendingMediaJob.builder()
+                        .claimId(pending.getClaimId())
+                        .documentType(pending.getDocumentType())
+                        .sourceUrl(pending.getSourceUrl())
+                        .createdAt(pending.getCreatedAt())
+                        .build());
+                break;
+            }
+            requeued++;
+        }
+        if (requeued > 0) {
+            log.info("Requeued {} media processing jobs that had been rejected", requeued);
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private void enqueueOrSave(Long claimId, ClaimDocumentType documentType, String sourceUrl) {
+        if (enqueue(claimId, documentType, sourceUrl)) {
+            return;
+        }
+        try {
+            pendingMediaJobRepository.save(PendingMediaJob.builder()
+                    .claimId(claimId)
+                    .documentType(documentType)
+                    .sourceUrl(sourceUrl)
+                    .build());
+            log.warn("Media processing queue is full; {} derivatives for claim {} will be retried", documentType, claimId);
+        } catch (RuntimeException e) {
+            log.error("Media processing queue is full and {} derivatives for claim {} could not be saved for retry",
+                    documentType, claimId, e);
+        }
+    }
+
+    private boolean enqueue(Long claimId, ClaimDocumentType documentType, String sourceUrl) {
+        try {
+            mediaProcessingExecutor.execute(() -> process(claimId, documentType, sourceUrl));
+            return true;
+        } catch (TaskRejectedException e) {
+            return false;
+        }
+    }
+
+    private void process(Long claimId, ClaimDocumentType documentType, String sourceUrl) {
+        Path original = null;
+        List<Path> outputs = new ArrayList<>();
+        try {
+            original = downloadToTempFile(sourceUrl);
+            String thumbnailUrl;
+            String previewUrl;
+            if (documentType == ClaimDocumentType.PHOTO) {
+                thumbnailUrl = storeJpeg(renderImage(original, thumbnailMaxDimension), "thumbnail.jpg");
+                previewUrl = storeJpeg(renderImage(original, previewMaxDimension), "preview.jpg");
+                if (claimRepository.updatePhotoDerivatives(claimId, sourceUrl, thumbnailUrl, previewUrl) == 0) {
+                    log.info("Photo for claim {} changed while processing; discarding derivatives", claimId);
+                    return;
+                }
+            } else {
+                if (ffmpegPath.isBlank()) {
+                    log.debug("No ffmpeg configured; skipping video derivatives for claim {}", claimId);
+                    return;
+                }
+                Path poster = Files.createTempFile("claim-video-", ".jpg");
+                Path preview = Files.createTempFile("claim-video-", ".mp4");
+                outputs.add(poster);
+                outputs.add(preview);
+                runFfmpeg(List.of("-ss", "1", "-i", original.toString(), "-frames:v", "1",
+                        "-vf", "scale='min(" + thumbnailMaxDimension + ",iw)':-2", "-map_metadata", "-1", poster.toString()));
+                runFfmpeg(List.of("-i", original.toString(),
+                        "-vf", "scale=-2:'min(720,ih)'", "-c:v", "libx264", "-preset", "veryfast", "-crf", "28",
+                        "-c:a", "aac", "-b:a", "96k", "-movflags", "+faststart", "-map_metadata", "-1", preview.toString()));
+                thumbnailUrl = storeTempFile(poster, "image/jpeg", "thumbnail.jpg");
+                previewUrl = storeTempFile(preview, "video/mp4", "preview.mp4");
+                if (claimRepository.updateVideoDerivatives(claimId, sourceUrl, thumbnailUrl, previewUrl) == 0) {
+                    log.info("Video for claim {} changed while processing; discarding derivatives", claimId);
+                    return;
+                }
+            }
+            log.info("Generated {} derivatives for claim {}", documentType, claimId);
+        } catch (Exception e) {
+            log.error("Failed to generate {} derivatives for claim {}", documentType, claimId, e);
+        } finally {
+            deleteQuietly(original);
+            outputs.forEach(this::deleteQuietly);
+        }
+    }
+
+    private Path downloadToTempFile(String sourceUrl) throws IOException {
+        StoredFile source = fileStorageService.loadFile(sourceUrl);
+        Path temp = Files.createTempFile("claim-media-", ".src");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            source.transferTo(0, source.getContentLength(), out);
+        }
+        return temp;
+    }
+
+    /**
+     * Decodes the image at roughly the target size by skipping source pixels, then scales it down
+     * smoothly to fit within {@code maxDimension}.
+     */
+    private BufferedImage renderImage(Path original, int maxDimension) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true); // ignore metadata entirely
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int subsampling = Math.max(1, Math.max(width, height) / (maxDimension * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return scaleToFit(reader.read(0, param), maxDimension);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scaleToFit(BufferedImage image, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        // Always redraw into an RGB image so alpha channels and odd colour models encode cleanly as JPEG.
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private String storeJpeg(BufferedImage image, String fileName) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param); // no metadata is written
+        } finally {
+            writer.dispose();
+        }
+        // Derivatives are capped in size, so holding one in memory is fine.
+        return fileStorageService.storeFile(new ByteArrayInputStream(bytes.toByteArray()), bytes.size(),
+                "image/jpeg", fileName, DERIVATIVES_FOLDER);
+    }
+
+    private String storeTempFile(Path file, String contentType, String fileName) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return fileStorageService.storeFile(in, Files.size(file), contentType, fileName, DERIVATIVES_FOLDER);
+        }
+    }
+
+    private void runFfmpeg(List<String> arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ffmpegPath);
+        command.add("-y");
+        command.add("-loglevel");
+        command.add("error");
+        command.addAll(arguments);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (!process.waitFor(ffmpegTimeoutSeconds, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IOException("ffmpeg timed out after " + ffmpegTimeoutSeconds + " seconds");
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException("ffmpeg exited with status " + process.exitValue());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}", path, e);
+        }
+    }
+}
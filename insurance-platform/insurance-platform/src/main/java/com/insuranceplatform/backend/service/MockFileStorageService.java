@@ -1,12 +1,18 @@
 package com.insuranceplatform.backend.service;
 
+import com.insuranceplatform.backend.exception.ResourceNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.UUID;
 
 @Service
+@Qualifier(FileStorageService.BACKEND)
+@ConditionalOnProperty(name = "storage.type", havingValue = "mock")
 @Slf4j
 public class MockFileStorageService implements FileStorageService {
 
@@ -22,4 +28,26 @@ public class MockFileStorageService implements FileStorageService {
 
         return fakeUrl;
     }
-}
\ No newline at end of file
+
+    @Override
+    public String storeFile(InputStream content, long size, String contentType, String originalFilename, String bucketName) {
+        String fileName = UUID.randomUUID().toString() + "_" + originalFilename;
+        String fakeUrl = String.format("/uploads/%s/%s", bucketName, fileName);
+
+        log.info("MOCK UPLOAD: Storing {} streamed bytes of '{}' to bucket '{}'. Returning fake URL: {}",
+                size, originalFilename, bucketName, fakeUrl);
+
+        return fakeUrl;
+    }
+
+    @Override
+    public StoredFile loadFile(String fileUrl) {
+        // The mock never keeps file contents, so there is nothing to serve.
+        throw new ResourceNotFoundException("MOCK STORAGE: file contents are not retained: " + fileUrl);
+    }
+
+    @Override
+    public void deleteFile(String fileUrl) {
+        log.info("MOCK DELETE: {}", fileUrl);
+    }
+}
@@ -1,5 +1,6 @@
 package com.insuranceplatform.backend.service;
 
+import com.insuranceplatform.backend.config.RetryOnConflict;
 import com.insuranceplatform.backend.dto.B2CResultCallback;
 import com.insuranceplatform.backend.dto.MpesaCallbackRequest;
 import com.insuranceplatform.backend.dto.PaybillDetailsDto;
@@ -32,6 +33,8 @@ public class MpesaService {
     private final NotificationService notificationService;
     private final PdfGeneratorUtil pdfGeneratorUtil;
     private final CertificateStockRepository certificateStockRepository;
+    private final SalesRollupService salesRollupService;
+    private final WebhookService webhookService;
 
     // ===================================================================================
     // == C2B (CUSTOMER-TO-BUSINESS) FLOW: Receiving payments for policies
@@ -88,12 +91,19 @@ public class MpesaService {
      * This method contains all the core business logic for a successful sale.
      */
     @Transactional
+    @RetryOnConflict
     public void processMpesaCallback(MpesaCallbackRequest callback) {
         log.info("Processing M-Pesa C2B callback for policyId: {}", callback.getPolicyId());
 
         Policy policy = policyRepository.findById(callback.getPolicyId())
                 .orElseThrow(() -> new ResourceNotFoundException("Policy not found with ID: " + callback.getPolicyId()));
 
+        // A repeated callback, or a retry after a concurrent callback for the same policy committed first
+        if (policy.getPaidAt() != null) {
+            log.warn("Ignoring M-Pesa C2B callback for policy {}: it is already paid.", policy.getId());
+            return;
+        }
+
         if (callback.getResultCode() != 0) {
             handleFailedPayment(policy, callback.getResultDesc());
             return;
@@ -103,14 +113,22 @@ public class MpesaService {
         updatePolicyOnPayment(policy);
         
         // 2. Handle Commission & Transaction Logging
-        handleCommission(policy);
+        BigDecimal commissionAmount = handleCommission(policy);
+        salesRollupService.recordPayment(policy, commissionAmount);
         
-        // 3. Deduct Stock & Generate Certificate
-        String certificateUrl = handleCertificate(policy);
+        // 3. Deduct Stock
+        deductCertificateStock(policy);
+        // The version checks of the policy, wallet and stock happen at this flush, and the rows stay locked
+        // until commit: a conflict that retries this method can no longer happen once the certificate exists.
+        policyRepository.flush();
+
+        // 4. Generate Certificate
+        String certificateUrl = issueCertificate(policy);
         policy.setCertificateUrl(certificateUrl);
-        policyRepository.save(policy);
+        policyRepository.saveAndFlush(policy); // Flush so updatedAt matches the change feed position
+        webhookService.publishPolicyPaid(policy);
 
-        // 4. Send Notifications
+        // 5. Send Notifications
         sendPaymentNotifications(policy);
 
         log.info("Successfully processed payment for policy {}.", policy.getId());
@@ -142,6 +160,7 @@ public class MpesaService {
      * Processes the callback from Safaricom after a B2C payout.
      */
     @Transactional
+    @RetryOnConflict
     public void processB2CResultCallback(B2CResultCallback callback) {
         String conversationId = callback.Result().originatorConversationID();
         log.info("Processing M-Pesa B2C callback for ConversationID: {}", conversationId);
@@ -154,6 +173,12 @@ public class MpesaService {
             return;
         }
 
+        // Already settled: applying the result again would debit or refund twice
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
+            log.warn("Ignoring B2C callback for transaction {}: it is already {}.", transaction.getId(), transaction.getStatus());
+            return;
+        }
+
         if (callback.Result().resultCode() == 0) {
             handleSuccessfulPayout(transaction, callback);
         } else {
@@ -181,7 +206,7 @@ public class MpesaService {
         policyRepository.save(policy);
     }
 
-    private void handleCommission(Policy policy) {
+    private BigDecimal handleCommission(Policy policy) {
         Agent agent = policy.getAgent();
         BigDecimal commissionAmount = policy.getPremiumAmount().multiply(BigDecimal.valueOf(0.10)); // 10% commission
         Wallet agentWallet = walletRepository.findByUser(agent.getUser())
@@ -197,9 +222,10 @@ public class MpesaService {
                 .transactionType(TransactionType.COMMISSION_EARNED)
                 .status(TransactionStatus.COMPLETED)
                 .build());
+        return commissionAmount;
     }
 
-    private String handleCertificate(Policy policy) {
+    private void deductCertificateStock(Policy policy) {
         Product product = policy.getProduct();
         Superagent superagent = policy.getAgent().getSuperagent();
         CertificateStock stock = certificateStockRepository
@@ -211,7 +237,9 @@ public class MpesaService {
         }
         stock.setQuantity(stock.getQuantity() - 1);
         certificateStockRepository.save(stock);
+    }
 
+    private String issueCertificate(Policy policy) {
         String certificateUrl = pdfGeneratorUtil.generatePolicyCertificate(policy);
         certificateRepository.save(Certificate.builder().policy(policy).fileUrl(certificateUrl).build());
         return certificateUrl;
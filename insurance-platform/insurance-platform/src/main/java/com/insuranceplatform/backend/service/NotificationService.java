@@ -4,8 +4,11 @@ import com.insuranceplatform.backend.entity.Notification;
 import com.insuranceplatform.backend.entity.User;
 import com.insuranceplatform.backend.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
@@ -14,6 +17,10 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
 
+    // The default window, and the longest one a single request may ask for
+    @Value("${notifications.list-days:90}")
+    private long listDays;
+
     public void createNotification(User sender, User receiver, String message) {
         Notification notification = Notification.builder()
                 .sender(sender)
@@ -23,7 +30,18 @@ public class NotificationService {
         notificationRepository.save(notification);
     }
 
-    public List<Notification> getNotificationsForUser(User user) {
-        return notificationRepository.findByReceiverOrderByCreatedAtDesc(user);
+    /**
+     * The user's notifications created in [from, to] (default: the last {@code notifications.list-days}
+     * days), newest first. Older notifications are read by moving the window back.
+     */
+    public List<Notification> getNotificationsForUser(User user, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(listDays);
+        if (start.isAfter(end)) { throw new IllegalArgumentException("'from' must not be after 'to'."); }
+        if (ChronoUnit.DAYS.between(start, end) > listDays) {
+            throw new IllegalArgumentException("Notifications can be listed for at most " + listDays + " days at a time.");
+        }
+        return notificationRepository.findByReceiverAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtDesc(
+                user, start.atStartOfDay(), end.plusDays(1).atStartOfDay());
     }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.insuranceplatform.backend.service;
+
+import com.insuranceplatform.backend.exception.ResourceNotFoundException;
+import com.insuranceplatform.backend.util.parquet.ParquetColumn;
+import com.insuranceplatform.backend.util.parquet.ParquetStreamWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Exports transactions, policies and claims as typed Parquet files for analytics tools.
+ *
+ * Amounts are decimals, dates are timestamps and statuses/types are dictionary-encoded strings.
+ * Rows are read in date order from a flat projection query and written straight to the output,
+ * with one row group per calendar month, so engines can skip whole months using the row group
+ * statistics and memory use is bounded by a single month.
+ */
+@Service
+@RequiredArgsConstructor
+public class ParquetExportService {
+
+    // Bounds used when an export has no date range; both fit PostgreSQL's timestamp type.
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private static final Map<String, Dataset> DATASETS = Map.of(
+            "transactions", new Dataset(
+                    List.of(
+                            ParquetColumn.int64("transaction_id"),
+                            ParquetColumn.int64("policy_id").nullable(),
+                            ParquetColumn.int64("agent_id"),
+                            ParquetColumn.string("agent_name").nullable(),
+                            ParquetColumn.decimal("amount", 12, 2),
+                            ParquetColumn.enumeration("transaction_type"),
+                            ParquetColumn.enumeration("status"),
+                            ParquetColumn.timestamp("timestamp").nullable()),
+                    "SELECT t.id, t.policy.id, u.id, u.fullName, t.amount, t.transactionType, t.status, t.timestamp " +
+                    "FROM Transaction t JOIN t.wallet w JOIN w.user u " +
+                    "WHERE t.timestamp >= :from AND t.timestamp < :to ORDER BY t.timestamp, t.id",
+                    7),
+            "policies", new Dataset(
+                    List.of(
+                            ParquetColumn.int64("policy_id"),
+                            ParquetColumn.int64("client_id"),
+                            ParquetColumn.int64("agent_id"),
+                            ParquetColumn.int64("superagent_id").nullable(),
+                            ParquetColumn.int64("product_id"),
+                            ParquetColumn.string("product_name").nullable(),
+                            ParquetColumn.string("insurance_company").nullable(),
+                            ParquetColumn.decimal("premium_amount", 12, 2),
+                            ParquetColumn.decimal("tax_amount", 12, 2),
+                            ParquetColumn.decimal("total_amount", 12, 2),
+                            ParquetColumn.enumeration("status"),
+                            ParquetColumn.timestamp("created_at").nullable(),
+                            ParquetColumn.timestamp("paid_at").nullable(),
+                            ParquetColumn.timestamp("start_date").nullable(),
+                            ParquetColumn.timestamp("expiry_date").nullable()),
+                    "SELECT p.id, p.client.id, a.id, a.superagent.id, pr.id, pr.name, ic.name, " +
+                    "p.premiumAmount, p.taxAmount, p.totalAmount, p.status, p.createdAt, p.paidAt, p.startDate, p.expiryDate " +
+                    "FROM Policy p JOIN p.agent a JOIN p.product pr LEFT JOIN pr.insuranceCompany ic " +
+                    "WHERE p.createdAt >= :from AND p.createdAt < :to ORDER BY p.createdAt, p.id",
+                    11),
+            "claims", new Dataset(
+                    List.of(
+                            ParquetColumn.int64("claim_id"),
+                            ParquetColumn.int64("policy_id"),
+                            ParquetColumn.enumeration("status"),
+                            ParquetColumn.timestamp("created_at").nullable(),
+                            ParquetColumn.timestamp("updated_at").nullable()),
+                    "SELECT c.id, c.policy.id, c.status, c.createdAt, c.updatedAt " +
+                    "FROM Claim c WHERE c.createdAt >= :from AND c.createdAt < :to ORDER BY c.createdAt, c.id",
+                    3));
+
+    private final EntityManager entityManager;
+
+    @Value("${reporting.parquet.fetch-size:1000}")
+    private int fetchSize;
+
+    // Caps memory if a single month is unusually large; that month is then split over several row groups.
+    @Value("${reporting.parquet.max-rows-per-group:1000000}")
+    private long maxRowsPerGroup;
+
+    /**
+     * Writes one dataset as a Parquet file.
+     *
+     * @param dataset "transactions", "policies" or "claims".
+     * @param out The response stream. The caller owns and closes it.
+     * @param from First day to include, or null for no lower bound.
+     * @param to Last day to include, or null for no upper bound.
+     */
+    @Transactional(readOnly = true) // Required for database streaming (PostgreSQL only uses a cursor inside a transaction)
+    public void writeParquet(String dataset, OutputStream out, LocalDate from, LocalDate to) throws IOException {
+        Dataset definition = getDataset(dataset);
+        ParquetStreamWriter writer = new ParquetStreamWriter(out, definition.columns(), ParquetStreamWriter.Codec.GZIP, maxRowsPerGroup);
+
+        try (Stream<Object[]> rows = entityManager.createQuery(definition.query(), Object[].class)
+                .setParameter("from", from != null ? from.atStartOfDay() : EARLIEST)
+                .setParameter("to", to != null ? to.plusDays(1).atStartOfDay() : LATEST)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            YearMonth currentMonth = null;
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                LocalDateTime partitionValue = (LocalDateTime) row[definition.monthColumn()];
+                YearMonth month = partitionValue != null ? YearMonth.from(partitionValue) : null;
+                if (!Objects.equals(month, currentMonth)) {
+                    writer.endRowGroup();
+                    currentMonth = month;
+                }
+                writer.write(row);
+            }
+        }
+        writer.close();
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the dataset name is unknown.
+     */
+    public void checkDataset(String dataset) {
+        getDataset(dataset);
+    }
+
+    private Dataset getDataset(String dataset) {
+        Dataset definition = DATASETS.get(dataset);
+        if (definition == null) {
+            throw new ResourceNotFoundException("Unknown export: " + dataset + ". Available: " + DATASETS.keySet());
+        }
+        return definition;
+    }
+
+    /**
+     * A Parquet schema and the query that produces its rows, in column order.
+     *
+     * @param monthColumn Index of the timestamp column rows are ordered and grouped by.
+     */
+    private record Dataset(List<ParquetColumn> columns, String query, int monthColumn) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.insuranceplatform.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code transactions} and {@code notifications} (see migration V3)
+ * in shape: partitions for the coming months are created ahead of the writes that need them, and
+ * partitions whose newest rows are past retention are detached and moved to the archive schema.
+ * Archived partitions are ordinary tables, no longer part of the queries, indexes or vacuum work
+ * of the live table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionMaintenanceService {
+
+    // Held for the duration of a run, so only one node changes partitions at a time
+    private static final long ADVISORY_LOCK_KEY = 0x70617274L;
+    // e.g. FOR VALUES FROM ('2026-11-01 00:00:00') TO ('2026-12-01 00:00:00'), or FROM (MINVALUE) for the legacy partition
+    private static final Pattern BOUNDS = Pattern.compile("FROM \\((?:'([^']+)'|MINVALUE)\\) TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_p'yyyy_MM");
+    private static final String PARTITIONS_QUERY =
+            "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), i.inhdetachpending " +
+            "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = ?::regclass ORDER BY c.relname";
+
+    private record PartitionedTable(String name, int retentionMonths) {}
+
+    private record Partition(String name, LocalDateTime lowerBound, LocalDateTime upperBound, boolean detachPending) {
+
+        boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            return lowerBound.isBefore(to) && upperBound.isAfter(from);
+        }
+    }
+
+    private final DataSource dataSource;
+
+    @Value("${partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${partitions.transactions.retention-months:84}")
+    private int transactionRetentionMonths;
+
+    @Value("${partitions.notifications.retention-months:12}")
+    private int notificationRetentionMonths;
+
+    @Value("${partitions.archive.schema:archive}")
+    private String archiveSchema;
+
+    @Value("${partitions.archive.tablespace:}")
+    private String archiveTablespace;
+
+    /**
+     * Runs once at startup and then daily. Safe to run on every node.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${partitions.maintenance.cron:0 15 1 * * *}")
+    public void maintainPartitions() {
+        List<PartitionedTable> tables = List.of(
+                new PartitionedTable("transactions", transactionRetentionMonths),
+                new PartitionedTable("notifications", notificationRetentionMonths));
+        // Autocommit: DETACH ... CONCURRENTLY cannot run inside a transaction block
+        try (Connection connection = dataSource.getConnection()) {
+            if (!tryLock(connection)) {
+                log.info("Partition maintenance is already running on another node.");
+                return;
+            }
+            try {
+                for (PartitionedTable table : tables) {
+                    createAhead(connection, table);
+                    archiveExpired(connection, table);
+                }
+            } finally {
+                execute(connection, "SELECT pg_advisory_unlock(" + ADVISORY_LOCK_KEY + ")");
+            }
+        } catch (SQLException e) {
+            log.error("Partition maintenance failed", e);
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private void createAhead(Connection connection, PartitionedTable table) throws SQLException {
+        List<Partition> existing = findPartitions(connection, table.name());
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate monthStart = thisMonth.plusMonths(i);
+            LocalDateTime from = monthStart.atStartOfDay();
+            LocalDateTime to = from.plusMonths(1);
+            // Months already covered (e.g. by the legacy partition) are skipped rather than overlapped
+            if (existing.stream().anyMatch(partition -> partition.overlaps(from, to))) {
+                continue;
+            }
+            String partition = table.name() + monthStart.format(PARTITION_SUFFIX);
+            execute(connection, String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partition, table.name(), monthStart, monthStart.plusMonths(1)));
+            log.info("Created partition {}.", partition);
+        }
+    }
+
+    private void archiveExpired(Connection connection, PartitionedTable table) throws SQLException {
+        if (table.retentionMonths() <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(table.retentionMonths()).atStartOfDay();
+        for (Partition partition : findPartitions(connection, table.name())) {
+            if (partition.upperBound().isAfter(cutoff)) {
+                continue;
+            }
+            // A pending detach was interrupted part way (e.g. by a restart) and only needs finishing
+            execute(connection, String.format("ALTER TABLE %s DETACH PARTITION %s %s",
+                    table.name(), partition.name(), partition.detachPending() ? "FINALIZE" : "CONCURRENTLY"));
+            execute(connection, "CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+            execute(connection, String.format("ALTER TABLE %s SET SCHEMA %s", partition.name(), archiveSchema));
+            if (!archiveTablespace.isBlank()) {
+                execute(connection, String.format("ALTER TABLE %s.%s SET TABLESPACE %s",
+                        archiveSchema, partition.name(), archiveTablespace));
+            }
+            log.info("Archived partition {} (rows before {}) to schema {}.", partition.name(), partition.upperBound(), archiveSchema);
+        }
+    }
+
+    private List<Partition> findPartitions(Connection connection, String table) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(PARTITIONS_QUERY)) {
+            statement.setString(1, table);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    Matcher bounds = BOUNDS.matcher(result.getString(2));
+                    if (bounds.find()) {
+                        LocalDateTime lower = bounds.group(1) != null ? LocalDateTime.parse(bounds.group(1), BOUND_FORMAT) : LocalDateTime.MIN;
+                        partitions.add(new Partition(result.getString(1), lower,
+                                LocalDateTime.parse(bounds.group(2), BOUND_FORMAT), result.getBoolean(3)));
+                    }
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT pg_try_advisory_lock(" + ADVISORY_LOCK_KEY + ")")) {
+            result.next();
+            return result.getBoolean(1);
+        }
+    }
+
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.insuranceplatform.backend.service;
+
+import com.insuranceplatform.backend.dto.DocumentDto;
+import com.insuranceplatform.backend.entity.Claim;
+import com.insuranceplatform.backend.entity.Policy;
+import com.insuranceplatform.backend.repository.ClaimRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Lists the documents attached to a policy and its claim, and resolves them for bundled download.
+ * Callers are responsible for checking that the current user may see the policy.
+ */
+@Service
+@RequiredArgsConstructor
+public class PolicyDocumentService {
+
+    // Placeholder stored in required claim document columns until the agent uploads the file.
+    private static final String PENDING_UPLOAD = "PENDING_UPLOAD";
+
+    private final ClaimRepository claimRepository;
+    private final FileStorageService fileStorageService;
+
+    public List<DocumentDto> listDocuments(Policy policy) {
+        List<DocumentDto> documents = new ArrayList<>();
+        if (policy.getClient().getIdFileUrl() != null) documents.add(new DocumentDto("Client ID/KRA", policy.getClient().getIdFileUrl(), "Client identification document."));
+        if (policy.getLogbookFileUrl() != null) documents.add(new DocumentDto("Motor Logbook", policy.getLogbookFileUrl(), "Vehicle registration logbook."));
+        if (policy.getCertificateUrl() != null) documents.add(new DocumentDto("Policy Certificate", policy.getCertificateUrl(), "Official insurance policy certificate."));
+        Optional<Claim> claimOpt = claimRepository.findByPolicy(policy);
+        if (claimOpt.isPresent()) {
+            Claim claim = claimOpt.get();
+            if (claim.getPoliceAbstractUrl() != null) documents.add(new DocumentDto("Police Abstract", claim.getPoliceAbstractUrl(), "Claim document: Police Abstract"));
+            if (claim.getDrivingLicenseUrl() != null) documents.add(new DocumentDto("Driving License", claim.getDrivingLicenseUrl(), "Claim document: Driver's License"));
+            if (claim.getPhotoUrl() != null) documents.add(new DocumentDto("Accident Photo", claim.getPhotoUrl(), "Claim document: Photo of incident", claim.getPhotoThumbnailUrl(), claim.getPhotoPreviewUrl()));
+            if (claim.getVideoUrl() != null) documents.add(new DocumentDto("Accident Video", claim.getVideoUrl(), "Claim document: Video of incident", claim.getVideoThumbnailUrl(), claim.getVideoPreviewUrl()));
+        }
+        return documents;
+    }
+
+    /**
+     * Resolves every uploaded document of the policy (and its claim) for streaming into one archive.
+     * Only metadata is fetched here; file contents are read while the archive is being written.
+     */
+    public List<DocumentBundleEntry> openBundle(Policy policy) {
+        List<DocumentBundleEntry> entries = new ArrayList<>();
+        for (DocumentDto document : listDocuments(policy)) {
+            if (document.getFileUrl().isBlank() || PENDING_UPLOAD.equals(document.getFileUrl())) {
+                continue;
+            }
+            String name = String.format("%02d-%s%s", entries.size() + 1, slug(document.getDocumentType()),
+                    extensionOf(document.getFileUrl()));
+            entries.add(new DocumentBundleEntry(name, fileStorageService.loadFile(document.getFileUrl())));
+        }
+        return entries;
+    }
+
+    // --- Private Helper Methods ---
+
+    private String slug(String documentType) {
+        return documentType.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+    }
+
+    private String extensionOf(String fileUrl) {
+        String path = fileUrl.replaceFirst("[?#].*$", "");
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = fileName.substring(dot);
+        return extension.matches("\\.[A-Za-z0-9]{1,10}") ? extension.toLowerCase(Locale.ROOT) : "";
+    }
+}
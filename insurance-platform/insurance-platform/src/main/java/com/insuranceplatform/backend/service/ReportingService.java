@@ -1,74 +1,166 @@
 package com.insuranceplatform.backend.service;
 
-import com.insuranceplatform.backend.entity.Transaction;
+import com.insuranceplatform.backend.dto.TransactionExportRow;
 import com.insuranceplatform.backend.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import javax.sql.DataSource;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 @RequiredArgsConstructor
 public class ReportingService {
 
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    // Bounds used when an export has no date range; both fit PostgreSQL's timestamp type.
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private static final String[] CSV_HEADER = {
+        "TransactionID", "PolicyID", "AgentID", "AgentName", "Amount", "TransactionType", "Timestamp"
+    };
+
+    // Same columns and formatting as the JPA path; the CSV is produced by PostgreSQL itself.
+    // The timestamp is formatted like LocalDateTime.toString(): seconds only when non-zero, and
+    // fractions as milliseconds or microseconds (PostgreSQL's own text form trims trailing zeros).
+    private static final String COPY_TRANSACTIONS_SQL =
+            "COPY (SELECT t.id AS \"TransactionID\", COALESCE(t.policy_id::text, 'N/A') AS \"PolicyID\", " +
+            "u.id AS \"AgentID\", u.full_name AS \"AgentName\", t.amount AS \"Amount\", " +
+            "t.transaction_type AS \"TransactionType\", " +
+            "CASE WHEN date_trunc('minute', t.timestamp) = t.timestamp THEN to_char(t.timestamp, 'YYYY-MM-DD\"T\"HH24:MI') " +
+            "WHEN date_trunc('second', t.timestamp) = t.timestamp THEN to_char(t.timestamp, 'YYYY-MM-DD\"T\"HH24:MI:SS') " +
+            "WHEN date_trunc('milliseconds', t.timestamp) = t.timestamp THEN to_char(t.timestamp, 'YYYY-MM-DD\"T\"HH24:MI:SS.MS') " +
+            "ELSE to_char(t.timestamp, 'YYYY-MM-DD\"T\"HH24:MI:SS.US') END AS \"Timestamp\" " +
+            "FROM transactions t JOIN wallets w ON w.id = t.wallet_id JOIN users u ON u.id = w.user_id " +
+            "WHERE t.timestamp >= '%s'::timestamp AND t.timestamp < '%s'::timestamp ORDER BY t.id) " +
+            "TO STDOUT WITH (FORMAT csv, HEADER true)";
+
     private final TransactionRepository transactionRepository;
+    private final DataSource dataSource;
+
+    @Value("${reporting.csv.flush-every-rows:1000}")
+    private int flushEveryRows;
+
+    // Let PostgreSQL render the CSV with COPY ... TO STDOUT; fastest for very large exports.
+    @Value("${reporting.csv.use-copy:false}")
+    private boolean useCopy;
 
     /**
-     * Generates a CSV report of all transactions and returns it as a Resource.
-     * This method is highly memory-efficient as it uses JPA streaming to process
-     * transactions one by one, rather than loading the entire dataset into memory.
+     * Writes a CSV report of transactions straight to the given stream.
+     * Rows are read from the database in batches and written as they arrive, so memory use stays
+     * flat however many transactions there are and the client starts receiving data immediately.
      *
-     * @return A Resource object containing the CSV data, ready for streaming.
+     * Rows come from a flat projection query (one joined SELECT, no entities), or, when
+     * {@code reporting.csv.use-copy} is on, from PostgreSQL's {@code COPY ... TO STDOUT}, which
+     * skips per-row JDBC decoding and CSV formatting in Java entirely.
+     *
+     * @param out The response stream. The caller owns and closes it.
+     * @param gzip Whether to gzip the output.
+     * @param from First day to include, or null for no lower bound.
+     * @param to Last day to include, or null for no upper bound.
      */
-    @Transactional(readOnly = true) // Important for efficient database streaming
-    public Resource generateTransactionsCsvAsResource() {
-        // Define the CSV header
-        final String[] csvHeader = {
-            "TransactionID", "PolicyID", "AgentID", "AgentName", "Amount", "TransactionType", "Timestamp"
-        };
-
-        // Using ByteArrayOutputStream to build the CSV in memory before serving.
-        // This is safe because we write to it line-by-line from a stream.
-        try (
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            // PrintWriter makes writing text and new lines easier
-            PrintWriter writer = new PrintWriter(out);
-        ) {
-            // Write the header row
-            writer.println(String.join(",", csvHeader));
-
-            // Use try-with-resources on the JPA stream to ensure it's closed properly
-            try (Stream<Transaction> transactionStream = transactionRepository.streamAll()) {
-                // Process each transaction from the stream and write it to the CSV
-                transactionStream.forEach(tx -> {
-                    String[] data = {
-                        escapeCsvField(tx.getId().toString()),
-                        escapeCsvField(tx.getPolicy() != null ? tx.getPolicy().getId().toString() : "N/A"),
-                        escapeCsvField(tx.getWallet().getUser().getId().toString()),
-                        escapeCsvField(tx.getWallet().getUser().getFullName()),
-                        escapeCsvField(tx.getAmount().toString()),
-                        escapeCsvField(tx.getTransactionType().name()),
-                        escapeCsvField(tx.getTimestamp().toString())
-                    };
-                    writer.println(String.join(",", data));
-                });
-            }
+    @Transactional(readOnly = true) // Required for database streaming (PostgreSQL only uses a cursor inside a transaction)
+    public void writeTransactionsCsv(OutputStream out, boolean gzip, LocalDate from, LocalDate to) throws IOException {
+        LocalDateTime start = from != null ? from.atStartOfDay() : EARLIEST;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : LATEST;
 
-            writer.flush(); // Ensure all data is written to the underlying stream
+        // syncFlush makes flush() push compressed data out too, so gzip downloads still arrive progressively.
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, WRITE_BUFFER_SIZE, true) : null;
+        OutputStream target = gzipOut != null ? gzipOut : out;
 
-            // Create an InputStreamResource from the generated byte array
-            return new InputStreamResource(new ByteArrayInputStream(out.toByteArray()));
+        if (useCopy) {
+            copyTransactionsCsv(target, start, end);
+        } else {
+            writeTransactionRows(target, start, end);
+        }
 
-        } catch (IOException e) {
-            // This is unlikely to happen with ByteArrayOutputStream, but it's good practice
-            throw new RuntimeException("Failed to generate CSV file: " + e.getMessage(), e);
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private void writeTransactionRows(OutputStream out, LocalDateTime start, LocalDateTime end) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+
+        // Write the header row
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write("\n");
+
+        long rows = 0;
+        // Use try-with-resources on the JPA stream to ensure it's closed properly
+        try (Stream<TransactionExportRow> rowStream = transactionRepository.streamExportRows(start, end)) {
+            Iterator<TransactionExportRow> exportRows = rowStream.iterator();
+            while (exportRows.hasNext()) {
+                TransactionExportRow row = exportRows.next();
+                String[] data = {
+                    escapeCsvField(row.transactionId().toString()),
+                    escapeCsvField(row.policyId() != null ? row.policyId().toString() : "N/A"),
+                    escapeCsvField(row.agentId().toString()),
+                    escapeCsvField(row.agentName()),
+                    escapeCsvField(row.amount().toString()),
+                    escapeCsvField(row.transactionType().name()),
+                    escapeCsvField(row.timestamp().toString())
+                };
+                writer.write(String.join(",", data));
+                writer.write("\n");
+
+                if (++rows % flushEveryRows == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void copyTransactionsCsv(OutputStream out, LocalDateTime start, LocalDateTime end) throws IOException {
+        // COPY takes no bind parameters. The bounds are LocalDateTime.toString() output
+        // (digits, '-', ':', '.', 'T' only), so inlining them is safe.
+        String sql = String.format(COPY_TRANSACTIONS_SQL, start, end);
+        // Borrow the transaction's connection rather than opening a second one.
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyOut copy = connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql);
+            try {
+                long rows = 0;
+                byte[] row;
+                while ((row = copy.readFromCopy()) != null) {
+                    out.write(row);
+                    if (++rows % flushEveryRows == 0) {
+                        out.flush();
+                    }
+                }
+                out.flush();
+            } finally {
+                if (copy.isActive()) {
+                    // The client went away mid-export; stop the server-side COPY.
+                    copy.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to export transactions with COPY: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
         }
     }
 
@@ -1,55 +1,408 @@
 package com.insuranceplatform.backend.service;
 
+import com.insuranceplatform.backend.dto.PresignedUrlDto;
+import com.insuranceplatform.backend.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Primary;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 @Service
-@Primary // <-- This is very important!
+@Qualifier(FileStorageService.BACKEND)
+@ConditionalOnExpression("'${storage.type:s3}' != 'local' && '${storage.type:s3}' != 'mock'")
 @RequiredArgsConstructor
+@Slf4j
 public class S3FileStorageService implements FileStorageService {
 
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("[A-Za-z0-9]{1,10}");
+
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Presigner s3Presigner;
 
     @Value("${aws.s3.bucket.name}")
     private String bucketName;
 
+    @Value("${aws.s3.multipart.threshold-bytes:16777216}")
+    private long multipartThreshold;
+
+    // S3 requires every part except the last to be at least 5 MB.
+    @Value("${aws.s3.multipart.part-size-bytes:8388608}")
+    private int partSize;
+
+    @Value("${aws.s3.multipart.max-parts-in-flight:4}")
+    private int maxPartsInFlight;
+
     @Override
     public String storeFile(MultipartFile file, String subfolder) {
         if (file.isEmpty()) {
             throw new IllegalStateException("Cannot upload empty file.");
         }
 
+        String uniqueFileName = newObjectKey(subfolder, file.getOriginalFilename());
+
+        try (InputStream in = file.getInputStream()) {
+            upload(in, file.getSize(), file.getContentType(), uniqueFileName);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file to S3", e);
+        }
+
+        // Return the public URL of the uploaded file
+        return urlFor(uniqueFileName);
+    }
+
+    @Override
+    public String storeFile(InputStream content, long size, String contentType, String originalFilename, String subfolder) {
+        String uniqueFileName = newObjectKey(subfolder, originalFilename);
+        try {
+            upload(content, size, contentType, uniqueFileName);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file to S3", e);
+        }
+        return urlFor(uniqueFileName);
+    }
+
+    @Override
+    public StoredFile loadFile(String fileUrl) {
+        String key = keyFromUrl(fileUrl);
         try {
-            String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            HeadObjectResponse head = s3Client.headObject(builder -> builder.bucket(bucketName).key(key));
+            return new S3StoredFile(key, head);
+        } catch (NoSuchKeyException e) {
+            throw new ResourceNotFoundException("File not found in storage: " + fileUrl, e);
+        }
+    }
+
+    @Override
+    public void deleteFile(String fileUrl) {
+        // S3 treats deleting a missing key as success.
+        s3Client.deleteObject(builder -> builder.bucket(bucketName).key(keyFromUrl(fileUrl)));
+    }
+
+    @Override
+    public PresignedUrlDto presignUpload(String subfolder, String originalFilename, String contentType, Duration expiry) {
+        String key = newObjectKey(subfolder, originalFilename);
+        String type = contentType != null && !contentType.isBlank() ? contentType : "application/octet-stream";
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(builder -> builder
+                .signatureDuration(expiry)
+                .putObjectRequest(put -> put.bucket(bucketName).key(key).contentType(type)));
+        return PresignedUrlDto.builder()
+                .url(presigned.url().toExternalForm())
+                .method("PUT")
+                .objectKey(key)
+                .contentType(type)
+                .expiresAt(LocalDateTime.ofInstant(presigned.expiration(), ZoneId.systemDefault()))
+                .build();
+    }
+
+    @Override
+    public PresignedUrlDto presignDownload(String fileUrl, Duration expiry) {
+        String key = keyFromUrl(fileUrl);
+        PresignedGetObjectRequest presigned = s3Presigner.presignGetObject(builder -> builder
+                .signatureDuration(expiry)
+                .getObjectRequest(get -> get.bucket(bucketName).key(key)));
+        return PresignedUrlDto.builder()
+                .url(presigned.url().toExternalForm())
+                .method("GET")
+                .objectKey(key)
+                .expiresAt(LocalDateTime.ofInstant(presigned.expiration(), ZoneId.systemDefault()))
+                .build();
+    }
+
+    @Override
+    public String confirmUpload(String objectKey) {
+        try {
+            s3Client.headObject(builder -> builder.bucket(bucketName).key(objectKey));
+        } catch (NoSuchKeyException e) {
+            throw new ResourceNotFoundException("No uploaded file found for key: " + objectKey, e);
+        }
+        return urlFor(objectKey);
+    }
+
+    // The extension comes from the client's filename: anything but a short alphanumeric one is dropped
+    private String newObjectKey(String subfolder, String originalFilename) {
+        String extension = "";
+        if (originalFilename != null && originalFilename.contains(".")) {
+            String candidate = originalFilename.substring(originalFilename.lastIndexOf(".") + 1);
+            if (SAFE_EXTENSION.matcher(candidate).matches()) {
+                extension = "." + candidate;
             }
+        }
+        return subfolder + "/" + UUID.randomUUID().toString() + extension;
+    }
 
-            String uniqueFileName = subfolder + "/" + UUID.randomUUID().toString() + extension;
+    private String urlFor(String key) {
+        return s3Client.utilities().getUrl(builder -> builder.bucket(bucketName).key(key)).toExternalForm();
+    }
 
+    /**
+     * Streams content to S3 without holding the whole file in memory.
+     * Small files go up in a single PUT; anything at or above the multipart threshold
+     * (or of unknown size) is sent as a multipart upload.
+     */
+    private void upload(InputStream in, long size, String contentType, String key) throws IOException {
+        if (size >= 0 && size < multipartThreshold) {
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
-                    .key(uniqueFileName)
-                    .contentType(file.getContentType())
+                    .key(key)
+                    .contentType(contentType)
                     .build();
+            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(in, size));
+        } else {
+            multipartUpload(in, contentType, key);
+        }
+    }
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
+    /**
+     * Reads the stream one part at a time and uploads parts in parallel on the async client.
+     * At most {@code maxPartsInFlight} part buffers exist per upload, so memory use is bounded
+     * by {@code partSize * maxPartsInFlight} regardless of the file size.
+     */
+    private void multipartUpload(InputStream in, String contentType, String key) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(builder -> builder
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)).uploadId();
 
-            // Return the public URL of the uploaded file
-            return s3Client.utilities().getUrl(builder -> builder.bucket(bucketName).key(uniqueFileName)).toExternalForm();
+        BlockingQueue<byte[]> bufferPool = new ArrayBlockingQueue<>(maxPartsInFlight);
+        int buffersAllocated = 0;
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            while (true) {
+                byte[] buffer = bufferPool.poll();
+                if (buffer == null) {
+                    if (buffersAllocated < maxPartsInFlight) {
+                        buffer = new byte[partSize];
+                        buffersAllocated++;
+                    } else {
+                        // Wait for an in-flight part to finish before reading more of the stream.
+                        buffer = bufferPool.take();
+                    }
+                }
+                failFast(parts);
 
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to store file to S3", e);
+                int read = in.readNBytes(buffer, 0, partSize);
+                if (read == 0 && partNumber > 1) {
+                    break;
+                }
+
+                final int currentPart = partNumber++;
+                final byte[] partBuffer = buffer;
+                UploadPartRequest request = UploadPartRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(currentPart)
+                        .contentLength((long) read)
+                        .build();
+                parts.add(s3AsyncClient.uploadPart(request, new ByteBufferRequestBody(ByteBuffer.wrap(partBuffer, 0, read)))
+                        .thenApply(response -> CompletedPart.builder().partNumber(currentPart).eTag(response.eTag()).build())
+                        .whenComplete((part, error) -> bufferPool.offer(partBuffer)));
+
+                if (read < partSize) {
+                    break;
+                }
+            }
+
+            List<CompletedPart> completedParts = parts.stream().map(CompletableFuture::join).toList();
+            s3Client.completeMultipartUpload(builder -> builder
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build()));
+            log.info("Completed multipart upload of {} in {} parts", key, completedParts.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortMultipartUpload(key, uploadId, parts);
+            throw new IOException("Multipart upload interrupted for " + key, e);
+        } catch (IOException | RuntimeException e) {
+            abortMultipartUpload(key, uploadId, parts);
+            throw e;
+        }
+    }
+
+    private void failFast(List<CompletableFuture<CompletedPart>> parts) {
+        for (CompletableFuture<CompletedPart> part : parts) {
+            if (part.isCompletedExceptionally()) {
+                part.join(); // rethrows the part's failure
+            }
+        }
+    }
+
+    private void abortMultipartUpload(String key, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        parts.forEach(part -> part.cancel(true));
+        try {
+            s3Client.abortMultipartUpload(builder -> builder.bucket(bucketName).key(key).uploadId(uploadId));
+        } catch (RuntimeException e) {
+            log.error("Failed to abort multipart upload {} for {}", uploadId, key, e);
+        }
+    }
+
+    /**
+     * Accepts either a bare object key or a URL produced by {@link #storeFile},
+     * in virtual-hosted ("bucket.s3...amazonaws.com/key") or path ("/bucket/key") style.
+     */
+    private String keyFromUrl(String fileUrl) {
+        if (fileUrl == null || fileUrl.isBlank()) {
+            throw new ResourceNotFoundException("No file path was provided.");
+        }
+        String key = fileUrl.startsWith("http://") || fileUrl.startsWith("https://")
+                ? URI.create(fileUrl).getPath()
+                : fileUrl;
+        key = key.replaceFirst("^/+", "");
+        if (key.startsWith(bucketName + "/")) {
+            key = key.substring(bucketName.length() + 1);
+        }
+        return key;
+    }
+
+    private final class S3StoredFile implements StoredFile {
+
+        private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+        private final String key;
+        private final HeadObjectResponse head;
+
+        private S3StoredFile(String key, HeadObjectResponse head) {
+            this.key = key;
+            this.head = head;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public long getContentLength() {
+            return head.contentLength();
+        }
+
+        @Override
+        public String getContentType() {
+            return head.contentType() != null ? head.contentType() : "application/octet-stream";
+        }
+
+        @Override
+        public String getETag() {
+            return head.eTag();
+        }
+
+        @Override
+        public Instant getLastModified() {
+            return head.lastModified();
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            if (count <= 0) {
+                return 0;
+            }
+            GetObjectRequest request = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .range("bytes=" + position + "-" + (position + count - 1))
+                    .ifMatch(head.eTag())
+                    .build();
+            try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(request)) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                long written = 0;
+                int read;
+                while (written < count && (read = in.read(buffer, 0, (int) Math.min(buffer.length, count - written))) != -1) {
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        target.write(chunk);
+                    }
+                    written += read;
+                }
+                return written;
+            }
+        }
+    }
+
+    /**
+     * Publishes a part buffer to the async client without copying it.
+     * {@link AsyncRequestBody#fromByteBuffer} makes a defensive copy, which would double
+     * the memory held per in-flight part. Each subscription (including SDK retries)
+     * gets its own read-only view of the same bytes.
+     */
+    private static final class ByteBufferRequestBody implements AsyncRequestBody {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferRequestBody(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Optional<Long> contentLength() {
+            return Optional.of((long) buffer.remaining());
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+            subscriber.onSubscribe(new Subscription() {
+                private boolean done;
+
+                @Override
+                public void request(long n) {
+                    if (done) {
+                        return;
+                    }
+                    done = true;
+                    if (n <= 0) {
+                        subscriber.onError(new IllegalArgumentException("Demand must be positive"));
+                        return;
+                    }
+                    subscriber.onNext(buffer.asReadOnlyBuffer());
+                    subscriber.onComplete();
+                }
+
+                @Override
+                public void cancel() {
+                    done = true;
+                }
+            });
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,280 @@
+package com.insuranceplatform.backend.service;
+
+import com.insuranceplatform.backend.dto.AgentSalesTotals;
+import com.insuranceplatform.backend.dto.LeaderboardEntryDto;
+import com.insuranceplatform.backend.dto.RollupBackfillResult;
+import com.insuranceplatform.backend.dto.SalesSeriesPointDto;
+import com.insuranceplatform.backend.dto.SalesTotals;
+import com.insuranceplatform.backend.entity.Agent;
+import com.insuranceplatform.backend.entity.Claim;
+import com.insuranceplatform.backend.entity.Policy;
+import com.insuranceplatform.backend.entity.Superagent;
+import com.insuranceplatform.backend.enums.LeaderboardMetric;
+import com.insuranceplatform.backend.enums.TimeBucket;
+import com.insuranceplatform.backend.repository.AgentRepository;
+import com.insuranceplatform.backend.repository.DailySalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the daily sales rollups that back the admin and superagent dashboards.
+ *
+ * Payments and claims add to their day's row in the same transaction that records them, so the
+ * rollups never drift from the source tables. {@link #rebuild} recomputes a date range from
+ * history (after first deployment, or to repair data fixed by hand), one chunk of days per
+ * transaction on the bounded {@code rollupBackfillExecutor}.
+ *
+ * The superagent leaderboard and sales series are computed from the same rows: one indexed
+ * aggregate per request, whatever the size of the underlying policy history.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+
+    private final DailySalesRollupRepository rollupRepository;
+    private final AgentRepository agentRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadPoolTaskExecutor rollupBackfillExecutor;
+
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+
+    @Value("${reporting.rollup.backfill-chunk-days:31}")
+    private int chunkDays;
+
+    // Longest series returned by getSeries, in buckets (e.g. ~3 years of days).
+    private static final int MAX_SERIES_BUCKETS = 1100;
+
+    /**
+     * Records a newly created (not yet paid) policy, on its creation date.
+     */
+    public void recordQuote(Policy policy) {
+        add(policy.getCreatedAt().toLocalDate(), policy, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 1, 0, 0);
+    }
+
+    /**
+     * Records a paid policy and the commission credited for it, on the payment date.
+     * Must run inside the payment's transaction.
+     */
+    public void recordPayment(Policy policy, BigDecimal commissionAmount) {
+        LocalDate day = (policy.getPaidAt() != null ? policy.getPaidAt() : LocalDateTime.now()).toLocalDate();
+        add(day, policy, policy.getPremiumAmount(), policy.getTaxAmount(), commissionAmount, 0, 1, 0);
+    }
+
+    /**
+     * Records a newly raised claim against its policy's agent, product and insurer.
+     */
+    public void recordClaim(Claim claim) {
+        add(claim.getCreatedAt().toLocalDate(), claim.getPolicy(), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0, 1);
+    }
+
+    @Transactional(readOnly = true)
+    public SalesTotals getTotals() {
+        return rollupRepository.sumAll();
+    }
+
+    @Transactional(readOnly = true)
+    public SalesTotals getTotals(Superagent superagent) {
+        return rollupRepository.sumBySuperagent(superagent.getId());
+    }
+
+    /**
+     * Ranks a superagent's agents over [from, to], best first, and returns one page of the ranking.
+     *
+     * Only the agents up to the end of the requested page are kept while ranking (a bounded heap),
+     * so early pages stay cheap for superagents with thousands of agents. Agents with no activity in
+     * the window are not listed; agents whose ratio is undefined (nothing to divide by) rank last.
+     */
+    @Transactional(readOnly = true)
+    public Page<LeaderboardEntryDto> getLeaderboard(Superagent superagent, LeaderboardMetric metric,
+                                                    LocalDate from, LocalDate to, Pageable pageable) {
+        List<AgentSalesTotals> totals = rollupRepository.sumByAgent(superagent.getId(), from, to);
+        int offset = (int) Math.min(pageable.getOffset(), totals.size());
+        int keep = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), totals.size());
+
+        Comparator<AgentSalesTotals> ranking = ranking(metric);
+        PriorityQueue<AgentSalesTotals> top = new PriorityQueue<>(Math.max(keep, 1), ranking.reversed()); // Head: worst kept
+        for (AgentSalesTotals agentTotals : totals) {
+            if (top.size() < keep) {
+                top.add(agentTotals);
+            } else if (keep > 0 && ranking.compare(agentTotals, top.peek()) < 0) {
+                top.poll();
+                top.add(agentTotals);
+            }
+        }
+        List<AgentSalesTotals> ranked = new ArrayList<>(top);
+        ranked.sort(ranking);
+        List<AgentSalesTotals> page = ranked.subList(offset, ranked.size());
+
+        Map<Long, String> agentNames = agentRepository.findAllById(page.stream().map(AgentSalesTotals::agentId).toList())
+                .stream().collect(Collectors.toMap(Agent::getId, agent -> agent.getUser().getFullName()));
+        List<LeaderboardEntryDto> entries = new ArrayList<>(page.size());
+        for (int i = 0; i < page.size(); i++) {
+            AgentSalesTotals agentTotals = page.get(i);
+            entries.add(new LeaderboardEntryDto(offset + i + 1, agentTotals.agentId(), agentNames.get(agentTotals.agentId()),
+                    agentTotals.premiumAmount(), agentTotals.quoteCount(), agentTotals.policyCount(), agentTotals.claimCount(),
+                    ratio(agentTotals.policyCount(), agentTotals.quoteCount()),
+                    ratio(agentTotals.claimCount(), agentTotals.policyCount())));
+        }
+        return new PageImpl<>(entries, pageable, totals.size());
+    }
+
+    /**
+     * Sales totals of a superagent (or one of its agents, if agentId is set) per bucket over
+     * [from, to]. Every bucket in the range is present, with zeros where nothing happened.
+     */
+    @Transactional(readOnly = true)
+    public List<SalesSeriesPointDto> getSeries(Superagent superagent, Long agentId, TimeBucket bucket,
+                                               LocalDate from, LocalDate to) {
+        Function<LocalDate, LocalDate> bucketStart = switch (bucket) {
+            case DAY -> day -> day;
+            case WEEK -> day -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day -> day.withDayOfMonth(1);
+        };
+        Function<LocalDate, LocalDate> nextBucket = switch (bucket) {
+            case DAY -> start -> start.plusDays(1);
+            case WEEK -> start -> start.plusWeeks(1);
+            case MONTH -> start -> start.plusMonths(1);
+        };
+
+        TreeMap<LocalDate, SalesSeriesPointDto> series = new TreeMap<>();
+        for (LocalDate start = bucketStart.apply(from); !start.isAfter(to); start = nextBucket.apply(start)) {
+            if (series.size() == MAX_SERIES_BUCKETS) {
+                throw new IllegalArgumentException("Too many " + bucket + " buckets between " + from + " and " + to
+                        + "; use a larger bucket or a shorter range.");
+            }
+            series.put(start, new SalesSeriesPointDto(start, BigDecimal.ZERO, 0, 0, 0));
+        }
+        for (SalesSeriesPointDto day : rollupRepository.sumByDay(superagent.getId(), agentId, from, to)) {
+            series.merge(bucketStart.apply(day.bucketStart()), day, (sum, next) -> new SalesSeriesPointDto(sum.bucketStart(),
+                    sum.premiumAmount().add(next.premiumAmount()), sum.quoteCount() + next.quoteCount(),
+                    sum.policyCount() + next.policyCount(), sum.claimCount() + next.claimCount()));
+        }
+        return new ArrayList<>(series.values());
+    }
+
+    /**
+     * Rebuilds the rollups for [from, to] from policies, transactions and claims.
+     * Each chunk is replaced atomically, so dashboards never see a half-built day, and a failed
+     * run can simply be repeated. A payment that commits while today's chunk is being rebuilt can
+     * be missed; rebuild that day again afterwards if this matters.
+     *
+     * @param from First day, or null to start at the earliest policy or claim.
+     * @param to Last day (inclusive), or null for today.
+     */
+    public RollupBackfillResult rebuild(LocalDate from, LocalDate to) {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("A rollup rebuild is already running.");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LocalDate first = from != null ? from : findFirstActivityDay();
+            LocalDate last = to != null ? to : LocalDate.now();
+            if (first == null || first.isAfter(last)) {
+                return new RollupBackfillResult(first, last, 0, 0, 0);
+            }
+
+            TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+            List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+            for (LocalDate chunkStart = first; !chunkStart.isAfter(last); chunkStart = chunkStart.plusDays(chunkDays)) {
+                LocalDate start = chunkStart;
+                LocalDate end = start.plusDays(chunkDays).isAfter(last) ? last.plusDays(1) : start.plusDays(chunkDays);
+                chunks.add(CompletableFuture.supplyAsync(() -> chunkTransaction.execute(status -> {
+                    rollupRepository.deleteDays(start, end);
+                    return rollupRepository.insertFromHistory(start.atStartOfDay(), end.atStartOfDay());
+                }), rollupBackfillExecutor));
+            }
+
+            long rowsWritten = 0;
+            int failed = 0;
+            for (CompletableFuture<Integer> chunk : chunks) {
+                try {
+                    rowsWritten += chunk.join();
+                } catch (CompletionException e) {
+                    failed++;
+                    log.error("Rollup rebuild chunk failed", e.getCause());
+                }
+            }
+            if (failed > 0) {
+                throw new IllegalStateException(String.format(
+                        "%d of %d rollup chunks failed between %s and %s; rebuild the range again.", failed, chunks.size(), first, last));
+            }
+
+            RollupBackfillResult result = new RollupBackfillResult(first, last, chunks.size(), rowsWritten,
+                    System.currentTimeMillis() - started);
+            log.info("Rebuilt daily sales rollups: {}", result);
+            return result;
+        } finally {
+            rebuildRunning.set(false);
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private void add(LocalDate day, Policy policy, BigDecimal premium, BigDecimal tax, BigDecimal commission,
+                     long quotes, long policies, long claims) {
+        rollupRepository.add(day,
+                policy.getAgent().getSuperagent().getId(),
+                policy.getAgent().getId(),
+                policy.getProduct().getId(),
+                policy.getProduct().getInsuranceCompany().getId(),
+                premium, tax, commission, quotes, policies, claims);
+    }
+
+    /**
+     * Best first; ties go to the lower agent ID so pages are stable.
+     */
+    private Comparator<AgentSalesTotals> ranking(LeaderboardMetric metric) {
+        Comparator<AgentSalesTotals> byMetric = switch (metric) {
+            case PREMIUM -> Comparator.comparing(AgentSalesTotals::premiumAmount);
+            case POLICIES -> Comparator.comparingLong(AgentSalesTotals::policyCount);
+            case CONVERSION -> Comparator.comparing(totals -> ratio(totals.policyCount(), totals.quoteCount()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            case CLAIMS_RATIO -> Comparator.comparing(totals -> ratio(totals.claimCount(), totals.policyCount()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+        };
+        return byMetric.reversed().thenComparing(AgentSalesTotals::agentId);
+    }
+
+    private BigDecimal ratio(long numerator, long denominator) {
+        return denominator == 0 ? null
+                : BigDecimal.valueOf(numerator).divide(BigDecimal.valueOf(denominator), 4, RoundingMode.HALF_UP);
+    }
+
+    private LocalDate findFirstActivityDay() {
+        return Stream.of(rollupRepository.findFirstPolicyTime(), rollupRepository.findFirstClaimTime())
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .map(LocalDateTime::toLocalDate)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,228 @@
+package com.insuranceplatform.backend.service;
+
+import com.insuranceplatform.backend.dto.SqlStatementStatsDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Latency of every SQL statement the application runs, measured at the JDBC level (see SqlMonitoringConfig).
+ *
+ * Statements are grouped by normalized SQL: literals become {@code ?} and lists of parameters collapse,
+ * so one query run with different values is one statement. Each statement has a {@code db.statement}
+ * timer, tagged with a short hash of its SQL, with a latency histogram and p50/p95/p99.
+ *
+ * Executions slower than {@code sql-monitor.slow-threshold-millis} are logged, and so is a random
+ * {@code sql-monitor.sample-rate} fraction of the rest, with the bind count and the repository method
+ * and application code that ran them. Bind values are never logged.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SqlStatementMonitor implements QueryExecutionListener {
+
+    private static final String APPLICATION_PACKAGE = "com.insuranceplatform.backend.";
+    private static final String REPOSITORY_PACKAGE = "com.insuranceplatform.backend.repository";
+    // Statements beyond sql-monitor.max-statements share one entry, so unexpected dynamic SQL cannot grow the metrics without bound
+    private static final String OTHER = "other";
+    private static final int MAX_CACHED_NORMALIZATIONS = 10000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    // Not digits inside identifiers such as Hibernate's t1_0 aliases
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$])\\d+(?:\\.\\d+)?");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private record StatementStats(String id, String sql, Timer timer, LongAdder slowExecutions) {}
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, String> normalizedSql = new ConcurrentHashMap<>();
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> startedAt = new ThreadLocal<>();
+
+    @Value("${sql-monitor.slow-threshold-millis:200}")
+    private long slowThresholdMillis;
+
+    @Value("${sql-monitor.sample-rate:0.001}")
+    private double sampleRate;
+
+    @Value("${sql-monitor.max-statements:1000}")
+    private int maxStatements;
+
+    /**
+     * Statements by total execution time on this node since startup, highest first.
+     */
+    public List<SqlStatementStatsDto> getTopStatements(int limit) {
+        return statements.values().stream()
+                .map(this::toDto)
+                .sorted(Comparator.comparingDouble(SqlStatementStatsDto::totalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    // --- JDBC proxy callbacks (on the thread running the statement) ---
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        startedAt.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = startedAt.get();
+        startedAt.remove();
+        if (start == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        // A batch of plain statements is recorded under its first statement
+        QueryInfo query = queryInfoList.get(0);
+        StatementStats stats = statsFor(normalize(query.getQuery()));
+        stats.timer().record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        boolean slow = elapsedMillis >= slowThresholdMillis;
+        if (slow) {
+            stats.slowExecutions().increment();
+        } else if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        List<?> parameters = query.getParametersList();
+        int binds = parameters.isEmpty() ? 0 : ((List<?>) parameters.get(0)).size();
+        String details = String.format("%d ms, %d binds%s%s", elapsedMillis, binds,
+                execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "", execInfo.isSuccess() ? "" : ", failed");
+        if (slow) {
+            log.warn("Slow SQL [{}] {} from {}: {}", stats.id(), details, caller(), stats.sql());
+        } else {
+            log.info("Sampled SQL [{}] {} from {}: {}", stats.id(), details, caller(), stats.sql());
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private String normalize(String rawSql) {
+        String cached = normalizedSql.get(rawSql);
+        if (cached != null) {
+            return cached;
+        }
+        String sql = WHITESPACE.matcher(rawSql).replaceAll(" ").trim();
+        sql = STRING_LITERAL.matcher(sql).replaceAll("?");
+        sql = NUMBER_LITERAL.matcher(sql).replaceAll("?");
+        sql = PARAMETER_LIST.matcher(sql).replaceAll("(?, ...)");
+        if (normalizedSql.size() < MAX_CACHED_NORMALIZATIONS) {
+            normalizedSql.put(rawSql, sql);
+        }
+        return sql;
+    }
+
+    private StatementStats statsFor(String sql) {
+        StatementStats stats = statements.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        return statements.computeIfAbsent(statements.size() < maxStatements ? sql : OTHER, this::register);
+    }
+
+    private StatementStats register(String sql) {
+        String id = OTHER.equals(sql) ? OTHER : statementId(sql);
+        Timer timer = Timer.builder("db.statement")
+                .description("JDBC execution time by normalized SQL statement")
+                .tag("statement", id)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        return new StatementStats(id, sql, timer, new LongAdder());
+    }
+
+    // The same on every node, so metrics for a statement can be compared across nodes
+    private String statementId(String sql) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(sql.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The repository method that ran the statement (if any) and the application code that called it,
+     * e.g. "WalletRepository.findByUser from AgentService.requestWithdrawal". Statements flushed at commit
+     * have no repository method. Only computed for logged statements.
+     */
+    private String caller() {
+        return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(frames -> {
+            String repositoryMethod = null;
+            for (Iterator<StackWalker.StackFrame> it = frames.iterator(); it.hasNext(); ) {
+                StackWalker.StackFrame frame = it.next();
+                Class<?> type = frame.getDeclaringClass();
+                if (repositoryMethod == null && Proxy.isProxyClass(type)) {
+                    repositoryMethod = repositoryMethod(type, frame.getMethodName());
+                } else if (type.getName().startsWith(APPLICATION_PACKAGE) && type != SqlStatementMonitor.class) {
+                    String caller = applicationClassName(type) + "." + frame.getMethodName();
+                    return repositoryMethod != null ? repositoryMethod + " from " + caller : caller;
+                }
+            }
+            return repositoryMethod != null ? repositoryMethod : "unknown";
+        });
+    }
+
+    // Spring Data repositories are JDK proxies implementing the repository interface
+    private String repositoryMethod(Class<?> proxyType, String methodName) {
+        for (Class<?> repository : proxyType.getInterfaces()) {
+            if (repository.getPackageName().equals(REPOSITORY_PACKAGE)) {
+                return repository.getSimpleName() + "." + methodName;
+            }
+        }
+        return null;
+    }
+
+    // Without the suffix of Spring's CGLIB proxies, e.g. AgentService$$SpringCGLIB$$0
+    private String applicationClassName(Class<?> type) {
+        String name = type.getSimpleName();
+        int proxySuffix = name.indexOf("$$");
+        return proxySuffix > 0 ? name.substring(0, proxySuffix) : name;
+    }
+
+    private SqlStatementStatsDto toDto(StatementStats stats) {
+        HistogramSnapshot snapshot = stats.timer().takeSnapshot();
+        return new SqlStatementStatsDto(stats.id(), stats.sql(), snapshot.count(), stats.slowExecutions().sum(),
+                snapshot.total(TimeUnit.MILLISECONDS), snapshot.mean(TimeUnit.MILLISECONDS), snapshot.max(TimeUnit.MILLISECONDS),
+                percentile(snapshot, 0.5), percentile(snapshot, 0.95), percentile(snapshot, 0.99));
+    }
+
+    private double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.insuranceplatform.backend.service;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * A handle to a file held by a {@link FileStorageService}.
+ * It exposes the metadata needed for conditional and ranged downloads,
+ * and copies content straight into a channel instead of loading it into memory.
+ */
+public interface StoredFile {
+
+    String getKey();
+
+    long getContentLength();
+
+    String getContentType();
+
+    /**
+     * @return A quoted, strong entity tag identifying this version of the content.
+     */
+    String getETag();
+
+    Instant getLastModified();
+
+    /**
+     * Copies a byte range of the file into the target channel.
+     *
+     * @param position The offset of the first byte to copy.
+     * @param count    The number of bytes to copy.
+     * @param target   The channel to write to.
+     * @return The number of bytes written.
+     */
+    long transferTo(long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * @return The file's path on local disk, or null if the file lives elsewhere (e.g. S3).
+     */
+    default Path getLocalPath() {
+        return null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.insuranceplatform.backend.service;
 
+import com.insuranceplatform.backend.config.RetryOnConflict;
 import com.insuranceplatform.backend.dto.*;
 import com.insuranceplatform.backend.entity.*;
 import com.insuranceplatform.backend.enums.*;
@@ -8,15 +9,16 @@ import com.insuranceplatform.backend.exception.UserAlreadyExistsException;
 import com.insuranceplatform.backend.repository.*;
 import com.insuranceplatform.backend.service.AuthService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -37,6 +39,9 @@ public class SuperagentService {
     private final PasswordEncoder passwordEncoder;
     private final AuthService authService;
     private final MpesaService mpesaService;
+    private final PolicyDocumentService policyDocumentService;
+    private final SalesRollupService salesRollupService;
+    private final WebhookService webhookService;
 
     // --- Profile Management, Dashboard, Product Management, Agent Management, Lead Management, Claim Management (All Unchanged) ---
     // (Your existing code for these sections is perfect and has been omitted for brevity)
@@ -61,12 +66,42 @@ public class SuperagentService {
         User currentUser = authService.getCurrentUser();
         Superagent superagent = getSuperagentProfile(currentUser);
         long totalAgents = agentRepository.countBySuperagent(superagent);
-        long totalPoliciesSold = policyRepository.countByAgent_Superagent(superagent);
-        BigDecimal totalPremium = policyRepository.sumPremiumByAgent_Superagent(superagent);
+        SalesTotals sales = salesRollupService.getTotals(superagent); // Pre-aggregated daily rollups
         long pendingClaims = claimRepository.countClaimsBySuperagentAndStatus(superagent, ClaimStatus.RAISED);
-        return DashboardMetricsDto.builder().totalAgents(totalAgents).totalPoliciesSold(totalPoliciesSold).totalPremiumCollected(totalPremium != null ? totalPremium : BigDecimal.ZERO).pendingClaims(pendingClaims).build();
+        return DashboardMetricsDto.builder().totalAgents(totalAgents).totalPoliciesSold(sales.policyCount()).totalPremiumCollected(sales.premiumAmount()).totalCommissionsPaidOut(sales.commissionAmount()).pendingClaims(pendingClaims).build();
     }
     
+    /**
+     * Ranks the current superagent's agents over [from, to] (default: the last 30 days).
+     */
+    @Transactional(readOnly = true)
+    public Page<LeaderboardEntryDto> getAgentLeaderboard(LeaderboardMetric metric, LocalDate from, LocalDate to, Pageable pageable) {
+        User currentUser = authService.getCurrentUser();
+        Superagent superagent = getSuperagentProfile(currentUser);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end)) { throw new IllegalArgumentException("'from' must not be after 'to'."); }
+        return salesRollupService.getLeaderboard(superagent, metric, start, end, pageable);
+    }
+
+    /**
+     * Sales of the current superagent's agency, or of one of its agents, per day, week or month
+     * over [from, to] (default: the last 30 days).
+     */
+    @Transactional(readOnly = true)
+    public List<SalesSeriesPointDto> getSalesSeries(Long agentId, TimeBucket bucket, LocalDate from, LocalDate to) {
+        User currentUser = authService.getCurrentUser();
+        Superagent superagent = getSuperagentProfile(currentUser);
+        if (agentId != null) {
+            Agent agent = agentRepository.findById(agentId).orElseThrow(() -> new ResourceNotFoundException("Agent not found with ID: " + agentId));
+            if (!agent.getSuperagent().getId().equals(superagent.getId())) { throw new SecurityException("You are not authorized to view this agent."); }
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end)) { throw new IllegalArgumentException("'from' must not be after 'to'."); }
+        return salesRollupService.getSeries(superagent, agentId, bucket, start, end);
+    }
+
     @Transactional(readOnly = true)
     public List<Policy> viewAgentTransactions() {
         User currentUser = authService.getCurrentUser();
@@ -105,6 +140,10 @@ public class SuperagentService {
         Product product = productRepository.findById(productId).orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
         if (!product.getSuperagent().getId().equals(superagent.getId())) { throw new SecurityException("You are not authorized to update this product."); }
         InsuranceCompany company = companyRepository.findById(request.getCompanyId()).orElseThrow(() -> new ResourceNotFoundException("InsuranceCompany not found with ID: " + request.getCompanyId()));
+        if (!product.getInsuranceCompany().getId().equals(company.getId())) {
+            // The product's policies move to the new insurer's change feed and are delivered to it from the start
+            policyRepository.updateInsuranceCompanyByProduct(product, company);
+        }
         product.setName(request.getName());
         product.setRate(request.getRate());
         product.setInsuranceCompany(company);
@@ -185,6 +224,7 @@ public class SuperagentService {
     }
 
     @Transactional
+    @RetryOnConflict
     public Lead updateLead(Long leadId, LeadRequest request) {
         User currentUser = authService.getCurrentUser();
         Superagent superagent = getSuperagentProfile(currentUser);
@@ -215,14 +255,17 @@ public class SuperagentService {
     }
     
     @Transactional
+    @RetryOnConflict
     public Claim updateClaimStatus(Long claimId, UpdateClaimStatusRequest request) {
         User currentUser = authService.getCurrentUser();
         Superagent superagent = getSuperagentProfile(currentUser);
         Claim claim = claimRepository.findById(claimId).orElseThrow(() -> new ResourceNotFoundException("Claim not found with ID: " + claimId));
         if (!claim.getPolicy().getAgent().getSuperagent().getId().equals(superagent.getId())) { throw new SecurityException("You are not authorized to manage this claim."); }
+        ClaimStatus previousStatus = claim.getStatus();
         claim.setStatus(request.getStatus());
         claim.setUpdatedAt(LocalDateTime.now());
         Claim updatedClaim = claimRepository.save(claim);
+        webhookService.publishClaimStatusChanged(updatedClaim, previousStatus);
         User agentUser = claim.getPolicy().getAgent().getUser();
         String message = String.format("Your claim (ID: %d) has been updated to status: %s.", updatedClaim.getId(), updatedClaim.getStatus());
         notificationService.createNotification(currentUser, agentUser, message);
@@ -239,6 +282,7 @@ public class SuperagentService {
     }
 
     @Transactional
+    @RetryOnConflict
     public Transaction approveWithdrawal(ApproveWithdrawalDto request) {
         User currentUser = authService.getCurrentUser();
         Superagent superagent = getSuperagentProfile(currentUser);
@@ -248,6 +292,9 @@ public class SuperagentService {
         if (withdrawalTx.getStatus() != TransactionStatus.PENDING) {
             throw new IllegalStateException("This transaction is not in a pending state.");
         }
+        if (withdrawalTx.getTransactionType() != TransactionType.WITHDRAWAL_REQUEST) {
+            throw new IllegalStateException("This withdrawal has already been approved.");
+        }
 
         Agent agent = withdrawalTx.getWallet().getUser().getAgentProfile();
         if (agent == null || !agent.getSuperagent().getId().equals(superagent.getId())) {
@@ -259,15 +306,18 @@ public class SuperagentService {
         String remarks = "Commission Payout for Transaction ID: " + withdrawalTx.getId();
         Long transactionId = withdrawalTx.getId(); // Get the transaction ID
 
+        // Flushed before paying out, so a concurrent approval fails its version check here (and is
+        // retried into the check above) instead of paying the same withdrawal twice
+        withdrawalTx.setTransactionType(TransactionType.WITHDRAWAL_PROCESSING);
+        Transaction approvedTx = transactionRepository.saveAndFlush(withdrawalTx);
+
         // CORRECTED: Pass the transactionId as the third argument
         mpesaService.initiateB2CPayment(amountToPay, agentPhoneNumber, remarks, transactionId);
         
-        withdrawalTx.setTransactionType(TransactionType.WITHDRAWAL_PROCESSING);
-        
         String message = String.format("Your withdrawal request for KES %.2f has been approved and is being processed via M-Pesa.", amountToPay);
         notificationService.createNotification(currentUser, agent.getUser(), message);
         
-        return transactionRepository.save(withdrawalTx);
+        return approvedTx;
     }
 
     // --- Document Management (Unchanged) ---
@@ -278,19 +328,19 @@ public class SuperagentService {
         Superagent superagent = getSuperagentProfile(currentUser);
         Policy policy = policyRepository.findById(policyId).orElseThrow(() -> new ResourceNotFoundException("Policy not found with ID: " + policyId));
         if (!policy.getAgent().getSuperagent().getId().equals(superagent.getId())) { throw new SecurityException("You are not authorized to view documents for this policy."); }
-        List<DocumentDto> documents = new ArrayList<>();
-        if (policy.getClient().getIdFileUrl() != null) documents.add(new DocumentDto("Client ID/KRA", policy.getClient().getIdFileUrl(), "Client identification document."));
-        if (policy.getLogbookFileUrl() != null) documents.add(new DocumentDto("Motor Logbook", policy.getLogbookFileUrl(), "Vehicle registration logbook."));
-        if (policy.getCertificateUrl() != null) documents.add(new DocumentDto("Policy Certificate", policy.getCertificateUrl(), "Official insurance policy certificate."));
-        Optional<Claim> claimOpt = claimRepository.findByPolicy(policy);
-        if (claimOpt.isPresent()) {
-            Claim claim = claimOpt.get();
-            if (claim.getPoliceAbstractUrl() != null) documents.add(new DocumentDto("Police Abstract", claim.getPoliceAbstractUrl(), "Claim document: Police Abstract"));
-            if (claim.getDrivingLicenseUrl() != null) documents.add(new DocumentDto("Driving License", claim.getDrivingLicenseUrl(), "Claim document: Driver's License"));
-            if (claim.getPhotoUrl() != null) documents.add(new DocumentDto("Accident Photo", claim.getPhotoUrl(), "Claim document: Photo of incident"));
-            if (claim.getVideoUrl() != null) documents.add(new DocumentDto("Accident Video", claim.getVideoUrl(), "Claim document: Video of incident"));
-        }
-        return documents;
+        return policyDocumentService.listDocuments(policy);
+    }
+
+    /**
+     * Resolves every document of the policy and its claim for a single streamed ZIP download.
+     */
+    @Transactional(readOnly = true)
+    public List<DocumentBundleEntry> openPolicyDocumentBundle(Long policyId) {
+        User currentUser = authService.getCurrentUser();
+        Superagent superagent = getSuperagentProfile(currentUser);
+        Policy policy = policyRepository.findById(policyId).orElseThrow(() -> new ResourceNotFoundException("Policy not found with ID: " + policyId));
+        if (!policy.getAgent().getSuperagent().getId().equals(superagent.getId())) { throw new SecurityException("You are not authorized to view documents for this policy."); }
+        return policyDocumentService.openBundle(policy);
     }
 
     // --- Private Helper Method (Unchanged) ---
@@ -0,0 +1,138 @@
+package com.insuranceplatform.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Signs and POSTs one webhook batch.
+ *
+ * The {@code X-Webhook-Signature} header is {@code t=<unix seconds>,v1=<hex HMAC-SHA256>}, where
+ * the HMAC is computed with the endpoint's secret over {@code "<t>.<body>"}. Receivers recompute it
+ * and reject old timestamps, which also protects against replayed requests.
+ *
+ * Endpoint URLs are supplied by insurers, so requests are only sent to public addresses: a URL whose
+ * host resolves to a loopback, private, link-local or multicast address is refused when it is
+ * registered and again before every delivery (DNS may have changed in between).
+ */
+@Component
+public class WebhookSender {
+
+    public static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+    public static final String ID_HEADER = "X-Webhook-Id";
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final boolean allowPrivateAddresses;
+
+    public WebhookSender(@Value("${webhooks.delivery.connect-timeout-seconds:5}") long connectTimeoutSeconds,
+                         @Value("${webhooks.delivery.timeout-seconds:10}") long timeoutSeconds,
+                         @Value("${webhooks.allow-private-addresses:false}") boolean allowPrivateAddresses) {
+        // Redirects are not followed: a receiver must answer at the URL it registered.
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.requestTimeout = Duration.ofSeconds(timeoutSeconds);
+        this.allowPrivateAddresses = allowPrivateAddresses;
+    }
+
+    /**
+     * @param statusCode The HTTP status, or null if no response was received.
+     * @param error Why the batch was not accepted, or null on success.
+     */
+    public record Result(Integer statusCode, String error) {
+        public boolean delivered() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Sends the batch and reports the outcome; never throws for network or HTTP errors.
+     */
+    public Result send(String url, String secret, String batchId, String body) {
+        URI uri = URI.create(url);
+        try {
+            checkDestination(uri);
+        } catch (IllegalArgumentException e) {
+            return new Result(null, e.getMessage());
+        }
+        long timestamp = Instant.now().getEpochSecond();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header(ID_HEADER, batchId)
+                .header(SIGNATURE_HEADER, "t=" + timestamp + ",v1=" + sign(secret, timestamp + "." + body))
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            return status >= 200 && status < 300 ? new Result(status, null) : new Result(status, "HTTP " + status);
+        } catch (IOException e) {
+            String message = e.getMessage() != null ? e.getClass().getSimpleName() + ": " + e.getMessage()
+                    : e.getClass().getSimpleName();
+            return new Result(null, message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(null, "Interrupted");
+        }
+    }
+
+    /**
+     * Rejects a URL whose host does not resolve, or resolves to an address inside this network.
+     *
+     * @throws IllegalArgumentException If requests must not be sent to the URL.
+     */
+    public void checkDestination(URI uri) {
+        if (allowPrivateAddresses) {
+            return;
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(uri.getHost());
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Webhook host cannot be resolved: " + uri.getHost());
+        }
+        for (InetAddress address : addresses) {
+            if (isInternal(address)) {
+                throw new IllegalArgumentException("Webhook host " + uri.getHost() + " resolves to the non-public address "
+                        + address.getHostAddress());
+            }
+        }
+    }
+
+    public static String sign(String secret, String content) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private static boolean isInternal(InetAddress address) {
+        return address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()
+                // IPv6 unique local addresses (fc00::/7), the IPv6 counterpart of the private IPv4 ranges
+                || (address instanceof Inet6Address && (address.getAddress()[0] & 0xfe) == 0xfc);
+    }
+}
@@ -0,0 +1,363 @@
+package com.insuranceplatform.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insuranceplatform.backend.dto.ClaimEventDto;
+import com.insuranceplatform.backend.dto.SharedTransactionDto;
+import com.insuranceplatform.backend.dto.WebhookDeadLetterDto;
+import com.insuranceplatform.backend.dto.WebhookEndpointDto;
+import com.insuranceplatform.backend.dto.WebhookEndpointRequest;
+import com.insuranceplatform.backend.dto.WebhookEventDto;
+import com.insuranceplatform.backend.entity.Claim;
+import com.insuranceplatform.backend.entity.InsuranceCompany;
+import com.insuranceplatform.backend.entity.Policy;
+import com.insuranceplatform.backend.entity.WebhookDelivery;
+import com.insuranceplatform.backend.entity.WebhookEndpoint;
+import com.insuranceplatform.backend.enums.ClaimStatus;
+import com.insuranceplatform.backend.enums.WebhookDeliveryStatus;
+import com.insuranceplatform.backend.enums.WebhookEventType;
+import com.insuranceplatform.backend.exception.ResourceNotFoundException;
+import com.insuranceplatform.backend.repository.WebhookDeliveryRepository;
+import com.insuranceplatform.backend.repository.WebhookEndpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delivers policy and claim events to the webhook endpoints insurers register, so they no longer
+ * have to poll the data sharing API.
+ *
+ * Publishing an event writes one {@link WebhookDelivery} row per enabled endpoint of the insurer,
+ * in the caller's transaction (an outbox). A scheduled dispatcher then sends due rows:
+ * <ul>
+ *   <li>New events wait {@code webhooks.batch.window-millis}, and everything pending for an
+ *       endpoint by then goes out as one signed POST of up to {@code webhooks.batch.max-events}
+ *       events (see {@link WebhookSender} for the body signature).</li>
+ *   <li>At most {@code maxConcurrency} batches per endpoint are in flight on this node, on the
+ *       bounded {@code webhookExecutor}, so one slow insurer cannot take every sender thread.</li>
+ *   <li>A failed batch is retried with exponential backoff and jitter. After
+ *       {@code webhooks.retry.max-attempts} its rows are marked DEAD and stay in the table as dead
+ *       letters until an admin requeues them.</li>
+ * </ul>
+ * Batches are claimed with {@code FOR UPDATE SKIP LOCKED} and leased by pushing their next attempt
+ * forward, so several nodes can dispatch at once, and a batch whose node died is sent again once
+ * its lease expires. Delivery is therefore at least once; receivers drop duplicates by event ID.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookService {
+
+    private static final SecureRandom SECRET_RANDOM = new SecureRandom();
+
+    private final WebhookEndpointRepository endpointRepository;
+    private final WebhookDeliveryRepository deliveryRepository;
+    private final WebhookSender webhookSender;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadPoolTaskExecutor webhookExecutor;
+
+    // In-flight batches per endpoint on this node
+    private final Map<Long, EndpointPermits> permitsByEndpoint = new ConcurrentHashMap<>();
+
+    @Value("${webhooks.batch.window-millis:2000}")
+    private long batchWindowMillis;
+
+    @Value("${webhooks.batch.max-events:100}")
+    private int batchMaxEvents;
+
+    @Value("${webhooks.delivery.default-max-concurrency:2}")
+    private int defaultMaxConcurrency;
+
+    @Value("${webhooks.delivery.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${webhooks.retry.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${webhooks.retry.initial-backoff-seconds:10}")
+    private long initialBackoffSeconds;
+
+    @Value("${webhooks.retry.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${webhooks.delivered-retention-days:7}")
+    private long deliveredRetentionDays;
+
+    @Value("${webhooks.allow-http:false}")
+    private boolean allowHttp;
+
+    // --- Endpoint Registration ---
+
+    @Transactional
+    public WebhookEndpointDto registerEndpoint(InsuranceCompany company, WebhookEndpointRequest request) {
+        validateUrl(request.getUrl());
+        byte[] secret = new byte[32];
+        SECRET_RANDOM.nextBytes(secret);
+
+        WebhookEndpoint endpoint = endpointRepository.save(WebhookEndpoint.builder()
+                .insuranceCompany(company)
+                .url(request.getUrl())
+                .secret(Base64.getUrlEncoder().withoutPadding().encodeToString(secret))
+                .maxConcurrency(request.getMaxConcurrency() != null ? request.getMaxConcurrency() : defaultMaxConcurrency)
+                .build());
+        return toDto(endpoint, endpoint.getSecret());
+    }
+
+    @Transactional(readOnly = true)
+    public List<WebhookEndpointDto> getEndpoints(InsuranceCompany company) {
+        return endpointRepository.findByInsuranceCompanyAndEnabledTrue(company).stream()
+                .map(endpoint -> toDto(endpoint, null))
+                .toList();
+    }
+
+    /**
+     * Disables an endpoint and drops its undelivered events. Dead letters are kept.
+     */
+    @Transactional
+    public void disableEndpoint(InsuranceCompany company, Long endpointId) {
+        WebhookEndpoint endpoint = endpointRepository.findByIdAndInsuranceCompany(endpointId, company)
+                .orElseThrow(() -> new ResourceNotFoundException("Webhook endpoint not found with ID: " + endpointId));
+        endpoint.setEnabled(false);
+        endpointRepository.save(endpoint);
+        deliveryRepository.deleteByEndpointAndStatus(endpoint, WebhookDeliveryStatus.PENDING);
+    }
+
+    // --- Publishing (called inside the transaction that makes the change) ---
+
+    public void publishPolicyPaid(Policy policy) {
+        SharedTransactionDto data = new SharedTransactionDto(
+                policy.getId(),
+                policy.getProduct().getName(),
+                policy.getTotalAmount(),
+                policy.getPaidAt(),
+                policy.getAgent().getUser().getFullName(),
+                policy.getAgent().getSuperagent().getUser().getFullName(),
+                policy.getUpdatedAt(),
+                null); // Not a feed row: events carry no feed position
+        publish(policy.getProduct().getInsuranceCompany(), WebhookEventType.POLICY_PAID, data);
+    }
+
+    public void publishClaimRaised(Claim claim) {
+        publish(claim.getPolicy().getProduct().getInsuranceCompany(), WebhookEventType.CLAIM_RAISED,
+                toClaimEvent(claim, null));
+    }
+
+    public void publishClaimStatusChanged(Claim claim, ClaimStatus previousStatus) {
+        publish(claim.getPolicy().getProduct().getInsuranceCompany(), WebhookEventType.CLAIM_STATUS_CHANGED,
+                toClaimEvent(claim, previousStatus));
+    }
+
+    // --- Dispatching ---
+
+    /**
+     * Hands every endpoint's due batches to the sender pool, up to the endpoint's concurrency limit.
+     */
+    @Scheduled(fixedDelayString = "${webhooks.dispatch.poll-millis:1000}")
+    public void dispatch() {
+        for (Long endpointId : deliveryRepository.findDueEndpointIds(WebhookDeliveryStatus.PENDING, LocalDateTime.now())) {
+            WebhookEndpoint endpoint = endpointRepository.findById(endpointId).orElse(null);
+            if (endpoint == null) {
+                continue;
+            }
+            Semaphore permits = permitsFor(endpoint);
+            while (permits.tryAcquire()) {
+                List<WebhookDelivery> batch = claimBatch(endpointId);
+                if (batch.isEmpty()) {
+                    permits.release();
+                    break;
+                }
+                try {
+                    webhookExecutor.execute(() -> {
+                        try {
+                            deliver(endpoint, batch);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (TaskRejectedException e) {
+                    // The pool is saturated; hand the batch back and try again on the next run.
+                    permits.release();
+                    deliveryRepository.lease(ids(batch), LocalDateTime.now());
+                    return;
+                }
+            }
+        }
+    }
+
+    @Scheduled(cron = "${webhooks.purge.cron:0 30 3 * * *}")
+    public void purgeDelivered() {
+        int purged = deliveryRepository.purgeDelivered(WebhookDeliveryStatus.DELIVERED,
+                LocalDateTime.now().minusDays(deliveredRetentionDays));
+        log.info("Purged {} delivered webhook events.", purged);
+    }
+
+    // --- Dead Letters ---
+
+    @Transactional(readOnly = true)
+    public Page<WebhookDeadLetterDto> getDeadLetters(Pageable pageable) {
+        return deliveryRepository.findDeadLetters(WebhookDeliveryStatus.DEAD, pageable);
+    }
+
+    /**
+     * Sends a dead-lettered event again with a fresh set of attempts. Not possible once its endpoint
+     * has been disabled: the dispatcher no longer sends to it.
+     */
+    @Transactional
+    public void requeueDeadLetter(Long deliveryId) {
+        if (deliveryRepository.requeue(deliveryId, WebhookDeliveryStatus.PENDING, WebhookDeliveryStatus.DEAD,
+                LocalDateTime.now()) == 0) {
+            WebhookDelivery delivery = deliveryRepository.findById(deliveryId)
+                    .filter(d -> d.getStatus() == WebhookDeliveryStatus.DEAD)
+                    .orElseThrow(() -> new ResourceNotFoundException("Dead-lettered webhook delivery not found with ID: " + deliveryId));
+            throw new IllegalStateException("Webhook endpoint " + delivery.getEndpoint().getId()
+                    + " is disabled; its dead letters cannot be requeued.");
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private void publish(InsuranceCompany company, WebhookEventType type, Object data) {
+        if (company == null) {
+            return;
+        }
+        List<WebhookEndpoint> endpoints = endpointRepository.findByInsuranceCompanyAndEnabledTrue(company);
+        if (endpoints.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        WebhookEventDto event = new WebhookEventDto(UUID.randomUUID().toString(), type, now, data);
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize webhook event " + type, e);
+        }
+        for (WebhookEndpoint endpoint : endpoints) {
+            deliveryRepository.save(WebhookDelivery.builder()
+                    .endpoint(endpoint)
+                    .eventId(event.id())
+                    .eventType(type)
+                    .payload(payload)
+                    .status(WebhookDeliveryStatus.PENDING)
+                    .nextAttemptAt(now.plus(Duration.ofMillis(batchWindowMillis)))
+                    .build());
+        }
+    }
+
+    /**
+     * Locks the endpoint's next batch and leases it to this node. Events that are still inside
+     * their batch window are taken too, so they ride along instead of waiting for a batch of their own.
+     */
+    private List<WebhookDelivery> claimBatch(Long endpointId) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<WebhookDelivery> batch = deliveryRepository.lockDueBatch(endpointId,
+                    now.plus(Duration.ofMillis(batchWindowMillis)), batchMaxEvents);
+            if (!batch.isEmpty()) {
+                deliveryRepository.lease(ids(batch), now.plusSeconds(leaseSeconds));
+            }
+            return batch;
+        });
+    }
+
+    private void deliver(WebhookEndpoint endpoint, List<WebhookDelivery> batch) {
+        String batchId = UUID.randomUUID().toString();
+        StringBuilder body = new StringBuilder("{\"batchId\":\"").append(batchId).append("\",\"events\":[");
+        for (int i = 0; i < batch.size(); i++) {
+            body.append(i > 0 ? "," : "").append(batch.get(i).getPayload());
+        }
+        body.append("]}");
+
+        WebhookSender.Result result = webhookSender.send(endpoint.getUrl(), endpoint.getSecret(), batchId, body.toString());
+        List<Long> ids = ids(batch);
+        if (result.delivered()) {
+            deliveryRepository.markDelivered(ids, WebhookDeliveryStatus.DELIVERED, LocalDateTime.now(), result.statusCode());
+            return;
+        }
+
+        int attempts = batch.stream().mapToInt(WebhookDelivery::getAttempts).max().orElse(0) + 1;
+        String error = result.error().length() > 1024 ? result.error().substring(0, 1024) : result.error();
+        deliveryRepository.recordFailure(ids, error, result.statusCode(), LocalDateTime.now().plus(backoff(attempts)),
+                maxAttempts);
+        log.warn("Webhook batch {} of {} events to endpoint {} failed (attempt {}): {}",
+                batchId, batch.size(), endpoint.getId(), attempts, error);
+    }
+
+    // Exponential backoff with jitter: half the delay is fixed, the other half random, so endpoints
+    // that failed together do not all retry at the same moment.
+    private Duration backoff(int attempts) {
+        long delay = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(attempts - 1, 30));
+        long millis = delay * 1000;
+        return Duration.ofMillis(millis / 2 + ThreadLocalRandom.current().nextLong(millis / 2 + 1));
+    }
+
+    private Semaphore permitsFor(WebhookEndpoint endpoint) {
+        // A changed limit takes effect with a fresh semaphore; batches on the old one finish normally.
+        return permitsByEndpoint.compute(endpoint.getId(), (id, current) ->
+                current != null && current.limit() == endpoint.getMaxConcurrency()
+                        ? current
+                        : new EndpointPermits(endpoint.getMaxConcurrency(), new Semaphore(endpoint.getMaxConcurrency()))
+        ).semaphore();
+    }
+
+    private record EndpointPermits(int limit, Semaphore semaphore) {
+    }
+
+    private void validateUrl(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid webhook URL: " + url);
+        }
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        boolean plain = "http".equalsIgnoreCase(uri.getScheme());
+        if (uri.getHost() == null || !(secure || (plain && allowHttp))) {
+            throw new IllegalArgumentException("Webhook URL must be an absolute https URL: " + url);
+        }
+        webhookSender.checkDestination(uri);
+    }
+
+    private ClaimEventDto toClaimEvent(Claim claim, ClaimStatus previousStatus) {
+        return new ClaimEventDto(
+                claim.getId(),
+                claim.getPolicy().getId(),
+                claim.getPolicy().getProduct().getName(),
+                claim.getStatus(),
+                previousStatus,
+                claim.getDescription(),
+                claim.getCreatedAt(),
+                claim.getUpdatedAt());
+    }
+
+    private WebhookEndpointDto toDto(WebhookEndpoint endpoint, String secret) {
+        return new WebhookEndpointDto(endpoint.getId(), endpoint.getUrl(), endpoint.getMaxConcurrency(),
+                endpoint.isEnabled(), endpoint.getCreatedAt(), secret);
+    }
+
+    private static List<Long> ids(List<WebhookDelivery> batch) {
+        return batch.stream().map(WebhookDelivery::getId).toList();
+    }
+}
@@ -0,0 +1,145 @@
+package com.insuranceplatform.backend.util;
+
+import com.insuranceplatform.backend.dto.LedgerEntryRow;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Lays out a commission statement as a PDF table, one ledger row at a time.
+ *
+ * Each page's content is finished as soon as the page is full, so only the compressed pages are
+ * held until {@link #finish} writes the document. Text uses the built-in Helvetica font;
+ * characters it cannot encode are replaced with '?'.
+ */
+public class StatementPdfWriter implements Closeable {
+
+    private static final PDType1Font FONT = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    private static final PDType1Font BOLD = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final float MARGIN = 50;
+    private static final float FONT_SIZE = 9;
+    private static final float LINE_HEIGHT = 14;
+    // Left edges of the Date, Transaction, Type, Status and Policy columns; Amount is right-aligned.
+    private static final float[] COLUMNS = {MARGIN, 140, 200, 330, 410};
+    private static final float AMOUNT_RIGHT = PDRectangle.A4.getWidth() - MARGIN;
+
+    private final PDDocument document = new PDDocument();
+    private final String title;
+    private final List<String> headerLines;
+    private PDPageContentStream page;
+    private float y;
+    private int pageNumber;
+
+    /**
+     * @param title Shown in bold at the top of every page.
+     * @param headerLines Shown under the title on the first page (agent, period, ...).
+     */
+    public StatementPdfWriter(String title, List<String> headerLines) {
+        this.title = title;
+        this.headerLines = headerLines;
+    }
+
+    public void addRow(LedgerEntryRow row) throws IOException {
+        ensureSpace(1);
+        drawRow(FONT,
+                row.timestamp() != null ? row.timestamp().format(TIMESTAMP) : "",
+                String.valueOf(row.transactionId()),
+                row.transactionType().name(),
+                row.status().name(),
+                row.policyId() != null ? String.valueOf(row.policyId()) : "",
+                row.amount().toPlainString());
+    }
+
+    /**
+     * Adds the summary lines after the table and writes the document. The stream is not closed.
+     */
+    public void finish(List<String> summaryLines, OutputStream out) throws IOException {
+        ensureSpace(summaryLines.size() + 1);
+        y -= LINE_HEIGHT;
+        for (String line : summaryLines) {
+            text(BOLD, MARGIN, line);
+            y -= LINE_HEIGHT;
+        }
+        page.close();
+        page = null;
+        document.save(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (page != null) {
+            page.close();
+        }
+        document.close();
+    }
+
+    // --- Private Helper Methods ---
+
+    private void ensureSpace(int lines) throws IOException {
+        if (page != null && y - lines * LINE_HEIGHT >= MARGIN + LINE_HEIGHT) {
+            return;
+        }
+        if (page != null) {
+            page.close();
+        }
+        PDPage pdPage = new PDPage(PDRectangle.A4);
+        document.addPage(pdPage);
+        page = new PDPageContentStream(document, pdPage);
+        pageNumber++;
+        y = PDRectangle.A4.getHeight() - MARGIN;
+
+        text(BOLD, MARGIN, title);
+        text(FONT, AMOUNT_RIGHT - FONT.getStringWidth("Page " + pageNumber) / 1000 * FONT_SIZE, "Page " + pageNumber);
+        y -= LINE_HEIGHT * 1.5f;
+        if (pageNumber == 1) {
+            for (String line : headerLines) {
+                text(FONT, MARGIN, line);
+                y -= LINE_HEIGHT;
+            }
+            y -= LINE_HEIGHT / 2;
+        }
+        drawRow(BOLD, "Date", "Transaction", "Type", "Status", "Policy", "Amount (KES)");
+    }
+
+    private void drawRow(PDType1Font font, String... cells) throws IOException {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            text(font, COLUMNS[i], cells[i]);
+        }
+        String amount = printable(font, cells[COLUMNS.length]);
+        text(font, AMOUNT_RIGHT - font.getStringWidth(amount) / 1000 * FONT_SIZE, amount);
+        y -= LINE_HEIGHT;
+    }
+
+    private void text(PDType1Font font, float x, String value) throws IOException {
+        page.beginText();
+        page.setFont(font, FONT_SIZE);
+        page.newLineAtOffset(x, y);
+        page.showText(printable(font, value));
+        page.endText();
+    }
+
+    private String printable(PDType1Font font, String value) throws IOException {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i += Character.charCount(value.codePointAt(i))) {
+            String character = new String(Character.toChars(value.codePointAt(i)));
+            try {
+                font.encode(character);
+                result.append(character);
+            } catch (IllegalArgumentException e) {
+                result.append('?');
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.insuranceplatform.backend.util;
+
+import com.insuranceplatform.backend.service.DocumentBundleEntry;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams several stored files to an HTTP response as one ZIP archive.
+ *
+ * Each file is copied from storage straight into the compressor and out to the client, so the
+ * archive is never staged in memory or on disk and the download starts immediately.
+ * Formats that are already compressed (images, video, PDF) are stored without recompression,
+ * which keeps CPU use close to a plain copy.
+ */
+@Component
+@Slf4j
+public class ZipStreamUtil {
+
+    public void streamZip(List<DocumentBundleEntry> entries, String archiveName, HttpServletResponse response) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(archiveName, StandardCharsets.UTF_8).build().toString());
+
+        ZipOutputStream zip = new ZipOutputStream(response.getOutputStream(), StandardCharsets.UTF_8);
+        for (DocumentBundleEntry entry : entries) {
+            zip.setLevel(isCompressed(entry.file().getContentType()) ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+            ZipEntry zipEntry = new ZipEntry(entry.name());
+            if (entry.file().getLastModified() != null) {
+                zipEntry.setTime(entry.file().getLastModified().toEpochMilli());
+            }
+            zip.putNextEntry(zipEntry);
+            long size = entry.file().getContentLength();
+            long written = entry.file().transferTo(0, size, Channels.newChannel(zip));
+            if (written < size) {
+                // Headers are long gone, so the best we can do is a truncated entry and a log line.
+                log.warn("Short read while zipping {}: {} of {} bytes", entry.file().getKey(), written, size);
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+        response.flushBuffer();
+    }
+
+    private boolean isCompressed(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        return contentType.startsWith("image/") || contentType.startsWith("video/") || contentType.startsWith("audio/")
+                || contentType.equals("application/pdf") || contentType.equals("application/zip");
+    }
+}
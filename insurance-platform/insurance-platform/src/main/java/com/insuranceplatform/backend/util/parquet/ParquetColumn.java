@@ -0,0 +1,92 @@
+package com.insuranceplatform.backend.util.parquet;
+
+/**
+ * A typed column in a {@link ParquetStreamWriter} schema.
+ *
+ * Values are passed as Java objects: {@code Long} for int64, {@code BigDecimal} for decimal,
+ * {@code LocalDateTime} for timestamp (server time zone, stored as UTC microseconds),
+ * {@code String} for string, and any {@code Enum} or {@code String} for enum. Null is only
+ * accepted for optional columns.
+ */
+public final class ParquetColumn {
+
+    enum Kind {
+        INT64,
+        DECIMAL,
+        TIMESTAMP,
+        STRING,
+        ENUM
+    }
+
+    private final String name;
+    private final Kind kind;
+    private final boolean optional;
+    private final int precision;
+    private final int scale;
+
+    private ParquetColumn(String name, Kind kind, boolean optional, int precision, int scale) {
+        this.name = name;
+        this.kind = kind;
+        this.optional = optional;
+        this.precision = precision;
+        this.scale = scale;
+    }
+
+    public static ParquetColumn int64(String name) {
+        return new ParquetColumn(name, Kind.INT64, false, 0, 0);
+    }
+
+    /** Fixed-point decimal stored as an unscaled int64, so precision is at most 18. */
+    public static ParquetColumn decimal(String name, int precision, int scale) {
+        if (precision < 1 || precision > 18 || scale < 0 || scale > precision) {
+            throw new IllegalArgumentException("Unsupported decimal(" + precision + "," + scale + ") for column " + name);
+        }
+        return new ParquetColumn(name, Kind.DECIMAL, false, precision, scale);
+    }
+
+    public static ParquetColumn timestamp(String name) {
+        return new ParquetColumn(name, Kind.TIMESTAMP, false, 0, 0);
+    }
+
+    public static ParquetColumn string(String name) {
+        return new ParquetColumn(name, Kind.STRING, false, 0, 0);
+    }
+
+    /** Low-cardinality strings, dictionary-encoded per row group and typed as plain strings. */
+    public static ParquetColumn enumeration(String name) {
+        return new ParquetColumn(name, Kind.ENUM, false, 0, 0);
+    }
+
+    /** The same column, but allowing nulls. */
+    public ParquetColumn nullable() {
+        return new ParquetColumn(name, kind, true, precision, scale);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    boolean isOptional() {
+        return optional;
+    }
+
+    int getPrecision() {
+        return precision;
+    }
+
+    int getScale() {
+        return scale;
+    }
+
+    boolean isDictionaryEncoded() {
+        return kind == Kind.ENUM;
+    }
+
+    boolean isInt64() {
+        return kind == Kind.INT64 || kind == Kind.DECIMAL || kind == Kind.TIMESTAMP;
+    }
+}
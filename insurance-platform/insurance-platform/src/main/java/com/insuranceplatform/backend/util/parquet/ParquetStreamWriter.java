@@ -0,0 +1,553 @@
+package com.insuranceplatform.backend.util.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a flat table as a Parquet file to any output stream, one row group at a time.
+ *
+ * Rows are buffered column by column (already encoded and compressed, page by page) only for
+ * the current row group. {@link #endRowGroup()} writes the group out and flushes it, so a caller
+ * can cut row groups at natural boundaries such as calendar months and the client receives each
+ * one as soon as it is complete. Parquet never seeks backwards, so the target can be an HTTP
+ * response.
+ *
+ * Supports required and optional int64, decimal (int64-backed), timestamp (microseconds, UTC),
+ * UTF-8 string and dictionary-encoded string (enum) columns, with min/max statistics on the int64-backed
+ * columns so query engines can skip row groups. This is deliberately a small subset of the format,
+ * enough for report exports without pulling in the Hadoop-based reference implementation.
+ */
+public class ParquetStreamWriter implements Closeable {
+
+    public enum Codec {
+        UNCOMPRESSED(0),
+        GZIP(2);
+
+        private final int id;
+
+        Codec(int id) {
+            this.id = id;
+        }
+    }
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final String CREATED_BY = "insurance-platform report export";
+
+    // Constants from parquet.thrift
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_BYTE_ARRAY = 6;
+    private static final int REPETITION_REQUIRED = 0;
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_DECIMAL = 5;
+    private static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+
+    private static final int ROWS_PER_PAGE = 20_000;
+    private static final int MAX_PAGE_BYTES = 1024 * 1024;
+
+    private final PositionOutputStream out;
+    private final List<ParquetColumn> columns;
+    private final Codec codec;
+    private final long maxRowsPerGroup;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final List<ColumnChunkBuffer> chunks = new ArrayList<>();
+    private final List<RowGroupMetadata> rowGroups = new ArrayList<>();
+    private long rowsInGroup;
+    private long totalRows;
+    private boolean started;
+    private boolean closed;
+
+    /**
+     * @param out The target stream. It is flushed after every row group but never closed.
+     * @param maxRowsPerGroup Upper bound on rows buffered before a row group is written regardless.
+     */
+    public ParquetStreamWriter(OutputStream out, List<ParquetColumn> columns, Codec codec, long maxRowsPerGroup) {
+        this.out = new PositionOutputStream(out);
+        this.columns = List.copyOf(columns);
+        this.codec = codec;
+        this.maxRowsPerGroup = maxRowsPerGroup;
+        for (ParquetColumn column : this.columns) {
+            chunks.add(new ColumnChunkBuffer(column));
+        }
+    }
+
+    /**
+     * Appends one row. Values must be in schema order.
+     */
+    public void write(Object... values) throws IOException {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " values but got " + values.length);
+        }
+        startIfNeeded();
+        for (int i = 0; i < values.length; i++) {
+            chunks.get(i).add(values[i]);
+        }
+        rowsInGroup++;
+        totalRows++;
+        if (rowsInGroup >= maxRowsPerGroup) {
+            endRowGroup();
+        }
+    }
+
+    /**
+     * Writes all rows buffered so far as one row group and flushes the target stream.
+     * Does nothing if no rows are buffered.
+     */
+    public void endRowGroup() throws IOException {
+        if (rowsInGroup == 0) {
+            return;
+        }
+        List<ColumnChunkMetadata> metadata = new ArrayList<>();
+        long totalByteSize = 0;
+        for (ColumnChunkBuffer chunk : chunks) {
+            ColumnChunkMetadata written = chunk.writeTo(out);
+            metadata.add(written);
+            totalByteSize += written.uncompressedSize();
+            chunk.reset();
+        }
+        rowGroups.add(new RowGroupMetadata(metadata, totalByteSize, rowsInGroup));
+        rowsInGroup = 0;
+        out.flush();
+    }
+
+    /**
+     * Writes the last row group and the file footer. The target stream is left open.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        startIfNeeded();
+        endRowGroup();
+        byte[] footer = fileMetadata();
+        out.write(footer);
+        writeIntLE(out, footer.length);
+        out.write(MAGIC);
+        out.flush();
+        closed = true;
+    }
+
+    // --- Private Helper Methods ---
+
+    private void startIfNeeded() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Parquet writer is already closed.");
+        }
+        if (!started) {
+            out.write(MAGIC);
+            started = true;
+        }
+    }
+
+    private byte[] fileMetadata() {
+        ThriftCompactWriter thrift = new ThriftCompactWriter();
+        thrift.structBegin();
+        thrift.fieldI32(1, 1); // version
+        thrift.fieldListBegin(2, ThriftCompactWriter.TYPE_STRUCT, columns.size() + 1);
+        thrift.structBegin(); // root of the schema tree
+        thrift.fieldString(4, "schema");
+        thrift.fieldI32(5, columns.size());
+        thrift.structEnd();
+        for (ParquetColumn column : columns) {
+            writeSchemaElement(thrift, column);
+        }
+        thrift.fieldI64(3, totalRows);
+        thrift.fieldListBegin(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+        for (RowGroupMetadata rowGroup : rowGroups) {
+            thrift.structBegin();
+            thrift.fieldListBegin(1, ThriftCompactWriter.TYPE_STRUCT, rowGroup.columns().size());
+            for (ColumnChunkMetadata chunk : rowGroup.columns()) {
+                writeColumnChunk(thrift, chunk);
+            }
+            thrift.fieldI64(2, rowGroup.totalByteSize());
+            thrift.fieldI64(3, rowGroup.rowCount());
+            thrift.structEnd();
+        }
+        thrift.fieldString(6, CREATED_BY);
+        // Declares that min/max statistics use each type's natural (signed) order.
+        thrift.fieldListBegin(7, ThriftCompactWriter.TYPE_STRUCT, columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            thrift.structBegin();
+            thrift.fieldStructBegin(1);
+            thrift.structEnd();
+            thrift.structEnd();
+        }
+        thrift.structEnd();
+        return thrift.toByteArray();
+    }
+
+    private void writeSchemaElement(ThriftCompactWriter thrift, ParquetColumn column) {
+        thrift.structBegin();
+        thrift.fieldI32(1, column.isInt64() ? TYPE_INT64 : TYPE_BYTE_ARRAY);
+        thrift.fieldI32(3, column.isOptional() ? REPETITION_OPTIONAL : REPETITION_REQUIRED);
+        thrift.fieldString(4, column.getName());
+        switch (column.getKind()) {
+            case INT64 -> {
+                // Plain signed 64-bit integer; no annotation needed.
+            }
+            case DECIMAL -> {
+                thrift.fieldI32(6, CONVERTED_DECIMAL);
+                thrift.fieldI32(7, column.getScale());
+                thrift.fieldI32(8, column.getPrecision());
+                thrift.fieldStructBegin(10);
+                thrift.fieldStructBegin(5);
+                thrift.fieldI32(1, column.getScale());
+                thrift.fieldI32(2, column.getPrecision());
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            case TIMESTAMP -> {
+                thrift.fieldI32(6, CONVERTED_TIMESTAMP_MICROS);
+                thrift.fieldStructBegin(10);
+                thrift.fieldStructBegin(8);
+                thrift.fieldBool(1, true); // adjusted to UTC
+                thrift.fieldStructBegin(2);
+                thrift.fieldStructBegin(2); // MICROS
+                thrift.structEnd();
+                thrift.structEnd();
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            // Enum columns are annotated as plain strings: readers such as Arrow and Spark only understand
+            // the ENUM annotation for Thrift/Avro enums and otherwise read it as raw binary.
+            case STRING, ENUM -> {
+                thrift.fieldI32(6, CONVERTED_UTF8);
+                thrift.fieldStructBegin(10);
+                thrift.fieldStructBegin(1);
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+        }
+        thrift.structEnd();
+    }
+
+    private void writeColumnChunk(ThriftCompactWriter thrift, ColumnChunkMetadata chunk) {
+        ParquetColumn column = chunk.column();
+        thrift.structBegin();
+        thrift.fieldI64(2, chunk.fileOffset());
+        thrift.fieldStructBegin(3);
+        thrift.fieldI32(1, column.isInt64() ? TYPE_INT64 : TYPE_BYTE_ARRAY);
+        int[] encodings = column.isDictionaryEncoded()
+                ? new int[]{ENCODING_PLAIN, ENCODING_RLE, ENCODING_RLE_DICTIONARY}
+                : new int[]{ENCODING_PLAIN, ENCODING_RLE};
+        thrift.fieldListBegin(2, ThriftCompactWriter.TYPE_I32, encodings.length);
+        for (int encoding : encodings) {
+            thrift.listI32(encoding);
+        }
+        thrift.fieldListBegin(3, ThriftCompactWriter.TYPE_BINARY, 1);
+        thrift.listString(column.getName());
+        thrift.fieldI32(4, codec.id);
+        thrift.fieldI64(5, chunk.valueCount());
+        thrift.fieldI64(6, chunk.uncompressedSize());
+        thrift.fieldI64(7, chunk.compressedSize());
+        thrift.fieldI64(9, chunk.dataPageOffset());
+        if (chunk.dictionaryPageOffset() >= 0) {
+            thrift.fieldI64(11, chunk.dictionaryPageOffset());
+        }
+        thrift.fieldStructBegin(12);
+        if (chunk.min() != null) {
+            thrift.fieldBinary(1, chunk.max());
+            thrift.fieldBinary(2, chunk.min());
+        }
+        thrift.fieldI64(3, chunk.nullCount());
+        if (chunk.min() != null) {
+            thrift.fieldBinary(5, chunk.max());
+            thrift.fieldBinary(6, chunk.min());
+        }
+        thrift.structEnd();
+        thrift.structEnd();
+        thrift.structEnd();
+    }
+
+    private static void writeIntLE(OutputStream target, int value) throws IOException {
+        target.write(value);
+        target.write(value >>> 8);
+        target.write(value >>> 16);
+        target.write(value >>> 24);
+    }
+
+    private static void writeLongLE(OutputStream target, long value) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            target.write((int) (value >>> (8 * i)));
+        }
+    }
+
+    private static byte[] longLE(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (value >>> (8 * i));
+        }
+        return bytes;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream target, int value) {
+        while ((value & ~0x7F) != 0) {
+            target.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target.write(value);
+    }
+
+    /**
+     * Encodes values with the RLE half of Parquet's RLE/bit-packing hybrid encoding:
+     * each run of equal values becomes a length header plus the value in whole bytes.
+     */
+    private static byte[] encodeRuns(int[] values, int count, int bitWidth) {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        int byteWidth = (bitWidth + 7) / 8;
+        int i = 0;
+        while (i < count) {
+            int value = values[i];
+            int j = i + 1;
+            while (j < count && values[j] == value) {
+                j++;
+            }
+            writeVarint(encoded, (j - i) << 1);
+            for (int b = 0; b < byteWidth; b++) {
+                encoded.write(value >>> (8 * b));
+            }
+            i = j;
+        }
+        return encoded.toByteArray();
+    }
+
+    private static int bitWidth(int dictionarySize) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(dictionarySize - 1));
+    }
+
+    private record ColumnChunkMetadata(ParquetColumn column, long fileOffset, long dataPageOffset, long dictionaryPageOffset,
+                                       long valueCount, long nullCount, long uncompressedSize, long compressedSize,
+                                       byte[] min, byte[] max) {
+    }
+
+    private record RowGroupMetadata(List<ColumnChunkMetadata> columns, long totalByteSize, long rowCount) {
+    }
+
+    /**
+     * Encoded pages of one column for the current row group, plus the page being filled.
+     */
+    private final class ColumnChunkBuffer {
+
+        private final ParquetColumn column;
+
+        // Current page
+        private final ByteArrayOutputStream pageValues = new ByteArrayOutputStream();
+        private int[] pageDefinitionLevels = new int[1024];
+        private int[] pageDictionaryIndexes = new int[1024];
+        private int pageRows;
+        private int pageNonNullValues;
+
+        // Current column chunk
+        private final ByteArrayOutputStream pages = new ByteArrayOutputStream();
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        private long valueCount;
+        private long nullCount;
+        private long uncompressedSize;
+        private long compressedSize;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        private ColumnChunkBuffer(ParquetColumn column) {
+            this.column = column;
+        }
+
+        void add(Object value) throws IOException {
+            if (pageRows == pageDefinitionLevels.length) {
+                pageDefinitionLevels = Arrays.copyOf(pageDefinitionLevels, pageRows * 2);
+            }
+            if (value == null) {
+                if (!column.isOptional()) {
+                    throw new IllegalArgumentException("Column " + column.getName() + " does not allow nulls");
+                }
+                pageDefinitionLevels[pageRows++] = 0;
+                nullCount++;
+            } else {
+                pageDefinitionLevels[pageRows++] = 1;
+                encode(value);
+                pageNonNullValues++;
+            }
+            valueCount++;
+            if (pageRows >= ROWS_PER_PAGE || pageValues.size() >= MAX_PAGE_BYTES) {
+                endPage();
+            }
+        }
+
+        private void encode(Object value) throws IOException {
+            switch (column.getKind()) {
+                case INT64 -> writeInt64(((Number) value).longValue());
+                case DECIMAL -> writeInt64(((BigDecimal) value).setScale(column.getScale(), RoundingMode.HALF_UP)
+                        .unscaledValue().longValueExact());
+                case TIMESTAMP -> {
+                    Instant instant = ((LocalDateTime) value).atZone(zone).toInstant();
+                    writeInt64(Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000));
+                }
+                case STRING -> {
+                    byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                    writeIntLE(pageValues, bytes.length);
+                    pageValues.write(bytes);
+                }
+                case ENUM -> {
+                    String key = value instanceof Enum<?> constant ? constant.name() : value.toString();
+                    if (pageNonNullValues == pageDictionaryIndexes.length) {
+                        pageDictionaryIndexes = Arrays.copyOf(pageDictionaryIndexes, pageNonNullValues * 2);
+                    }
+                    pageDictionaryIndexes[pageNonNullValues] = dictionary.computeIfAbsent(key, k -> dictionary.size());
+                }
+            }
+        }
+
+        private void writeInt64(long value) throws IOException {
+            writeLongLE(pageValues, value);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        private void endPage() throws IOException {
+            if (pageRows == 0) {
+                return;
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream(pageValues.size() + 64);
+            if (column.isOptional()) {
+                byte[] levels = encodeRuns(pageDefinitionLevels, pageRows, 1);
+                writeIntLE(body, levels.length);
+                body.write(levels);
+            }
+            if (column.isDictionaryEncoded()) {
+                int width = bitWidth(Math.max(1, dictionary.size()));
+                body.write(width);
+                body.write(encodeRuns(pageDictionaryIndexes, pageNonNullValues, width));
+            } else {
+                pageValues.writeTo(body);
+            }
+            writePage(pages, PAGE_DATA, body.toByteArray(), pageRows);
+            pageValues.reset();
+            pageRows = 0;
+            pageNonNullValues = 0;
+        }
+
+        private void writePage(OutputStream target, int pageType, byte[] uncompressed, int numValues) throws IOException {
+            byte[] compressed = compress(uncompressed);
+            ThriftCompactWriter header = new ThriftCompactWriter();
+            header.structBegin();
+            header.fieldI32(1, pageType);
+            header.fieldI32(2, uncompressed.length);
+            header.fieldI32(3, compressed.length);
+            if (pageType == PAGE_DATA) {
+                header.fieldStructBegin(5);
+                header.fieldI32(1, numValues);
+                header.fieldI32(2, column.isDictionaryEncoded() ? ENCODING_RLE_DICTIONARY : ENCODING_PLAIN);
+                header.fieldI32(3, ENCODING_RLE); // definition levels
+                header.fieldI32(4, ENCODING_RLE); // repetition levels (none; the schema is flat)
+                header.structEnd();
+            } else {
+                header.fieldStructBegin(7);
+                header.fieldI32(1, numValues);
+                header.fieldI32(2, ENCODING_PLAIN);
+                header.structEnd();
+            }
+            header.structEnd();
+            byte[] headerBytes = header.toByteArray();
+            target.write(headerBytes);
+            target.write(compressed);
+            uncompressedSize += headerBytes.length + uncompressed.length;
+            compressedSize += headerBytes.length + compressed.length;
+        }
+
+        private byte[] compress(byte[] data) throws IOException {
+            if (codec == Codec.UNCOMPRESSED) {
+                return data;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(data);
+            }
+            return compressed.toByteArray();
+        }
+
+        ColumnChunkMetadata writeTo(PositionOutputStream target) throws IOException {
+            endPage();
+            long chunkStart = target.position();
+            long dictionaryOffset = -1;
+            if (column.isDictionaryEncoded()) {
+                ByteArrayOutputStream values = new ByteArrayOutputStream();
+                for (String entry : dictionary.keySet()) {
+                    byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+                    writeIntLE(values, bytes.length);
+                    values.write(bytes);
+                }
+                dictionaryOffset = chunkStart;
+                writePage(target, PAGE_DICTIONARY, values.toByteArray(), dictionary.size());
+            }
+            long dataOffset = target.position();
+            pages.writeTo(target);
+            boolean hasStatistics = column.isInt64() && valueCount > nullCount;
+            return new ColumnChunkMetadata(column, chunkStart, dataOffset, dictionaryOffset, valueCount, nullCount,
+                    uncompressedSize, compressedSize,
+                    hasStatistics ? longLE(min) : null, hasStatistics ? longLE(max) : null);
+        }
+
+        void reset() {
+            pages.reset();
+            dictionary.clear();
+            valueCount = 0;
+            nullCount = 0;
+            uncompressedSize = 0;
+            compressedSize = 0;
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+        }
+    }
+
+    /** Tracks the absolute file offset, which Parquet metadata refers to. */
+    private static final class PositionOutputStream extends FilterOutputStream {
+
+        private long position;
+
+        private PositionOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            position++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            position += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The caller owns the underlying stream.
+            flush();
+        }
+
+        long position() {
+            return position;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.insuranceplatform.backend.util.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Minimal Thrift compact-protocol encoder for the handful of Parquet metadata structures
+ * (page headers and the file footer) that {@link ParquetStreamWriter} emits.
+ */
+final class ThriftCompactWriter {
+
+    static final int TYPE_BOOLEAN_TRUE = 1;
+    static final int TYPE_BOOLEAN_FALSE = 2;
+    static final int TYPE_BYTE = 3;
+    static final int TYPE_I32 = 5;
+    static final int TYPE_I64 = 6;
+    static final int TYPE_BINARY = 8;
+    static final int TYPE_LIST = 9;
+    static final int TYPE_STRUCT = 12;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    private final Deque<Integer> enclosingFieldIds = new ArrayDeque<>();
+    private int lastFieldId;
+
+    void structBegin() {
+        enclosingFieldIds.push(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    void structEnd() {
+        out.write(0); // STOP
+        lastFieldId = enclosingFieldIds.pop();
+    }
+
+    void fieldStructBegin(int id) {
+        fieldHeader(id, TYPE_STRUCT);
+        structBegin();
+    }
+
+    void fieldI32(int id, int value) {
+        fieldHeader(id, TYPE_I32);
+        writeVarint(zigzag(value));
+    }
+
+    void fieldI64(int id, long value) {
+        fieldHeader(id, TYPE_I64);
+        writeVarint(zigzag(value));
+    }
+
+    void fieldBool(int id, boolean value) {
+        fieldHeader(id, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    void fieldBinary(int id, byte[] value) {
+        fieldHeader(id, TYPE_BINARY);
+        writeBinary(value);
+    }
+
+    void fieldString(int id, String value) {
+        fieldBinary(id, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void fieldListBegin(int id, int elementType, int size) {
+        fieldHeader(id, TYPE_LIST);
+        if (size < 15) {
+            out.write((size << 4) | elementType);
+        } else {
+            out.write(0xF0 | elementType);
+            writeVarint(size);
+        }
+    }
+
+    void listI32(int value) {
+        writeVarint(zigzag(value));
+    }
+
+    void listString(String value) {
+        writeBinary(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    private void fieldHeader(int id, int type) {
+        int delta = id - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            out.write((delta << 4) | type);
+        } else {
+            out.write(type);
+            writeVarint(zigzag(id));
+        }
+        lastFieldId = id;
+    }
+
+    private void writeBinary(byte[] value) {
+        writeVarint(value.length);
+        out.write(value, 0, value.length);
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,9 @@
+-- PolicyRepository.findChangesAfter and streamSnapshot: one insurer's policies by status, in change feed
+-- order. Leading with the insurer keeps each insurer's poll proportional to its own changes, rather than
+-- to every insurer's changes since its position.
+-- Built CONCURRENTLY so policies stay writable; Flyway runs this script outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_policies_company_status_change_txid
+    ON policies (company_id, status, change_txid, id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_policies_status_change_txid;
@@ -0,0 +1,414 @@
+-- Baseline: the schema as Hibernate created it (ddl-auto=update) before migrations took over.
+-- Databases that already have these tables are baselined at this version and skip this script.
+
+create table agents (
+    id bigserial not null,
+    superagent_id bigint not null,
+    user_id bigint not null unique,
+    primary key (id)
+);
+
+create table api_keys (
+    id bigserial not null,
+    created_at timestamp(6),
+    is_enabled boolean not null,
+    key_value varchar(255) not null unique,
+    last_used timestamp(6),
+    company_id bigint not null,
+    primary key (id)
+);
+
+create table certificate_stock (
+    id bigserial not null,
+    product_class varchar(255) not null,
+    quantity integer not null,
+    company_id bigint not null,
+    superagent_id bigint not null,
+    primary key (id)
+);
+
+create table certificates (
+    id bigserial not null,
+    file_url varchar(255) not null,
+    policy_id bigint not null unique,
+    primary key (id)
+);
+
+create table claim_upload_sessions (
+    id varchar(255) not null,
+    content_type varchar(255),
+    created_at timestamp(6),
+    document_type varchar(255) not null check (document_type in ('POLICE_ABSTRACT','DRIVING_LICENSE','LOGBOOK','PHOTO','VIDEO')),
+    file_name varchar(255),
+    file_url varchar(255),
+    received_bytes bigint not null,
+    status varchar(255) not null check (status in ('IN_PROGRESS','COMPLETED','ABORTED')),
+    total_size bigint not null,
+    updated_at timestamp(6),
+    claim_id bigint not null,
+    primary key (id)
+);
+
+create table claims (
+    id bigserial not null,
+    created_at timestamp(6),
+    description varchar(2048),
+    driving_license_url varchar(255) not null,
+    logbook_url varchar(255) not null,
+    photo_preview_url varchar(255),
+    photo_thumbnail_url varchar(255),
+    photo_url varchar(255),
+    police_abstract_url varchar(255) not null,
+    status varchar(255) not null check (status in ('RAISED','IN_REVIEW','APPROVED','REJECTED')),
+    updated_at timestamp(6),
+    video_preview_url varchar(255),
+    video_thumbnail_url varchar(255),
+    video_url varchar(255),
+    policy_id bigint not null,
+    primary key (id)
+);
+
+create table clients (
+    id bigserial not null,
+    full_name varchar(255) not null,
+    id_file_url varchar(255),
+    agent_id bigint not null,
+    primary key (id)
+);
+
+create table commission_statements (
+    id bigserial not null,
+    attempts integer not null,
+    claimed_at timestamp(6),
+    commission_total numeric(12,2),
+    csv_url varchar(255),
+    generated_at timestamp(6),
+    last_error varchar(1024),
+    pdf_url varchar(255),
+    period_start date not null,
+    status varchar(255) not null check (status in ('PENDING','GENERATING','GENERATED','FAILED')),
+    transaction_count integer not null,
+    withdrawal_total numeric(12,2),
+    agent_id bigint not null,
+    primary key (id),
+    constraint uk_commission_statements_agent_period unique (agent_id, period_start)
+);
+
+create table daily_sales_rollups (
+    id bigserial not null,
+    agent_id bigint not null,
+    claim_count bigint not null,
+    commission_amount numeric(14,2) not null,
+    day date not null,
+    insurance_company_id bigint not null,
+    policy_count bigint not null,
+    premium_amount numeric(14,2) not null,
+    product_id bigint not null,
+    quote_count bigint default 0 not null,
+    superagent_id bigint not null,
+    tax_amount numeric(14,2) not null,
+    primary key (id),
+    constraint uk_daily_sales_rollups_key unique (day, superagent_id, agent_id, product_id, insurance_company_id)
+);
+
+create table file_blobs (
+    id bigserial not null,
+    content_hash varchar(64) not null unique,
+    content_type varchar(255),
+    created_at timestamp(6),
+    file_url varchar(1024) not null unique,
+    reference_count integer not null,
+    size bigint not null,
+    primary key (id)
+);
+
+create table global_config (
+    id bigint not null,
+    tax_rate numeric(5,2) not null,
+    primary key (id)
+);
+
+create table insurance_companies (
+    id bigserial not null,
+    ira_number varchar(255) not null unique,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table leads (
+    id bigserial not null,
+    created_at timestamp(6),
+    customer_email varchar(255),
+    customer_name varchar(255) not null,
+    customer_phone varchar(255),
+    notes varchar(1024),
+    status varchar(255) not null check (status in ('NEW','CONTACTED','QUALIFIED','UNQUALIFIED','CONVERTED_TO_CLIENT')),
+    updated_at timestamp(6),
+    superagent_id bigint not null,
+    primary key (id)
+);
+
+create table notifications (
+    id bigserial not null,
+    created_at timestamp(6),
+    is_read boolean not null,
+    message varchar(1024) not null,
+    receiver_id bigint not null,
+    sender_id bigint,
+    primary key (id)
+);
+
+create table policies (
+    id bigserial not null,
+    certificate_url varchar(255),
+    created_at timestamp(6),
+    expiry_date timestamp(6),
+    logbook_file_url varchar(255),
+    paid_at timestamp(6),
+    premium_amount numeric(12,2) not null,
+    start_date timestamp(6),
+    status varchar(255) not null check (status in ('PENDING_PAYMENT','PAID','ACTIVE','EXPIRED','FAILED')),
+    tax_amount numeric(12,2) not null,
+    total_amount numeric(12,2) not null,
+    updated_at timestamp(6) default now() not null,
+    agent_id bigint not null,
+    client_id bigint not null,
+    product_id bigint not null,
+    primary key (id)
+);
+
+create table products (
+    id bigserial not null,
+    calculation_type varchar(255) not null check (calculation_type in ('PERCENTAGE_OF_VALUE','FLAT_RATE')),
+    name varchar(255) not null,
+    rate numeric(10,2) not null,
+    company_id bigint not null,
+    superagent_id bigint not null,
+    primary key (id)
+);
+
+create table superagents (
+    id bigserial not null,
+    ira_number varchar(255) not null unique,
+    is_verified boolean not null,
+    kra_pin varchar(255) not null,
+    paybill_number varchar(255),
+    user_id bigint not null unique,
+    primary key (id)
+);
+
+create table transactions (
+    id bigserial not null,
+    amount numeric(12,2) not null,
+    originator_conversation_id varchar(255),
+    status varchar(255) not null check (status in ('PENDING','COMPLETED','REJECTED')),
+    timestamp timestamp(6),
+    transaction_type varchar(255) not null check (transaction_type in ('COMMISSION_EARNED','WITHDRAWAL_REQUEST','WITHDRAWAL_COMPLETED','WITHDRAWAL_REJECTED','WITHDRAWAL_PROCESSING','PAYOUT_DEBIT')),
+    policy_id bigint,
+    wallet_id bigint not null,
+    primary key (id)
+);
+
+create table users (
+    id bigserial not null,
+    created_at timestamp(6) not null,
+    email varchar(255) not null unique,
+    full_name varchar(255) not null,
+    mfa_enabled boolean not null,
+    mfa_secret varchar(255),
+    password varchar(255) not null,
+    password_reset_token varchar(255),
+    password_reset_token_expiry timestamp(6),
+    phone varchar(255) not null unique,
+    role varchar(255) not null check (role in ('ADMIN','SUPERAGENT','AGENT')),
+    status varchar(255) not null check (status in ('ACTIVE','INACTIVE','PENDING_APPROVAL','SUSPENDED')),
+    updated_at timestamp(6) not null,
+    primary key (id)
+);
+
+create table wallets (
+    id bigserial not null,
+    balance numeric(12,2) not null,
+    user_id bigint not null unique,
+    primary key (id)
+);
+
+create table webhook_deliveries (
+    id bigserial not null,
+    attempts integer not null,
+    created_at timestamp(6),
+    delivered_at timestamp(6),
+    event_id varchar(36) not null,
+    event_type varchar(255) not null check (event_type in ('POLICY_PAID','CLAIM_RAISED','CLAIM_STATUS_CHANGED')),
+    last_error varchar(1024),
+    last_status_code integer,
+    next_attempt_at timestamp(6) not null,
+    payload text not null,
+    status varchar(255) not null check (status in ('PENDING','DELIVERED','DEAD')),
+    endpoint_id bigint not null,
+    primary key (id)
+);
+
+create table webhook_endpoints (
+    id bigserial not null,
+    created_at timestamp(6),
+    enabled boolean not null,
+    max_concurrency integer not null,
+    secret varchar(255) not null,
+    url varchar(2048) not null,
+    company_id bigint not null,
+    primary key (id)
+);
+
+create index idx_claims_created_at
+   on claims (created_at);
+
+create index idx_daily_sales_rollups_superagent_day
+   on daily_sales_rollups (superagent_id, day);
+
+create index idx_policies_paid_at
+   on policies (paid_at);
+
+create index idx_policies_created_at
+   on policies (created_at);
+
+create index idx_policies_status_updated_at
+   on policies (status, updated_at, id);
+
+create index idx_transactions_policy_id
+   on transactions (policy_id);
+
+create index idx_transactions_wallet_timestamp
+   on transactions (wallet_id, timestamp);
+
+create index idx_transactions_timestamp
+   on transactions (timestamp);
+
+create index idx_webhook_deliveries_due
+   on webhook_deliveries (status, next_attempt_at);
+
+create index idx_webhook_deliveries_endpoint_due
+   on webhook_deliveries (endpoint_id, status, next_attempt_at);
+
+create index idx_webhook_endpoints_company
+   on webhook_endpoints (company_id);
+
+alter table if exists agents
+   add constraint FK72kng6c7xwcqnaf8nj92jutuv
+   foreign key (superagent_id)
+   references superagents;
+
+alter table if exists agents
+   add constraint FK2vh8rg4inh3scgcguimya35my
+   foreign key (user_id)
+   references users;
+
+alter table if exists api_keys
+   add constraint FKg4kra2o6tk2dnb8s1x8dl0irn
+   foreign key (company_id)
+   references insurance_companies;
+
+alter table if exists certificate_stock
+   add constraint FKh0bq1123f2jwsxofed3neyg12
+   foreign key (company_id)
+   references insurance_companies;
+
+alter table if exists certificate_stock
+   add constraint FKo9cq49ys3qe2wnrwxlbb2jy78
+   foreign key (superagent_id)
+   references superagents;
+
+alter table if exists certificates
+   add constraint FKlbjpj1lk87mwf6sf2mb66pa8w
+   foreign key (policy_id)
+   references policies;
+
+alter table if exists claim_upload_sessions
+   add constraint FKrjbqsjuvd23kd3q9c8kkvsq45
+   foreign key (claim_id)
+   references claims;
+
+alter table if exists claims
+   add constraint FKm0w2xffwe13pmkusoxnxuim7j
+   foreign key (policy_id)
+   references policies;
+
+alter table if exists clients
+   add constraint FK8stv0ravg504982slk2xjr7wc
+   foreign key (agent_id)
+   references agents;
+
+alter table if exists commission_statements
+   add constraint FK1whe6n0hixooocbq893js6gde
+   foreign key (agent_id)
+   references agents;
+
+alter table if exists leads
+   add constraint FKhifl7osc8xytv414igykygc5g
+   foreign key (superagent_id)
+   references superagents;
+
+alter table if exists notifications
+   add constraint FK9kxl0whvhifo6gw4tjq36v53k
+   foreign key (receiver_id)
+   references users;
+
+alter table if exists notifications
+   add constraint FK13vcnq3ukas06ho1yrbc5lrb5
+   foreign key (sender_id)
+   references users;
+
+alter table if exists policies
+   add constraint FKevhjihuyyk0sdhjq6c1vwk3al
+   foreign key (agent_id)
+   references agents;
+
+alter table if exists policies
+   add constraint FK9fvidi377wjf8it22kknk7lye
+   foreign key (client_id)
+   references clients;
+
+alter table if exists policies
+   add constraint FKolmj6my3wqkjs5p7tj9f40b5q
+   foreign key (product_id)
+   references products;
+
+alter table if exists products
+   add constraint FKnrg625ai87cgi6ue8a2dvrem9
+   foreign key (company_id)
+   references insurance_companies;
+
+alter table if exists products
+   add constraint FK3vdc1d0vpwc4cha1kh697n9dj
+   foreign key (superagent_id)
+   references superagents;
+
+alter table if exists superagents
+   add constraint FKcj1gayegjhq1msoixw2h1w57w
+   foreign key (user_id)
+   references users;
+
+alter table if exists transactions
+   add constraint FKqjs271uq9e65dl3gstvlmelq3
+   foreign key (policy_id)
+   references policies;
+
+alter table if exists transactions
+   add constraint FK23bop5lktue0o5q7kr19ti8h
+   foreign key (wallet_id)
+   references wallets;
+
+alter table if exists wallets
+   add constraint FKc1foyisidw7wqqrkamafuwn4e
+   foreign key (user_id)
+   references users;
+
+alter table if exists webhook_deliveries
+   add constraint FK7tcpib5dyn9capj10uor855yv
+   foreign key (endpoint_id)
+   references webhook_endpoints;
+
+alter table if exists webhook_endpoints
+   add constraint FKmk217vvgw3f169jad8pw13oyu
+   foreign key (company_id)
+   references insurance_companies;
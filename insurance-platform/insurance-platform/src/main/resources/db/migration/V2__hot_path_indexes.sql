@@ -0,0 +1,42 @@
+-- Indexes for the lookups the application runs on every request, matching the repository queries.
+-- Built CONCURRENTLY so existing tables stay writable; Flyway runs this script outside a transaction.
+
+-- TransactionRepository.findByOriginatorConversationId (M-Pesa B2C result callbacks)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_originator_conversation_id
+    ON transactions (originator_conversation_id) WHERE originator_conversation_id IS NOT NULL;
+
+-- TransactionRepository.findPendingWithdrawalsForSuperagent / findAgentTransactionsByStatus
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_status_wallet
+    ON transactions (status, wallet_id);
+
+-- PolicyRepository.findByAgent, findByAgentAndExpiryDateBefore and the superagent variants (via agents)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_policies_agent_expiry
+    ON policies (agent_id, expiry_date);
+
+-- ClaimRepository.findByPolicy, findByPolicy_Agent and countClaimsBySuperagentAndStatus (via policies)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_claims_policy_status
+    ON claims (policy_id, status);
+
+-- ClaimRepository.countByStatusIn (admin dashboard pending claims)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_claims_status
+    ON claims (status);
+
+-- NotificationRepository.findByReceiverOrderByCreatedAtDesc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_receiver_created
+    ON notifications (receiver_id, created_at);
+
+-- LeadRepository.findBySuperagentOrderByCreatedAtDesc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_leads_superagent_created
+    ON leads (superagent_id, created_at);
+
+-- AgentRepository.findBySuperagent; also the first step of every "policies/claims of a superagent" query
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_agents_superagent
+    ON agents (superagent_id);
+
+-- CertificateStockRepository.findBySuperagentAndInsuranceCompanyAndProductClass (every paid policy)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_certificate_stock_superagent_company_class
+    ON certificate_stock (superagent_id, company_id, product_class);
+
+-- ProductRepository.findBySuperagent
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_superagent
+    ON products (superagent_id);
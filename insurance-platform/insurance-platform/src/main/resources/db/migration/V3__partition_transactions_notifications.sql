@@ -0,0 +1,93 @@
+-- Range-partition transactions (by timestamp) and notifications (by created_at) by month.
+--
+-- The existing table of each is renamed to <table>_legacy and attached as the partition for everything before
+-- next month, so no rows are copied. Monthly partitions follow; PartitionMaintenanceService keeps creating them
+-- ahead of time and detaches partitions past their retention into the archive schema (the legacy partition
+-- included, once its newest month has expired).
+--
+-- The partition key has to be part of the primary key, so the keys become (id, timestamp) and (id, created_at).
+-- IDs still come from the original sequences and stay unique.
+
+-- ---------------------------------------------------------------------------
+-- transactions
+-- ---------------------------------------------------------------------------
+
+-- Rows are always written with a timestamp; fill any that predate that so the key can be NOT NULL.
+UPDATE transactions SET timestamp = localtimestamp WHERE timestamp IS NULL;
+ALTER TABLE transactions ALTER COLUMN timestamp SET NOT NULL;
+
+-- The key the partition needs; the parent's primary key adopts it on attach.
+ALTER TABLE transactions DROP CONSTRAINT transactions_pkey, ADD CONSTRAINT transactions_legacy_pkey PRIMARY KEY (id, timestamp);
+ALTER TABLE transactions RENAME TO transactions_legacy;
+ALTER INDEX IF EXISTS idx_transactions_policy_id RENAME TO idx_transactions_legacy_policy_id;
+ALTER INDEX IF EXISTS idx_transactions_wallet_timestamp RENAME TO idx_transactions_legacy_wallet_timestamp;
+ALTER INDEX IF EXISTS idx_transactions_timestamp RENAME TO idx_transactions_legacy_timestamp;
+ALTER INDEX IF EXISTS idx_transactions_originator_conversation_id RENAME TO idx_transactions_legacy_originator_conversation_id;
+ALTER INDEX IF EXISTS idx_transactions_status_wallet RENAME TO idx_transactions_legacy_status_wallet;
+
+CREATE TABLE transactions (
+    LIKE transactions_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id;
+
+ALTER TABLE transactions ATTACH PARTITION transactions_legacy
+    FOR VALUES FROM (MINVALUE) TO (date_trunc('month', localtimestamp) + interval '1 month');
+
+-- Indexes on the parent are created on every partition; the legacy partition's matching indexes are reused.
+CREATE INDEX idx_transactions_policy_id ON transactions (policy_id);
+CREATE INDEX idx_transactions_wallet_timestamp ON transactions (wallet_id, timestamp);
+CREATE INDEX idx_transactions_timestamp ON transactions (timestamp);
+CREATE INDEX idx_transactions_originator_conversation_id
+    ON transactions (originator_conversation_id) WHERE originator_conversation_id IS NOT NULL;
+CREATE INDEX idx_transactions_status_wallet ON transactions (status, wallet_id);
+
+ALTER TABLE transactions ADD CONSTRAINT FKqjs271uq9e65dl3gstvlmelq3 FOREIGN KEY (policy_id) REFERENCES policies;
+ALTER TABLE transactions ADD CONSTRAINT FK23bop5lktue0o5q7kr19ti8h FOREIGN KEY (wallet_id) REFERENCES wallets;
+
+-- ---------------------------------------------------------------------------
+-- notifications
+-- ---------------------------------------------------------------------------
+
+UPDATE notifications SET created_at = localtimestamp WHERE created_at IS NULL;
+ALTER TABLE notifications ALTER COLUMN created_at SET NOT NULL;
+
+-- The key the partition needs; the parent's primary key adopts it on attach.
+ALTER TABLE notifications DROP CONSTRAINT notifications_pkey, ADD CONSTRAINT notifications_legacy_pkey PRIMARY KEY (id, created_at);
+ALTER TABLE notifications RENAME TO notifications_legacy;
+ALTER INDEX IF EXISTS idx_notifications_receiver_created RENAME TO idx_notifications_legacy_receiver_created;
+
+CREATE TABLE notifications (
+    LIKE notifications_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+ALTER SEQUENCE notifications_id_seq OWNED BY notifications.id;
+
+ALTER TABLE notifications ATTACH PARTITION notifications_legacy
+    FOR VALUES FROM (MINVALUE) TO (date_trunc('month', localtimestamp) + interval '1 month');
+
+CREATE INDEX idx_notifications_receiver_created ON notifications (receiver_id, created_at);
+
+ALTER TABLE notifications ADD CONSTRAINT FK9kxl0whvhifo6gw4tjq36v53k FOREIGN KEY (receiver_id) REFERENCES users;
+ALTER TABLE notifications ADD CONSTRAINT FK13vcnq3ukas06ho1yrbc5lrb5 FOREIGN KEY (sender_id) REFERENCES users;
+
+-- ---------------------------------------------------------------------------
+-- The next three months, so writes never depend on the maintenance job having run
+-- ---------------------------------------------------------------------------
+
+DO $$
+DECLARE
+    parent text;
+    month_start date;
+BEGIN
+    FOREACH parent IN ARRAY ARRAY['transactions', 'notifications'] LOOP
+        FOR i IN 1..3 LOOP
+            month_start := (date_trunc('month', localtimestamp) + make_interval(months => i))::date;
+            EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                    parent || to_char(month_start, '"_p"YYYY_MM'), parent,
+                    month_start, (month_start + interval '1 month')::date);
+        END LOOP;
+    END LOOP;
+END $$;
+
+CREATE SCHEMA IF NOT EXISTS archive;
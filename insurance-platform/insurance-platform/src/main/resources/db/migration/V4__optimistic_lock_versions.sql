@@ -0,0 +1,12 @@
+-- Version columns for optimistic locking (@Version) on the entities that are updated concurrently:
+-- payment and payout callbacks, withdrawal approvals, claim and lead edits, and certificate stock top-ups.
+--
+-- A constant default is stored in the catalog, so adding these columns does not rewrite the tables.
+-- On transactions the column is added to the partitioned parent and so to every partition.
+
+ALTER TABLE wallets ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE certificate_stock ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE policies ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE claims ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE leads ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE transactions ADD COLUMN version bigint NOT NULL DEFAULT 0;
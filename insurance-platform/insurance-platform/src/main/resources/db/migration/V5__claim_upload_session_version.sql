@@ -0,0 +1,9 @@
+-- Chunk writes, client aborts and the expiry job all update claim upload sessions; a version column
+-- (@Version) makes a stale write fail instead of silently overwriting another one, e.g. a chunk
+-- recording its offset on top of an ABORTED status.
+--
+-- Uploads now expire by their last activity (updated_at), which is set from the start of the upload.
+
+ALTER TABLE claim_upload_sessions ADD COLUMN version bigint NOT NULL DEFAULT 0;
+
+UPDATE claim_upload_sessions SET updated_at = created_at WHERE updated_at IS NULL;
@@ -0,0 +1,11 @@
+-- Claim photo/video derivative jobs that arrived while the media processing queue was full.
+-- MediaProcessingService records them here and a periodic sweep puts them back on the queue.
+
+CREATE TABLE pending_media_jobs (
+    id bigserial NOT NULL,
+    claim_id bigint NOT NULL,
+    document_type varchar(255) NOT NULL CHECK (document_type IN ('POLICE_ABSTRACT','DRIVING_LICENSE','LOGBOOK','PHOTO','VIDEO')),
+    source_url varchar(255) NOT NULL,
+    created_at timestamp(6),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,4 @@
+-- The worker holding a statement's claim. Completing or failing a statement is conditional on it,
+-- so a worker whose claim timed out and was taken over cannot overwrite the new worker's result.
+
+ALTER TABLE commission_statements ADD COLUMN claimed_by varchar(36);
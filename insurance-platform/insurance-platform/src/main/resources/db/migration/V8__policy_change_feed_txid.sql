@@ -0,0 +1,24 @@
+-- Orders the insurer change feed by transaction rather than by wall-clock time.
+--
+-- Every insert or update of a policy stamps it with the ID of the writing transaction. The feed only
+-- returns changes below the oldest transaction still running (pg_snapshot_xmin), and every transaction
+-- with a lower ID has already committed or rolled back, so no change can later appear behind a position
+-- the feed has handed out. updated_at was set before commit and could not guarantee that.
+--
+-- Existing rows keep the catalog default 0 (all of them are committed) and are ordered by ID.
+
+ALTER TABLE policies ADD COLUMN change_txid bigint NOT NULL DEFAULT 0;
+
+CREATE FUNCTION policies_stamp_change_txid() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.change_txid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER policies_change_txid BEFORE INSERT OR UPDATE ON policies
+    FOR EACH ROW EXECUTE FUNCTION policies_stamp_change_txid();
+
+-- PolicyRepository.findChangesAfter (replaces the updated_at keyset index)
+DROP INDEX IF EXISTS idx_policies_status_updated_at;
+CREATE INDEX idx_policies_status_change_txid ON policies (status, change_txid, id);
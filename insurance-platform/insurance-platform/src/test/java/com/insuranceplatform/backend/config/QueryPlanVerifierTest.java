@@ -0,0 +1,71 @@
+package com.insuranceplatform.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Applies every Flyway migration to a real PostgreSQL and runs {@link QueryPlanVerifier} on the
+ * result, so a migration that leaves a hot query without its index fails the build.
+ */
+class QueryPlanVerifierTest {
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void migrate() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        dataSource = postgres.getPostgresDatabase();
+        // As configured in application.properties: the CONCURRENTLY migrations cannot run under Flyway's transactional lock
+        Flyway.configure()
+                .dataSource(dataSource)
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void hotQueriesUseIndexes() {
+        assertThatCode(() -> new QueryPlanVerifier(dataSource, new ObjectMapper()).run(null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void failsWhenAnIndexIsMissing() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.execute("DROP INDEX idx_policies_company_status_change_txid");
+            try {
+                assertThatThrownBy(() -> new QueryPlanVerifier(singleConnection(connection), new ObjectMapper()).run(null))
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessageContaining("PolicyRepository.findChangesAfter");
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    // The verifier on the connection holding the uncommitted DROP INDEX
+    private static DataSource singleConnection(Connection connection) {
+        return new SingleConnectionDataSource(connection, true);
+    }
+}
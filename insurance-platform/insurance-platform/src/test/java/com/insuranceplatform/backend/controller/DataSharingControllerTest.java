@@ -0,0 +1,135 @@
+package com.insuranceplatform.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insuranceplatform.backend.dto.PolicyChangeFeedPage;
+import com.insuranceplatform.backend.dto.SharedTransactionDto;
+import com.insuranceplatform.backend.entity.InsuranceCompany;
+import com.insuranceplatform.backend.enums.PolicyStatus;
+import com.insuranceplatform.backend.repository.InsuranceCompanyRepository;
+import com.insuranceplatform.backend.repository.PolicyRepository;
+import com.insuranceplatform.backend.service.DataSharingService;
+import com.insuranceplatform.backend.service.PolicyDocumentService;
+import com.insuranceplatform.backend.service.WebhookService;
+import com.insuranceplatform.backend.util.ZipStreamUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the snapshot backfill and the change feed against two database nodes: a primary that has
+ * committed a change and a read replica that has not replayed it yet. Whichever node each read-only
+ * transaction lands on, the snapshot and the feed polled from its token must together return every policy.
+ */
+class DataSharingControllerTest {
+
+    private static final String COMPANY = "Acme Insurance";
+
+    private record Node(long horizon, List<SharedTransactionDto> rows) {}
+
+    // Transaction 150 committed on the primary; the replica has only replayed up to 100
+    private final Node primary = new Node(200, List.of(row(1L, 90L), row(2L, 150L)));
+    private final Node laggingReplica = new Node(100, List.of(row(1L, 90L)));
+    private Node current;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private DataSharingService dataSharingService;
+    private DataSharingController controller;
+    private final Authentication insurer = new UsernamePasswordAuthenticationToken(COMPANY, null, List.of());
+
+    @BeforeEach
+    void setUp() {
+        InsuranceCompany company = InsuranceCompany.builder().id(1L).name(COMPANY).build();
+        InsuranceCompanyRepository companyRepository = mock(InsuranceCompanyRepository.class);
+        when(companyRepository.findByName(COMPANY)).thenReturn(Optional.of(company));
+
+        // Every read is answered by whichever node the current transaction was routed to
+        PolicyRepository policyRepository = mock(PolicyRepository.class);
+        when(policyRepository.findChangeFeedHorizon()).thenAnswer(invocation -> current.horizon());
+        when(policyRepository.streamSnapshot(company, PolicyStatus.PAID)).thenAnswer(invocation -> current.rows().stream());
+        when(policyRepository.findChangesAfter(eq(company), eq(PolicyStatus.PAID), anyLong(), anyLong(), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    long afterTxid = invocation.getArgument(2);
+                    long afterId = invocation.getArgument(3);
+                    long horizon = invocation.getArgument(4);
+                    return current.rows().stream()
+                            .filter(row -> row.getChangeTxid() < horizon)
+                            .filter(row -> row.getChangeTxid() > afterTxid
+                                    || (row.getChangeTxid() == afterTxid && row.getPolicyId() > afterId))
+                            .sorted(Comparator.comparing(SharedTransactionDto::getChangeTxid)
+                                    .thenComparing(SharedTransactionDto::getPolicyId))
+                            .toList();
+                });
+
+        dataSharingService = new DataSharingService(policyRepository, companyRepository,
+                mock(PolicyDocumentService.class), objectMapper);
+        ReflectionTestUtils.setField(dataSharingService, "defaultPageSize", 100);
+        ReflectionTestUtils.setField(dataSharingService, "maxPageSize", 1000);
+        ReflectionTestUtils.setField(dataSharingService, "flushEveryRows", 1000);
+        controller = new DataSharingController(dataSharingService, mock(WebhookService.class), mock(ZipStreamUtil.class));
+    }
+
+    @Test
+    void snapshotStreamedFromLaggingReplicaResumesFeedFromItsOwnPosition() throws Exception {
+        current = primary;
+        ResponseEntity<StreamingResponseBody> response = controller.getPolicySnapshot(insurer, null);
+
+        current = laggingReplica;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        JsonNode trailer = lines.remove(lines.size() - 1);
+        assertThat(lines).extracting(line -> line.get("policyId").asLong()).containsExactly(1L);
+
+        current = primary;
+        PolicyChangeFeedPage page = dataSharingService.getPolicyChanges(COMPANY, trailer.get("nextToken").asText(), null);
+
+        assertThat(page.items()).extracting(SharedTransactionDto::getPolicyId).contains(2L);
+    }
+
+    @Test
+    void snapshotStreamedFromPrimaryEndsWithItsHorizon() throws Exception {
+        current = laggingReplica;
+        ResponseEntity<StreamingResponseBody> response = controller.getPolicySnapshot(insurer, null);
+
+        current = primary;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+
+        // Nothing committed below the primary's horizon is left for the feed
+        PolicyChangeFeedPage page = dataSharingService.getPolicyChanges(COMPANY,
+                objectMapper.readTree(lines[2]).get("nextToken").asText(), null);
+        assertThat(page.items()).isEmpty();
+    }
+
+    // --- Private Helper Methods ---
+
+    private static SharedTransactionDto row(Long policyId, Long changeTxid) {
+        return new SharedTransactionDto(policyId, "Motor", BigDecimal.TEN, null, "Agent", "Superagent", null, changeTxid);
+    }
+}
@@ -0,0 +1,189 @@
+package com.insuranceplatform.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs {@link EncryptingFileStorageService} on top of local-disk storage: round trips, ranged reads
+ * across segment boundaries, and rejection of truncated, tampered or foreign ciphertext.
+ */
+class EncryptingFileStorageServiceTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int TAG_LENGTH = 16;
+    private static final int ENCRYPTED_SEGMENT_SIZE = SEGMENT_SIZE + TAG_LENGTH;
+
+    @TempDir
+    Path root;
+
+    private LocalFileStorageService local;
+    private EncryptingFileStorageService storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        local = new LocalFileStorageService();
+        ReflectionTestUtils.setField(local, "rootDirectory", root.toString());
+        local.initialize();
+        storage = new EncryptingFileStorageService(local, key(1), SEGMENT_SIZE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, SEGMENT_SIZE - 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, 3 * SEGMENT_SIZE + 123})
+    void roundTripsContentAndStoresOnlyCiphertext(int size) throws IOException {
+        byte[] content = content(size);
+        String url = store(content);
+
+        StoredFile file = storage.loadFile(url);
+        assertThat(file.getContentLength()).isEqualTo(size);
+        assertThat(read(file, 0, size)).isEqualTo(content);
+
+        byte[] stored = Files.readAllBytes(root.resolve(url));
+        assertThat(stored).hasSize((int) EncryptingFileStorageService.encryptedLength(size, SEGMENT_SIZE));
+        if (size >= 16) {
+            assertThat(indexOf(stored, Arrays.copyOfRange(content, 0, 16))).isEqualTo(-1);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 10",             // Inside the first segment
+            "4090, 20",          // Across the first boundary
+            "4096, 4096",        // Exactly the second segment
+            "100, 12288",        // Spanning every segment
+            "12280, 100",        // Into the short last segment
+            "12300, 1000",       // Past the end
+    })
+    void readsRangesAcrossSegmentBoundaries(long position, long count) throws IOException {
+        byte[] content = content(3 * SEGMENT_SIZE + 123);
+        StoredFile file = storage.loadFile(store(content));
+
+        int end = (int) Math.min(position + count, content.length);
+        assertThat(read(file, position, count)).isEqualTo(Arrays.copyOfRange(content, (int) position, end));
+    }
+
+    @Test
+    void rejectsFileMissingItsLastSegment() throws IOException {
+        String url = store(content(3 * SEGMENT_SIZE + 123));
+        truncate(url, EncryptingFileStorageService.HEADER_LENGTH + 3L * ENCRYPTED_SEGMENT_SIZE);
+
+        // What is now the final segment was not encrypted as the last one
+        StoredFile file = storage.loadFile(url);
+        assertThat(file.getContentLength()).isEqualTo(3 * SEGMENT_SIZE);
+        assertThatThrownBy(() -> read(file, 0, file.getContentLength()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Segment 2");
+    }
+
+    @Test
+    void rejectsFileCutInsideASegment() throws IOException {
+        String url = store(content(3 * SEGMENT_SIZE + 123));
+        truncate(url, EncryptingFileStorageService.HEADER_LENGTH + 2L * ENCRYPTED_SEGMENT_SIZE + 1000);
+
+        StoredFile file = storage.loadFile(url);
+        assertThatThrownBy(() -> read(file, 0, file.getContentLength()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("failed authentication");
+    }
+
+    @Test
+    void rejectsTamperedSegmentButStillServesRangesOutsideIt() throws IOException {
+        byte[] content = content(3 * SEGMENT_SIZE + 123);
+        String url = store(content);
+        flipByte(url, EncryptingFileStorageService.HEADER_LENGTH + ENCRYPTED_SEGMENT_SIZE + 10L);
+
+        StoredFile file = storage.loadFile(url);
+        assertThatThrownBy(() -> read(file, SEGMENT_SIZE, 10))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Segment 1");
+        // Ranged reads only fetch and decrypt the segments they cover
+        assertThat(read(file, 0, 100)).isEqualTo(Arrays.copyOfRange(content, 0, 100));
+        assertThat(read(file, 2 * SEGMENT_SIZE, 100)).isEqualTo(Arrays.copyOfRange(content, 2 * SEGMENT_SIZE, 2 * SEGMENT_SIZE + 100));
+    }
+
+    @Test
+    void rejectsFileEncryptedWithAnotherMasterKey() {
+        String url = store(content(1000));
+        EncryptingFileStorageService otherKey = new EncryptingFileStorageService(local, key(2), SEGMENT_SIZE);
+
+        assertThatThrownBy(() -> otherKey.loadFile(url))
+                .isInstanceOf(SecurityException.class)
+                .hasMessageContaining("different master key");
+    }
+
+    @Test
+    void passesThroughFilesStoredBeforeEncryption() throws IOException {
+        byte[] content = content(5000);
+        String url = local.storeFile(new ByteArrayInputStream(content), content.length, "application/octet-stream", "plain.bin", "documents");
+
+        StoredFile file = storage.loadFile(url);
+        assertThat(read(file, 0, content.length)).isEqualTo(content);
+    }
+
+    // --- Private Helper Methods ---
+
+    private String store(byte[] content) {
+        return storage.storeFile(new ByteArrayInputStream(content), content.length, "application/octet-stream", "file.bin", "documents");
+    }
+
+    private static byte[] read(StoredFile file, long position, long count) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        file.transferTo(position, count, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private void truncate(String url, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(root.resolve(url), StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+    }
+
+    private void flipByte(String url, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(root.resolve(url), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer single = ByteBuffer.allocate(1);
+            channel.read(single, position);
+            single.put(0, (byte) (single.get(0) ^ 0x01)).rewind();
+            channel.write(single, position);
+        }
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    private static byte[] key(int seed) {
+        byte[] key = new byte[32];
+        new Random(seed).nextBytes(key);
+        return key;
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        for (int i = 0; i + needle.length <= haystack.length; i++) {
+            if (Arrays.equals(haystack, i, i + needle.length, needle, 0, needle.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,172 @@
+package com.insuranceplatform.backend.service;
+
+import com.adobe.testing.s3mock.junit5.S3MockExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs {@link S3FileStorageService} against an in-process S3 stand-in: single PUTs, multipart
+ * uploads (completion and abort) and ranged downloads.
+ */
+class S3FileStorageServiceTest {
+
+    private static final String BUCKET = "documents";
+    // The smallest part size S3 accepts
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+
+    // S3Mock is a Spring Boot application of its own; keep this application's database auto-configuration out of it
+    @RegisterExtension
+    static final S3MockExtension S3_MOCK = S3MockExtension.builder()
+            .silent()
+            .withProperty("spring.autoconfigure.exclude", String.join(",",
+                    "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration",
+                    "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration"))
+            .withSecureConnection(false)
+            .withInitialBuckets(BUCKET)
+            .build();
+
+    private S3Client s3Client;
+    private S3AsyncClient s3AsyncClient;
+    private S3Presigner s3Presigner;
+    private S3FileStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        URI endpoint = URI.create(S3_MOCK.getServiceEndpoint());
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test"));
+        S3Configuration pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+        // The same HTTP clients as the application (S3Mock brings another one onto the classpath)
+        s3Client = S3Client.builder().endpointOverride(endpoint).region(Region.US_EAST_1).httpClient(ApacheHttpClient.create())
+                .credentialsProvider(credentials).serviceConfiguration(pathStyle).build();
+        s3AsyncClient = S3AsyncClient.builder().endpointOverride(endpoint).region(Region.US_EAST_1).httpClient(NettyNioAsyncHttpClient.create())
+                .credentialsProvider(credentials).serviceConfiguration(pathStyle).build();
+        s3Presigner = S3Presigner.builder().endpointOverride(endpoint).region(Region.US_EAST_1)
+                .credentialsProvider(credentials).serviceConfiguration(pathStyle).build();
+
+        storage = new S3FileStorageService(s3Client, s3AsyncClient, s3Presigner);
+        ReflectionTestUtils.setField(storage, "bucketName", BUCKET);
+        ReflectionTestUtils.setField(storage, "multipartThreshold", (long) PART_SIZE);
+        ReflectionTestUtils.setField(storage, "partSize", PART_SIZE);
+        ReflectionTestUtils.setField(storage, "maxPartsInFlight", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Presigner.close();
+        s3AsyncClient.close();
+        s3Client.close();
+    }
+
+    @Test
+    void storesSmallFileWithSinglePut() throws IOException {
+        byte[] content = randomBytes(1000);
+
+        String url = storage.storeFile(new ByteArrayInputStream(content), content.length, "text/plain", "note.txt", "claims");
+
+        StoredFile stored = storage.loadFile(url);
+        assertThat(stored.getKey()).startsWith("claims/").endsWith(".txt");
+        assertThat(stored.getContentType()).isEqualTo("text/plain");
+        assertThat(read(stored, 0, stored.getContentLength())).isEqualTo(content);
+    }
+
+    @Test
+    void keepsOnlyShortAlphanumericExtensions() {
+        byte[] content = randomBytes(10);
+
+        assertThat(storage.loadFile(storage.storeFile(new ByteArrayInputStream(content), content.length, "image/jpeg", "photo.JPG", "claims"))
+                .getKey()).matches("claims/[0-9a-f-]{36}\\.JPG");
+        assertThat(storage.loadFile(storage.storeFile(new ByteArrayInputStream(content), content.length, "text/html", "x.html?a=b/../c", "claims"))
+                .getKey()).matches("claims/[0-9a-f-]{36}");
+        assertThat(storage.loadFile(storage.storeFile(new ByteArrayInputStream(content), content.length, "text/plain", "notes.verylongextension", "claims"))
+                .getKey()).matches("claims/[0-9a-f-]{36}");
+    }
+
+    @Test
+    void completesMultipartUploadOfLargeFile() throws IOException {
+        byte[] content = randomBytes(2 * PART_SIZE + 12345);
+
+        String url = storage.storeFile(new ByteArrayInputStream(content), -1, "video/mp4", "accident.mp4", "claims");
+
+        StoredFile stored = storage.loadFile(url);
+        assertThat(stored.getContentLength()).isEqualTo(content.length);
+        // Multipart ETags end with the part count
+        assertThat(stored.getETag()).endsWith("-3\"");
+        assertThat(read(stored, 0, stored.getContentLength())).isEqualTo(content);
+        assertThat(s3Client.listMultipartUploads(builder -> builder.bucket(BUCKET)).uploads()).isEmpty();
+    }
+
+    @Test
+    void abortsMultipartUploadWhenSourceFails() {
+        InputStream failing = new InputStream() {
+            private long remaining = PART_SIZE + 1024;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining-- <= 0) {
+                    throw new IOException("client disconnected");
+                }
+                return 7;
+            }
+        };
+
+        assertThatThrownBy(() -> storage.storeFile(failing, -1, "video/mp4", "broken.mp4", "aborted"))
+                .hasRootCauseMessage("client disconnected");
+
+        assertThat(s3Client.listMultipartUploads(builder -> builder.bucket(BUCKET)).uploads()).isEmpty();
+        assertThat(s3Client.listObjectsV2(builder -> builder.bucket(BUCKET).prefix("aborted/")).contents()).isEmpty();
+    }
+
+    @Test
+    void downloadsRequestedRangeOnly() throws IOException {
+        byte[] content = randomBytes(PART_SIZE + 4096);
+        String url = storage.storeFile(new ByteArrayInputStream(content), -1, "application/pdf", "report.pdf", "policies");
+
+        StoredFile stored = storage.loadFile(url);
+
+        assertThat(read(stored, 100, 1000)).isEqualTo(Arrays.copyOfRange(content, 100, 1100));
+        // A range spanning the part boundary
+        assertThat(read(stored, PART_SIZE - 10, 20)).isEqualTo(Arrays.copyOfRange(content, PART_SIZE - 10, PART_SIZE + 10));
+        assertThat(read(stored, content.length - 5, 5)).isEqualTo(Arrays.copyOfRange(content, content.length - 5, content.length));
+    }
+
+    // --- Helpers ---
+
+    private static byte[] read(StoredFile file, long position, long count) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = file.transferTo(position, count, Channels.newChannel(out));
+        assertThat(written).isEqualTo(count);
+        return out.toByteArray();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
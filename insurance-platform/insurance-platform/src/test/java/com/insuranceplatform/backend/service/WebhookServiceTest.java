@@ -0,0 +1,365 @@
+package com.insuranceplatform.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insuranceplatform.backend.dto.WebhookEndpointRequest;
+import com.insuranceplatform.backend.entity.InsuranceCompany;
+import com.insuranceplatform.backend.entity.WebhookDelivery;
+import com.insuranceplatform.backend.entity.WebhookEndpoint;
+import com.insuranceplatform.backend.enums.WebhookDeliveryStatus;
+import com.insuranceplatform.backend.enums.WebhookEventType;
+import com.insuranceplatform.backend.exception.ResourceNotFoundException;
+import com.insuranceplatform.backend.repository.WebhookDeliveryRepository;
+import com.insuranceplatform.backend.repository.WebhookEndpointRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs {@link WebhookService} dispatching with the real {@link WebhookSender} against a local HTTP
+ * receiver: signing, delivery, retries into the dead-letter state and the per-endpoint concurrency
+ * limit. The delivery table is an in-memory stand-in that applies the repository's updates.
+ */
+class WebhookServiceTest {
+
+    private static final String SECRET = "test-secret";
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final List<Received> received = new ArrayList<>();
+    private volatile int responseStatus = 200;
+    private volatile CountDownLatch holdResponses = new CountDownLatch(0);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final List<WebhookDelivery> rows = new ArrayList<>();
+    private WebhookEndpointRepository endpointRepository;
+    private WebhookDeliveryRepository deliveryRepository;
+    private ThreadPoolTaskExecutor webhookExecutor;
+    private WebhookEndpoint endpoint;
+    private WebhookService webhookService;
+
+    private record Received(String id, String signature, String body) {}
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/hook", exchange -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try (InputStream in = exchange.getRequestBody()) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                synchronized (received) {
+                    received.add(new Received(exchange.getRequestHeaders().getFirst(WebhookSender.ID_HEADER),
+                            exchange.getRequestHeaders().getFirst(WebhookSender.SIGNATURE_HEADER), body));
+                }
+                holdResponses.await(10, TimeUnit.SECONDS);
+                exchange.sendResponseHeaders(responseStatus, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+
+        endpoint = WebhookEndpoint.builder()
+                .id(1L)
+                .url("http://127.0.0.1:" + server.getAddress().getPort() + "/hook")
+                .secret(SECRET)
+                .maxConcurrency(2)
+                .build();
+        endpointRepository = mock(WebhookEndpointRepository.class);
+        when(endpointRepository.findById(1L)).thenReturn(Optional.of(endpoint));
+        deliveryRepository = inMemoryDeliveries();
+
+        webhookExecutor = new ThreadPoolTaskExecutor();
+        webhookExecutor.setCorePoolSize(8);
+        webhookExecutor.setMaxPoolSize(8);
+        webhookExecutor.setQueueCapacity(32);
+        webhookExecutor.initialize();
+
+        webhookService = new WebhookService(endpointRepository, deliveryRepository, new WebhookSender(5, 10, true),
+                new ObjectMapper(), mock(PlatformTransactionManager.class), webhookExecutor);
+        ReflectionTestUtils.setField(webhookService, "batchWindowMillis", 0L);
+        ReflectionTestUtils.setField(webhookService, "batchMaxEvents", 100);
+        ReflectionTestUtils.setField(webhookService, "leaseSeconds", 120L);
+        ReflectionTestUtils.setField(webhookService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(webhookService, "initialBackoffSeconds", 10L);
+        ReflectionTestUtils.setField(webhookService, "maxBackoffSeconds", 3600L);
+        ReflectionTestUtils.setField(webhookService, "allowHttp", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        holdResponses.countDown();
+        webhookExecutor.shutdown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void deliversSignedBatchAndMarksItDelivered() {
+        addPending("{\"n\":1}");
+        addPending("{\"n\":2}");
+
+        webhookService.dispatch();
+        awaitIdle();
+
+        assertThat(received).hasSize(1);
+        Received request = received.get(0);
+        assertThat(request.body()).isEqualTo("{\"batchId\":\"" + request.id() + "\",\"events\":[{\"n\":1},{\"n\":2}]}");
+        String timestamp = request.signature().substring(2, request.signature().indexOf(','));
+        assertThat(request.signature()).isEqualTo("t=" + timestamp + ",v1=" + WebhookSender.sign(SECRET, timestamp + "." + request.body()));
+        assertThat(rows).allSatisfy(row -> {
+            assertThat(row.getStatus()).isEqualTo(WebhookDeliveryStatus.DELIVERED);
+            assertThat(row.getLastStatusCode()).isEqualTo(200);
+            assertThat(row.getAttempts()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void retriesFailedBatchWithBackoffThenDeadLetters() {
+        responseStatus = 503;
+        WebhookDelivery row = addPending("{\"n\":1}");
+
+        LocalDateTime before = LocalDateTime.now();
+        webhookService.dispatch();
+        awaitIdle();
+
+        assertThat(row.getStatus()).isEqualTo(WebhookDeliveryStatus.PENDING);
+        assertThat(row.getAttempts()).isEqualTo(1);
+        assertThat(row.getLastStatusCode()).isEqualTo(503);
+        assertThat(row.getLastError()).isEqualTo("HTTP 503");
+        // The first retry waits between half and all of the initial backoff
+        assertThat(row.getNextAttemptAt()).isBetween(before.plusSeconds(5), LocalDateTime.now().plusSeconds(10));
+
+        // Not due yet: nothing is sent
+        webhookService.dispatch();
+        awaitIdle();
+        assertThat(received).hasSize(1);
+
+        makeDue(row);
+        before = LocalDateTime.now();
+        webhookService.dispatch();
+        awaitIdle();
+        assertThat(row.getAttempts()).isEqualTo(2);
+        // The backoff doubles
+        assertThat(row.getNextAttemptAt()).isBetween(before.plusSeconds(10), LocalDateTime.now().plusSeconds(20));
+
+        makeDue(row);
+        webhookService.dispatch();
+        awaitIdle();
+        assertThat(row.getStatus()).isEqualTo(WebhookDeliveryStatus.DEAD);
+        assertThat(row.getAttempts()).isEqualTo(3);
+
+        // Dead letters are not sent again
+        makeDue(row);
+        webhookService.dispatch();
+        awaitIdle();
+        assertThat(received).hasSize(3);
+    }
+
+    @Test
+    void limitsBatchesInFlightPerEndpoint() throws InterruptedException {
+        ReflectionTestUtils.setField(webhookService, "batchMaxEvents", 1);
+        for (int i = 0; i < 5; i++) {
+            addPending("{\"n\":" + i + "}");
+        }
+        holdResponses = new CountDownLatch(1);
+
+        webhookService.dispatch();
+        await(() -> inFlight.get() == 2);
+        // Both permits are taken: another run sends nothing more
+        webhookService.dispatch();
+        Thread.sleep(200);
+        assertThat(received).hasSize(2);
+
+        holdResponses.countDown();
+        awaitIdle();
+        while (rows.stream().anyMatch(row -> row.getStatus() == WebhookDeliveryStatus.PENDING)) {
+            webhookService.dispatch();
+            awaitIdle();
+        }
+
+        assertThat(received).hasSize(5);
+        assertThat(maxInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    void refusesInternalDestinations() {
+        WebhookSender sender = new WebhookSender(5, 10, false);
+        for (String url : List.of("http://127.0.0.1/hook", "http://localhost/hook", "http://[::1]/hook", "http://10.1.2.3/hook",
+                "http://192.168.0.10/hook", "http://169.254.169.254/latest/meta-data", "http://0.0.0.0/hook",
+                "http://224.0.0.1/hook", "http://[fd00::1]/hook")) {
+            assertThatThrownBy(() -> sender.checkDestination(URI.create(url)))
+                    .as(url).isInstanceOf(IllegalArgumentException.class);
+        }
+        sender.checkDestination(URI.create("https://93.184.216.34/hook"));
+
+        // Refused before connecting, and reported like any failed delivery
+        WebhookSender.Result result = sender.send(endpoint.getUrl(), SECRET, "batch", "{}");
+        assertThat(result.delivered()).isFalse();
+        assertThat(result.statusCode()).isNull();
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void refusesToRegisterInternalDestination() {
+        WebhookService strictService = new WebhookService(endpointRepository, deliveryRepository, new WebhookSender(5, 10, false),
+                new ObjectMapper(), mock(PlatformTransactionManager.class), webhookExecutor);
+        ReflectionTestUtils.setField(strictService, "allowHttp", true);
+        WebhookEndpointRequest request = new WebhookEndpointRequest();
+        request.setUrl(endpoint.getUrl());
+
+        assertThatThrownBy(() -> strictService.registerEndpoint(new InsuranceCompany(), request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("non-public address");
+        verify(endpointRepository, never()).save(any());
+    }
+
+    @Test
+    void refusesToRequeueDeadLetterOfDisabledEndpoint() {
+        endpoint.setEnabled(false);
+        WebhookDelivery dead = addPending("{}");
+        dead.setStatus(WebhookDeliveryStatus.DEAD);
+        when(deliveryRepository.findById(dead.getId())).thenReturn(Optional.of(dead));
+
+        assertThatThrownBy(() -> webhookService.requeueDeadLetter(dead.getId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("disabled");
+        assertThatThrownBy(() -> webhookService.requeueDeadLetter(99L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    // --- Helpers ---
+
+    private WebhookDelivery addPending(String payload) {
+        synchronized (rows) {
+            WebhookDelivery row = WebhookDelivery.builder()
+                    .id((long) rows.size() + 1)
+                    .endpoint(endpoint)
+                    .eventId("event-" + (rows.size() + 1))
+                    .eventType(WebhookEventType.POLICY_PAID)
+                    .payload(payload)
+                    .status(WebhookDeliveryStatus.PENDING)
+                    .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                    .build();
+            rows.add(row);
+            return row;
+        }
+    }
+
+    private void makeDue(WebhookDelivery row) {
+        synchronized (rows) {
+            row.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        }
+    }
+
+    private void awaitIdle() {
+        await(() -> webhookExecutor.getActiveCount() == 0 && webhookExecutor.getThreadPoolExecutor().getQueue().isEmpty());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * A repository mock whose queries and updates act on {@link #rows} the way the SQL does.
+     */
+    private WebhookDeliveryRepository inMemoryDeliveries() {
+        WebhookDeliveryRepository repository = mock(WebhookDeliveryRepository.class);
+        when(repository.findDueEndpointIds(any(), any())).thenAnswer(call -> {
+            LocalDateTime now = call.getArgument(1);
+            synchronized (rows) {
+                return rows.stream()
+                        .filter(row -> row.getStatus() == WebhookDeliveryStatus.PENDING && !row.getNextAttemptAt().isAfter(now))
+                        .map(row -> row.getEndpoint().getId())
+                        .distinct()
+                        .toList();
+            }
+        });
+        when(repository.lockDueBatch(anyLong(), any(), anyInt())).thenAnswer(call -> {
+            LocalDateTime dueBefore = call.getArgument(1);
+            int limit = call.getArgument(2);
+            synchronized (rows) {
+                return rows.stream()
+                        .filter(row -> row.getStatus() == WebhookDeliveryStatus.PENDING && !row.getNextAttemptAt().isAfter(dueBefore))
+                        .sorted(Comparator.comparing(WebhookDelivery::getId))
+                        .limit(limit)
+                        .toList();
+            }
+        });
+        when(repository.lease(anyList(), any())).thenAnswer(call -> update(call.getArgument(0),
+                row -> row.setNextAttemptAt(call.getArgument(1))));
+        when(repository.markDelivered(anyList(), any(), any(), anyInt())).thenAnswer(call -> update(call.getArgument(0), row -> {
+            row.setStatus(call.getArgument(1));
+            row.setDeliveredAt(call.getArgument(2));
+            row.setAttempts(row.getAttempts() + 1);
+            row.setLastStatusCode(call.getArgument(3));
+            row.setLastError(null);
+        }));
+        when(repository.recordFailure(anyList(), any(), any(), any(), anyInt())).thenAnswer(call -> update(call.getArgument(0), row -> {
+            int maxAttempts = call.getArgument(4);
+            row.setStatus(row.getAttempts() + 1 >= maxAttempts ? WebhookDeliveryStatus.DEAD : WebhookDeliveryStatus.PENDING);
+            row.setAttempts(row.getAttempts() + 1);
+            row.setLastError(call.getArgument(1));
+            row.setLastStatusCode(call.getArgument(2));
+            row.setNextAttemptAt(call.getArgument(3));
+        }));
+        return repository;
+    }
+
+    private int update(List<Long> ids, Consumer<WebhookDelivery> change) {
+        synchronized (rows) {
+            List<WebhookDelivery> matched = rows.stream().filter(row -> ids.contains(row.getId())).toList();
+            matched.forEach(change);
+            return matched.size();
+        }
+    }
+}
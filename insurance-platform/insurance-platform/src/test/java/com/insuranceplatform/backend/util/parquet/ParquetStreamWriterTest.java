@@ -0,0 +1,188 @@
+package com.insuranceplatform.backend.util.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes files with {@link ParquetStreamWriter} and reads them back with the reference Parquet
+ * implementation (parquet-mr), checking the schema's logical types, the encodings and every value.
+ */
+class ParquetStreamWriterTest {
+
+    private enum Status { ACTIVE, EXPIRED }
+
+    private static final List<ParquetColumn> COLUMNS = List.of(
+            ParquetColumn.int64("id"),
+            ParquetColumn.int64("parent_id").nullable(),
+            ParquetColumn.string("name").nullable(),
+            ParquetColumn.decimal("amount", 12, 2),
+            ParquetColumn.enumeration("status"),
+            ParquetColumn.timestamp("created_at").nullable());
+
+    private record Row(long id, Long parentId, String name, BigDecimal amount, Status status, LocalDateTime createdAt) {}
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesSchemaWithStandardLogicalTypes() throws IOException {
+        Path file = write(ParquetStreamWriter.Codec.GZIP, rows(3), 10);
+
+        MessageType schema = footer(file).getFileMetaData().getSchema();
+
+        assertPrimitive(schema.getType("id"), PrimitiveType.PrimitiveTypeName.INT64, Type.Repetition.REQUIRED, null);
+        assertPrimitive(schema.getType("parent_id"), PrimitiveType.PrimitiveTypeName.INT64, Type.Repetition.OPTIONAL, null);
+        assertPrimitive(schema.getType("name"), PrimitiveType.PrimitiveTypeName.BINARY, Type.Repetition.OPTIONAL,
+                LogicalTypeAnnotation.stringType());
+        assertPrimitive(schema.getType("amount"), PrimitiveType.PrimitiveTypeName.INT64, Type.Repetition.REQUIRED,
+                LogicalTypeAnnotation.decimalType(2, 12));
+        // Enumerations are plain strings to readers; only the encoding differs
+        assertPrimitive(schema.getType("status"), PrimitiveType.PrimitiveTypeName.BINARY, Type.Repetition.REQUIRED,
+                LogicalTypeAnnotation.stringType());
+        assertPrimitive(schema.getType("created_at"), PrimitiveType.PrimitiveTypeName.INT64, Type.Repetition.OPTIONAL,
+                LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MICROS));
+    }
+
+    @Test
+    void dictionaryEncodesEnumerationsOnly() throws IOException {
+        Path file = write(ParquetStreamWriter.Codec.GZIP, rows(1000), 400);
+
+        List<BlockMetaData> rowGroups = footer(file).getBlocks();
+        assertThat(rowGroups).hasSize(3);
+        for (BlockMetaData rowGroup : rowGroups) {
+            for (ColumnChunkMetaData chunk : rowGroup.getColumns()) {
+                boolean enumeration = chunk.getPath().toDotString().equals("status");
+                assertThat(chunk.hasDictionaryPage()).as(chunk.getPath().toDotString()).isEqualTo(enumeration);
+                assertThat(chunk.getEncodings().contains(Encoding.RLE_DICTIONARY)).as(chunk.getPath().toDotString()).isEqualTo(enumeration);
+            }
+        }
+    }
+
+    @Test
+    void readsBackEveryValue() throws IOException {
+        for (ParquetStreamWriter.Codec codec : ParquetStreamWriter.Codec.values()) {
+            List<Row> rows = rows(25_000);
+            // Several row groups, and pages cut at ROWS_PER_PAGE within the first one
+            Path file = write(codec, rows, 21_000);
+
+            List<Row> read = read(file);
+
+            assertThat(read).as(codec.name()).containsExactlyElementsOf(rows);
+        }
+    }
+
+    @Test
+    void writesEmptyFile() throws IOException {
+        Path file = write(ParquetStreamWriter.Codec.GZIP, List.of(), 10);
+
+        assertThat(footer(file).getBlocks()).isEmpty();
+        assertThat(read(file)).isEmpty();
+    }
+
+    // --- Helpers ---
+
+    private static List<Row> rows(int count) {
+        List<Row> rows = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_456_000);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row(
+                    i + 1,
+                    i % 3 == 0 ? null : (long) i * 7,
+                    i % 5 == 0 ? null : "Policyholder " + i + " – Nairobi",
+                    BigDecimal.valueOf(i * 1234L - 50_000, 2),
+                    i % 4 == 0 ? Status.EXPIRED : Status.ACTIVE,
+                    i % 7 == 0 ? null : start.plusMinutes(i).plusNanos(i * 1000L)));
+        }
+        return rows;
+    }
+
+    private Path write(ParquetStreamWriter.Codec codec, List<Row> rows, long maxRowsPerGroup) throws IOException {
+        Path file = Files.createTempFile(directory, "export-", ".parquet");
+        try (OutputStream out = Files.newOutputStream(file);
+             ParquetStreamWriter writer = new ParquetStreamWriter(out, COLUMNS, codec, maxRowsPerGroup)) {
+            for (Row row : rows) {
+                writer.write(row.id(), row.parentId(), row.name(), row.amount(), row.status(), row.createdAt());
+            }
+        }
+        return file;
+    }
+
+    private static List<Row> read(Path file) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (ParquetFileReader reader = ParquetFileReader.open(inputFile(file))) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            MessageColumnIO columnIO = new ColumnIOFactory().getColumnIO(schema);
+            PageReadStore rowGroup;
+            while ((rowGroup = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> records = columnIO.getRecordReader(rowGroup, new GroupRecordConverter(schema));
+                for (long i = 0; i < rowGroup.getRowCount(); i++) {
+                    Group group = records.read();
+                    rows.add(new Row(
+                            group.getLong("id", 0),
+                            group.getFieldRepetitionCount("parent_id") == 0 ? null : group.getLong("parent_id", 0),
+                            group.getFieldRepetitionCount("name") == 0 ? null : group.getString("name", 0),
+                            new BigDecimal(BigInteger.valueOf(group.getLong("amount", 0)), 2),
+                            Status.valueOf(group.getString("status", 0)),
+                            group.getFieldRepetitionCount("created_at") == 0 ? null : fromMicros(group.getLong("created_at", 0))));
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Timestamps are written as UTC instants of the server's local time
+    private static LocalDateTime fromMicros(long micros) {
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000);
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static ParquetMetadata footer(Path file) throws IOException {
+        try (ParquetFileReader reader = ParquetFileReader.open(inputFile(file))) {
+            return reader.getFooter();
+        }
+    }
+
+    private static InputFile inputFile(Path file) throws IOException {
+        return HadoopInputFile.fromPath(new org.apache.hadoop.fs.Path(file.toUri()), new Configuration());
+    }
+
+    private static void assertPrimitive(Type type, PrimitiveType.PrimitiveTypeName primitive, Type.Repetition repetition,
+                                        LogicalTypeAnnotation logicalType) {
+        assertThat(type.isPrimitive()).as(type.getName()).isTrue();
+        assertThat(type.asPrimitiveType().getPrimitiveTypeName()).as(type.getName()).isEqualTo(primitive);
+        assertThat(type.getRepetition()).as(type.getName()).isEqualTo(repetition);
+        assertThat(type.getLogicalTypeAnnotation()).as(type.getName()).isEqualTo(logicalType);
+    }
+}